@@ -8,10 +8,12 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.Objects;
 
 @SpringBootApplication
+@EnableScheduling
 public class Jwtgeneratortaller1Application {
 
     private static final Logger log = LoggerFactory.getLogger(Jwtgeneratortaller1Application.class);
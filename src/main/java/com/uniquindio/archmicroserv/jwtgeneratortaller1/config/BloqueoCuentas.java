@@ -0,0 +1,194 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.CuentaBloqueadaException;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloqueo temporal de cuentas por intentos fallidos de login.
+ * Los fallos se cuentan en una ventana deslizante aproximada con dos contadores
+ * (ventana actual y anterior, ponderada por el tiempo que aún se solapa), así
+ * que cada cuenta ocupa unos pocos campos sin importar cuántos intentos haga.
+ * Al llegar al máximo la cuenta se bloquea y los intentos se rechazan sin
+ * consultar el repositorio. Las cuentas se guardan en Caffeine con tamaño
+ * máximo y expiración por inactividad: con millones de usuarios distintos la
+ * memoria queda acotada y se conservan las cuentas atacadas con más frecuencia.
+ */
+@Slf4j
+@Component
+public class BloqueoCuentas implements MeterBinder {
+
+    public static final String MENSAJE = "Cuenta bloqueada temporalmente por intentos fallidos, intente más tarde";
+
+    /**
+     * Estado de una cuenta; se modifica bajo su propio monitor
+     */
+    private static final class Intentos {
+        long ventana;           // índice de la ventana actual
+        int fallosActual;
+        int fallosAnterior;
+        long bloqueadaHasta;    // nanos del ticker, 0 si no está bloqueada
+    }
+
+    private final boolean habilitado;
+    private final int maxFallos;
+    private final long ventanaNanos;
+    private final long bloqueoNanos;
+    private final Ticker reloj;
+    private final Cache<String, Intentos> cuentas;
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong bloqueos = new AtomicLong();
+    private final AtomicLong rechazos = new AtomicLong();
+
+    @Autowired
+    public BloqueoCuentas(@Value("${bloqueo.enabled:true}") boolean habilitado,
+                          @Value("${bloqueo.max-fallos:5}") int maxFallos,
+                          @Value("${bloqueo.ventana-seconds:900}") long ventanaSegundos,
+                          @Value("${bloqueo.duracion-seconds:900}") long bloqueoSegundos,
+                          @Value("${bloqueo.max-cuentas:100000}") long maxCuentas) {
+        this(habilitado, maxFallos, Duration.ofSeconds(ventanaSegundos), Duration.ofSeconds(bloqueoSegundos),
+                maxCuentas, Ticker.systemTicker());
+    }
+
+    BloqueoCuentas(boolean habilitado, int maxFallos, Duration ventana, Duration bloqueo, long maxCuentas,
+                   Ticker reloj) {
+        if (maxFallos <= 0 || ventana.isNegative() || ventana.isZero() || bloqueo.isNegative()) {
+            throw new IllegalArgumentException("Configuración de bloqueo inválida");
+        }
+        this.habilitado = habilitado;
+        this.maxFallos = maxFallos;
+        this.ventanaNanos = ventana.toNanos();
+        this.bloqueoNanos = bloqueo.toNanos();
+        this.reloj = reloj;
+        // Tras dos ventanas sin actividad los contadores valen cero; el bloqueo puede durar más
+        this.cuentas = Caffeine.newBuilder()
+                .maximumSize(maxCuentas)
+                .expireAfterAccess(Math.max(2 * ventanaNanos, bloqueoNanos), TimeUnit.NANOSECONDS)
+                .ticker(reloj)
+                .build();
+    }
+
+    /**
+     * Lanza CuentaBloqueadaException si la cuenta está bloqueada
+     */
+    public void verificar(String usuario) {
+        if (!habilitado || usuario == null) {
+            return;
+        }
+        Intentos intentos = cuentas.getIfPresent(usuario);
+        if (intentos == null) {
+            return;
+        }
+        long espera;
+        synchronized (intentos) {
+            espera = intentos.bloqueadaHasta - reloj.read();
+        }
+        if (espera > 0) {
+            rechazos.incrementAndGet();
+            throw new CuentaBloqueadaException(MENSAJE, segundos(espera));
+        }
+    }
+
+    /**
+     * Registra un intento fallido y bloquea la cuenta al llegar al máximo
+     *
+     * @return true si este fallo bloqueó la cuenta
+     */
+    public boolean registrarFallo(String usuario) {
+        if (!habilitado || usuario == null) {
+            return false;
+        }
+        fallos.incrementAndGet();
+        Intentos intentos = cuentas.get(usuario, k -> new Intentos());
+        long ahora = reloj.read();
+        synchronized (intentos) {
+            avanzar(intentos, ahora);
+            intentos.fallosActual++;
+            if (intentos.bloqueadaHasta - ahora > 0 || estimarFallos(intentos, ahora) < maxFallos) {
+                return false;
+            }
+            intentos.bloqueadaHasta = ahora + bloqueoNanos;
+            // El bloqueo consume los fallos acumulados: al vencer se vuelve a contar desde cero
+            intentos.fallosActual = 0;
+            intentos.fallosAnterior = 0;
+        }
+        bloqueos.incrementAndGet();
+        log.warn("Cuenta {} bloqueada por {} intentos fallidos", usuario, maxFallos);
+        return true;
+    }
+
+    /**
+     * Un login exitoso olvida los fallos de la cuenta
+     */
+    public void registrarExito(String usuario) {
+        if (habilitado && usuario != null) {
+            cuentas.invalidate(usuario);
+        }
+    }
+
+    /**
+     * Mueve los contadores a la ventana del instante dado
+     */
+    private void avanzar(Intentos intentos, long ahora) {
+        long ventana = Math.floorDiv(ahora, ventanaNanos);
+        long saltadas = ventana - intentos.ventana;
+        if (saltadas == 0) {
+            return;
+        }
+        intentos.fallosAnterior = saltadas == 1 ? intentos.fallosActual : 0;
+        intentos.fallosActual = 0;
+        intentos.ventana = ventana;
+    }
+
+    /**
+     * Fallos en los últimos ventanaNanos: la ventana anterior cuenta en
+     * proporción a la parte que todavía cae dentro de la ventana deslizante
+     */
+    private double estimarFallos(Intentos intentos, long ahora) {
+        double transcurrido = (double) Math.floorMod(ahora, ventanaNanos) / ventanaNanos;
+        return intentos.fallosActual + intentos.fallosAnterior * (1 - transcurrido);
+    }
+
+    private static long segundos(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    long cuentasSeguidas() {
+        cuentas.cleanUp();
+        return cuentas.estimatedSize();
+    }
+
+    /**
+     * Contadores de fallos, bloqueos y rechazos, y cuentas en seguimiento
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("login.fallos", fallos, AtomicLong::get)
+                .description("Intentos de login fallidos")
+                .register(registry);
+        FunctionCounter.builder("login.bloqueos", bloqueos, AtomicLong::get)
+                .description("Cuentas bloqueadas por intentos fallidos")
+                .register(registry);
+        FunctionCounter.builder("login.rechazos", rechazos, AtomicLong::get)
+                .description("Intentos de login rechazados por cuenta bloqueada")
+                .register(registry);
+        Gauge.builder("login.cuentas.seguimiento", cuentas, Cache::estimatedSize)
+                .description("Cuentas con intentos fallidos en memoria")
+                .register(registry);
+    }
+}
@@ -0,0 +1,188 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.crypto.SecretKey;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Clave usada para firmar y verificar tokens.
+ * En modo HMAC la misma clave firma y verifica; en modo asimétrico (ES256 / EdDSA)
+ * se firma con la clave privada y se publica la pública en el JWKS.
+ */
+@Slf4j
+public record ClaveFirma(
+        String kid,               // identificador de la clave (header "kid")
+        String algoritmo,         // HS256, ES256 o EdDSA
+        Key claveFirma,           // SecretKey o PrivateKey
+        Key claveVerificacion     // SecretKey o PublicKey
+) {
+
+    public static final String HS256 = "HS256";
+    public static final String ES256 = "ES256";
+    public static final String EDDSA = "EdDSA";
+
+    /**
+     * El kid va tal cual en el header JSON que arma la emisión rápida: solo se
+     * admiten caracteres que no necesitan escape
+     */
+    private static final Pattern KID_VALIDO = Pattern.compile("[A-Za-z0-9._-]{1,128}");
+
+    public ClaveFirma {
+        if (kid != null && !KID_VALIDO.matcher(kid).matches()) {
+            throw new IllegalArgumentException("kid de firma inválido: " + kid
+                    + " (solo letras, dígitos, '.', '_' y '-', hasta 128 caracteres)");
+        }
+    }
+
+    /**
+     * Crea una clave simétrica HMAC a partir del secreto compartido
+     */
+    public static ClaveFirma hmac(String kid, String secret) {
+        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes());
+        return new ClaveFirma(kid, HS256, key, key);
+    }
+
+    /**
+     * Crea una clave asimétrica a partir de las claves codificadas en Base64
+     * (PKCS#8 para la privada, X.509 para la pública, se aceptan cabeceras PEM).
+     * Sin claves configuradas solo arranca con permitirEfimera: el par generado
+     * es distinto en cada instancia, que rechazaría los tokens de las demás.
+     */
+    public static ClaveFirma asimetrica(String algoritmo, String privadaBase64, String publicaBase64,
+                                        boolean permitirEfimera) {
+        KeyPair par;
+        if (privadaBase64 == null || privadaBase64.isBlank() || publicaBase64 == null || publicaBase64.isBlank()) {
+            if (!permitirEfimera) {
+                throw new IllegalStateException("No se configuraron claves " + algoritmo
+                        + ": defina jwt.clave-privada y jwt.clave-publica (jwt.clave-efimera solo para desarrollo)");
+            }
+            log.warn("No se configuraron claves {}; se genera un par efímero en memoria (solo desarrollo)",
+                    algoritmo);
+            par = generarPar(algoritmo);
+        } else {
+            par = cargarPar(algoritmo, privadaBase64, publicaBase64);
+        }
+        String kid = Jwks.builder().key(par.getPublic()).idFromThumbprint().build().getId();
+        return new ClaveFirma(kid, algoritmo, par.getPrivate(), par.getPublic());
+    }
+
+    /**
+     * Crea la clave según el algoritmo configurado
+     */
+    public static ClaveFirma crear(String algoritmo, String secret, String privadaBase64, String publicaBase64,
+                                   boolean permitirEfimera) {
+        if (algoritmo == null || algoritmo.isBlank() || HS256.equalsIgnoreCase(algoritmo)) {
+            return hmac(kidHmac(secret), secret);
+        }
+        if (ES256.equalsIgnoreCase(algoritmo)) {
+            return asimetrica(ES256, privadaBase64, publicaBase64, permitirEfimera);
+        }
+        if (EDDSA.equalsIgnoreCase(algoritmo)) {
+            return asimetrica(EDDSA, privadaBase64, publicaBase64, permitirEfimera);
+        }
+        throw new IllegalArgumentException("Algoritmo de firma no soportado: " + algoritmo);
+    }
+
+    /**
+     * Claves adicionales del llavero compartido, separadas por comas.
+     * HMAC: "kid:secreto"; ES256 / EdDSA: "kid:privadaBase64:publicaBase64".
+     */
+    public static List<ClaveFirma> llavero(String algoritmo, String entradas) {
+        if (entradas == null || entradas.isBlank()) {
+            return List.of();
+        }
+        boolean hmac = algoritmo == null || algoritmo.isBlank() || HS256.equalsIgnoreCase(algoritmo);
+        String nombre = hmac ? HS256 : ES256.equalsIgnoreCase(algoritmo) ? ES256 : EDDSA;
+        List<ClaveFirma> claves = new ArrayList<>();
+        for (String entrada : entradas.split(",")) {
+            if (entrada.isBlank()) {
+                continue;
+            }
+            String[] partes = entrada.trim().split(":", hmac ? 2 : 3);
+            if (partes.length != (hmac ? 2 : 3) || partes[0].isBlank()) {
+                throw new IllegalArgumentException("Entrada del llavero de firma inválida para " + nombre
+                        + " (kid " + partes[0] + ")");
+            }
+            if (hmac) {
+                claves.add(hmac(partes[0], partes[1]));
+            } else {
+                KeyPair par = cargarPar(nombre, partes[1], partes[2]);
+                claves.add(new ClaveFirma(partes[0], nombre, par.getPrivate(), par.getPublic()));
+            }
+        }
+        return claves;
+    }
+
+    /**
+     * kid determinístico para el secreto configurado, igual en todas las instancias.
+     * Solo expone un prefijo del SHA-256 del secreto.
+     */
+    private static String kidHmac(String secret) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return "hs-" + HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    public boolean esAsimetrica() {
+        return claveVerificacion instanceof PublicKey;
+    }
+
+    /**
+     * Representación JWK pública de la clave (solo para claves asimétricas)
+     */
+    public PublicJwk<?> toJwk() {
+        if (!esAsimetrica()) {
+            throw new IllegalStateException("Las claves HMAC no se publican");
+        }
+        return Jwks.builder()
+                .key((PublicKey) claveVerificacion)
+                .id(kid)
+                .algorithm(algoritmo)
+                .build();
+    }
+
+    private static KeyPair generarPar(String algoritmo) {
+        return ES256.equals(algoritmo)
+                ? Jwts.SIG.ES256.keyPair().build()
+                : Jwks.CRV.Ed25519.keyPair().build();
+    }
+
+    private static KeyPair cargarPar(String algoritmo, String privadaBase64, String publicaBase64) {
+        try {
+            KeyFactory factory = KeyFactory.getInstance(ES256.equals(algoritmo) ? "EC" : "Ed25519");
+            PrivateKey privada = factory.generatePrivate(new PKCS8EncodedKeySpec(decodificar(privadaBase64)));
+            PublicKey publica = factory.generatePublic(new X509EncodedKeySpec(decodificar(publicaBase64)));
+            return new KeyPair(publica, privada);
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudieron cargar las claves " + algoritmo, e);
+        }
+    }
+
+    private static byte[] decodificar(String pem) {
+        String base64 = pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+}
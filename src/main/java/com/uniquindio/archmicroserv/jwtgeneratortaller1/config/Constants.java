@@ -19,6 +19,7 @@ public final class Constants {
     
     // Constantes de paginación
     public static final int TAMANO_PAGINA_DEFAULT = 10;
+    public static final int TAMANO_PAGINA_MAXIMO = 100;
     
     // Constantes de validación
     public static final int LONGITUD_MINIMA_USUARIO = 3;
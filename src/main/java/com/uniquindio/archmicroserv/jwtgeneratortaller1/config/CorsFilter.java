@@ -0,0 +1,89 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Etapa CORS, antes de Spring Security y del TokenFilter.
+ * Responde los preflight directamente con Access-Control-Max-Age para que el
+ * navegador los guarde en caché, y solo agrega cabeceras CORS a las peticiones
+ * que traen Origin. Los valores de las cabeceras se calculan una sola vez.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorsFilter extends OncePerRequestFilter {
+
+    private static final String METODOS = "GET, POST, PUT, PATCH, DELETE, OPTIONS";
+    private static final String CABECERAS = "Origin, Accept, Content-Type, Authorization";
+
+    private final boolean cualquierOrigen;
+    private final Set<String> origenes;
+    private final String maxAge;
+
+    public CorsFilter(@Value("${cors.origenes-permitidos:*}") String origenesPermitidos,
+                      @Value("${cors.max-age-seconds:86400}") long maxAgeSeconds) {
+        this.origenes = Arrays.stream(origenesPermitidos.split(","))
+                .map(String::trim)
+                .filter(origen -> !origen.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.cualquierOrigen = origenes.contains("*");
+        this.maxAge = Long.toString(maxAgeSeconds);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        String origen = request.getHeader("Origin");
+        if (origen == null) {
+            // No es una petición CORS
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean permitido = cualquierOrigen || origenes.contains(origen);
+        boolean preflight = "OPTIONS".equals(request.getMethod())
+                && request.getHeader("Access-Control-Request-Method") != null;
+
+        if (!permitido) {
+            if (preflight) {
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                return;
+            }
+            // Sin cabeceras CORS el navegador bloquea la respuesta
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (cualquierOrigen) {
+            response.setHeader("Access-Control-Allow-Origin", "*");
+        } else {
+            response.setHeader("Access-Control-Allow-Origin", origen);
+            response.addHeader("Vary", "Origin");
+        }
+
+        if (preflight) {
+            response.setHeader("Access-Control-Allow-Methods", METODOS);
+            response.setHeader("Access-Control-Allow-Headers", CABECERAS);
+            response.setHeader("Access-Control-Max-Age", maxAge);
+            response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,290 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+/**
+ * Ruta rápida de emisión de tokens firmados con HMAC.
+ * El header se codifica una sola vez, los claims se escriben directamente como
+ * JSON UTF-8 en un buffer reutilizable por hilo y la firma usa un Mac clonado
+ * confinado al hilo. Los tokens son equivalentes a los del builder de jjwt
+ * (mismos claims, alg y kid) y se verifican con el mismo parser.
+ */
+public class EmisorTokenHmac {
+
+    /**
+     * Claims registrados que escribe el emisor; si vienen en el mapa se usa el builder
+     */
+    private static final Set<String> CLAIMS_RESERVADOS = Set.of("sub", "iss", "iat", "exp", "jti");
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final int TAMANO_FIRMA_MAXIMO = 64;
+
+    private final String kid;
+    private final SecretKey key;
+    private final byte[] headerCodificado;
+    private final Mac prototipo;
+    private final ThreadLocal<Mac> macPorHilo;
+    private final ThreadLocal<Buffers> buffersPorHilo = ThreadLocal.withInitial(Buffers::new);
+
+    /**
+     * Buffers reutilizados por cada hilo para no asignar memoria por token
+     */
+    private static final class Buffers {
+        byte[] json = new byte[512];
+        byte[] token = new byte[1024];
+        final byte[] firma = new byte[TAMANO_FIRMA_MAXIMO];
+        int jsonLen;
+    }
+
+    public EmisorTokenHmac(ClaveFirma clave) {
+        if (clave.esAsimetrica()) {
+            throw new IllegalArgumentException("La ruta rápida solo aplica a claves HMAC");
+        }
+        this.key = (SecretKey) clave.claveFirma();
+        String alg = algoritmoPara(key);
+        this.kid = clave.kid();
+        String header = kid != null
+                ? "{\"kid\":\"" + kid + "\",\"alg\":\"" + alg + "\"}"
+                : "{\"alg\":\"" + alg + "\"}";
+        this.headerCodificado = BASE64URL.encode(header.getBytes(StandardCharsets.UTF_8));
+        try {
+            this.prototipo = Mac.getInstance("Hmac" + alg.replace("HS", "SHA"));
+            this.prototipo.init(key);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo inicializar el Mac " + alg, e);
+        }
+        this.macPorHilo = ThreadLocal.withInitial(this::clonarMac);
+    }
+
+    public String kid() {
+        return kid;
+    }
+
+    /**
+     * Indica si los claims pueden emitirse por la ruta rápida
+     * (valores String, Boolean o numéricos finitos y sin claims registrados)
+     */
+    public static boolean soporta(Map<String, Object> claims) {
+        for (Map.Entry<String, Object> claim : claims.entrySet()) {
+            Object valor = claim.getValue();
+            if (CLAIMS_RESERVADOS.contains(claim.getKey())
+                    || !(valor instanceof String || valor instanceof Boolean || esNumeroJson(valor))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Números cuyo toString() es un literal JSON válido: enteros primitivos y
+     * Double/Float finitos. NaN, Infinity y los demás Number (BigDecimal,
+     * tipos propios) van por el builder de jjwt.
+     */
+    private static boolean esNumeroJson(Object valor) {
+        if (valor instanceof Integer || valor instanceof Long || valor instanceof Short || valor instanceof Byte) {
+            return true;
+        }
+        if (valor instanceof Double d) {
+            return Double.isFinite(d);
+        }
+        return valor instanceof Float f && Float.isFinite(f);
+    }
+
+    /**
+     * Emite un token compacto header.payload.firma
+     */
+    public String emitir(String subject, String issuer, String jti, Map<String, Object> claims,
+                         Instant emision, Instant expiracion) {
+        Buffers b = buffersPorHilo.get();
+        b.jsonLen = 0;
+        escribirAscii(b, "{");
+        boolean primero = true;
+        for (Map.Entry<String, Object> claim : claims.entrySet()) {
+            primero = escribirNombre(b, claim.getKey(), primero);
+            escribirValor(b, claim.getValue());
+        }
+        if (subject != null) {
+            primero = escribirNombre(b, "sub", primero);
+            escribirString(b, subject);
+        }
+        if (issuer != null) {
+            primero = escribirNombre(b, "iss", primero);
+            escribirString(b, issuer);
+        }
+        primero = escribirNombre(b, "iat", primero);
+        escribirLong(b, emision.getEpochSecond());
+        primero = escribirNombre(b, "exp", primero);
+        escribirLong(b, expiracion.getEpochSecond());
+        if (jti != null) {
+            escribirNombre(b, "jti", primero);
+            escribirString(b, jti);
+        }
+        escribirAscii(b, "}");
+
+        // header.payload
+        int payloadLen = (b.jsonLen + 2) / 3 * 4;
+        int max = headerCodificado.length + 1 + payloadLen + 1 + (TAMANO_FIRMA_MAXIMO + 2) / 3 * 4;
+        if (b.token.length < max) {
+            b.token = new byte[Math.max(max, b.token.length * 2)];
+        }
+        byte[] token = b.token;
+        System.arraycopy(headerCodificado, 0, token, 0, headerCodificado.length);
+        int pos = headerCodificado.length;
+        token[pos++] = '.';
+        pos += codificar(b.json, b.jsonLen, token, pos);
+
+        // firma HMAC sobre header.payload
+        Mac mac = macPorHilo.get();
+        mac.update(token, 0, pos);
+        int firmaLen = mac.getMacLength();
+        try {
+            mac.doFinal(b.firma, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo firmar el token", e);
+        }
+        token[pos++] = '.';
+        pos += codificar(b.firma, firmaLen, token, pos);
+        return new String(token, 0, pos, StandardCharsets.ISO_8859_1);
+    }
+
+    private Mac clonarMac() {
+        try {
+            return (Mac) prototipo.clone();
+        } catch (CloneNotSupportedException e) {
+            // El proveedor no permite clonar: se inicializa un Mac propio para el hilo
+            try {
+                Mac mac = Mac.getInstance(prototipo.getAlgorithm());
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("No se pudo crear el Mac", ex);
+            }
+        }
+    }
+
+    /**
+     * Mismo criterio que jjwt al firmar con signWith(SecretKey): el algoritmo
+     * más fuerte que permite la longitud de la clave
+     */
+    private static String algoritmoPara(SecretKey key) {
+        int bits = key.getEncoded().length * 8;
+        if (bits >= 512) {
+            return "HS512";
+        }
+        return bits >= 384 ? "HS384" : "HS256";
+    }
+
+    // ----- escritura de JSON -----
+
+    private static boolean escribirNombre(Buffers b, String nombre, boolean primero) {
+        if (!primero) {
+            escribirByte(b, ',');
+        }
+        escribirString(b, nombre);
+        escribirByte(b, ':');
+        return false;
+    }
+
+    private static void escribirValor(Buffers b, Object valor) {
+        if (valor instanceof String texto) {
+            escribirString(b, texto);
+        } else {
+            escribirAscii(b, valor.toString());
+        }
+    }
+
+    private static void escribirString(Buffers b, String texto) {
+        escribirByte(b, '"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"' || c == '\\') {
+                escribirByte(b, '\\');
+                escribirByte(b, c);
+            } else if (c < 0x20) {
+                escribirAscii(b, String.format("\\u%04x", (int) c));
+            } else if (c < 0x80) {
+                escribirByte(b, c);
+            } else if (c < 0x800) {
+                escribirByte(b, 0xC0 | (c >> 6));
+                escribirByte(b, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < texto.length()
+                    && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, texto.charAt(++i));
+                escribirByte(b, 0xF0 | (cp >> 18));
+                escribirByte(b, 0x80 | ((cp >> 12) & 0x3F));
+                escribirByte(b, 0x80 | ((cp >> 6) & 0x3F));
+                escribirByte(b, 0x80 | (cp & 0x3F));
+            } else {
+                escribirByte(b, 0xE0 | (c >> 12));
+                escribirByte(b, 0x80 | ((c >> 6) & 0x3F));
+                escribirByte(b, 0x80 | (c & 0x3F));
+            }
+        }
+        escribirByte(b, '"');
+    }
+
+    private static void escribirAscii(Buffers b, String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            escribirByte(b, texto.charAt(i));
+        }
+    }
+
+    private static void escribirLong(Buffers b, long valor) {
+        if (valor < 0) {
+            escribirAscii(b, Long.toString(valor));
+            return;
+        }
+        long divisor = 1;
+        while (valor / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            escribirByte(b, '0' + (int) (valor / divisor % 10));
+        }
+    }
+
+    private static void escribirByte(Buffers b, int valor) {
+        if (b.jsonLen == b.json.length) {
+            b.json = Arrays.copyOf(b.json, b.json.length * 2);
+        }
+        b.json[b.jsonLen++] = (byte) valor;
+    }
+
+    // ----- Base64url sin padding directamente sobre el buffer de salida -----
+
+    private static final byte[] ALFABETO =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+
+    private static int codificar(byte[] src, int len, byte[] dst, int pos) {
+        int inicio = pos;
+        int i = 0;
+        for (; i + 3 <= len; i += 3) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[pos++] = ALFABETO[(bits >>> 18) & 0x3F];
+            dst[pos++] = ALFABETO[(bits >>> 12) & 0x3F];
+            dst[pos++] = ALFABETO[(bits >>> 6) & 0x3F];
+            dst[pos++] = ALFABETO[bits & 0x3F];
+        }
+        int resto = len - i;
+        if (resto == 1) {
+            int bits = (src[i] & 0xFF) << 16;
+            dst[pos++] = ALFABETO[(bits >>> 18) & 0x3F];
+            dst[pos++] = ALFABETO[(bits >>> 12) & 0x3F];
+        } else if (resto == 2) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8;
+            dst[pos++] = ALFABETO[(bits >>> 18) & 0x3F];
+            dst[pos++] = ALFABETO[(bits >>> 12) & 0x3F];
+            dst[pos++] = ALFABETO[(bits >>> 6) & 0x3F];
+        }
+        return pos - inicio;
+    }
+}
@@ -0,0 +1,79 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom concurrente sobre cadenas. Responde "no está" sin falsos
+ * negativos; los positivos pueden ser falsos y deben confirmarse en otra estructura.
+ * Las consultas no bloquean ni asignan memoria.
+ */
+class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final int numeroBits;
+    private final int numeroHashes;
+
+    /**
+     * @param capacidad elementos esperados
+     * @param probabilidadFalsoPositivo tasa de falsos positivos buscada con esa capacidad
+     */
+    FiltroBloom(int capacidad, double probabilidadFalsoPositivo) {
+        int n = Math.max(capacidad, 1);
+        long m = (long) Math.ceil(-n * Math.log(probabilidadFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.numeroBits = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        this.numeroHashes = Math.max(1, (int) Math.round((double) numeroBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((numeroBits + 63) >>> 6);
+    }
+
+    void agregar(String valor, long semilla) {
+        long hash = hash64(valor, semilla);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < numeroHashes; i++) {
+            int bit = indice(h1 + i * h2);
+            long mascara = 1L << bit;
+            int palabra = bit >>> 6;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+                if ((actual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+    boolean podriaContener(String valor, long semilla) {
+        long hash = hash64(valor, semilla);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < numeroHashes; i++) {
+            int bit = indice(h1 + i * h2);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indice(int combinado) {
+        return (combinado & Integer.MAX_VALUE) % numeroBits;
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre los caracteres con mezcla final de MurmurHash3
+     */
+    private static long hash64(String valor, long semilla) {
+        long h = 0xcbf29ce484222325L ^ semilla;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,245 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.LimiteExcedidoException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hash de contraseñas con BCrypt en un pool de hilos propio y acotado.
+ * El hash domina el costo de CPU del login; ejecutarlo aparte limita cuántos
+ * núcleos puede ocupar, así que una ráfaga de logins no deja sin CPU al resto
+ * de peticiones de Tomcat (verificación de tokens, JWKS). Si la cola está llena
+ * la petición se rechaza de inmediato en vez de acumular hilos esperando.
+ * Por defecto usa la mitad de los núcleos para dejar el resto a Tomcat. La
+ * importación masiva hashea en un pool aparte y más pequeño, así que nunca
+ * ocupa los hilos ni la cola de los logins.
+ * El costo se calibra al arrancar para acercarse a la latencia objetivo, y los
+ * hashes con un costo menor (o las claves heredadas en texto plano) se marcan
+ * para rehash en el siguiente login exitoso. Un hash con costo mayor no se
+ * rebaja: la calibración varía entre nodos y reinicios, y bajar el costo
+ * debilitaría la clave.
+ */
+@Slf4j
+@Component
+public class HashClaves implements MeterBinder {
+
+    public static final String MENSAJE_OCUPADO = "El servicio de autenticación está ocupado, intente más tarde";
+
+    private static final int COSTO_MAXIMO = 16;
+    private static final String PREFIJO_BCRYPT = "$2";
+    // $2a|$2b|$2y, costo 04-31 y 53 caracteres de sal + hash en el Base64 de BCrypt
+    private static final Pattern FORMATO_BCRYPT =
+            Pattern.compile("^\\$2[aby]\\$(0[4-9]|[12]\\d|3[01])\\$[./A-Za-z0-9]{53}$");
+
+    private final int costo;
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor executorImportacion;
+    private final long timeoutMs;
+    private final int hilosImportacion;
+
+    public HashClaves(@Value("${hash.costo:0}") int costo,
+                      @Value("${hash.costo-minimo:10}") int costoMinimo,
+                      @Value("${hash.objetivo-ms:250}") long objetivoMs,
+                      @Value("${hash.hilos:0}") int hilos,
+                      @Value("${hash.hilos-importacion:0}") int hilosImportacion,
+                      @Value("${hash.cola:64}") int cola,
+                      @Value("${hash.timeout-ms:5000}") long timeoutMs) {
+        this.costo = costo > 0 ? costo : calibrar(costoMinimo, objetivoMs);
+        this.encoder = new BCryptPasswordEncoder(this.costo);
+        this.timeoutMs = timeoutMs;
+        int nucleos = hilos > 0 ? hilos : hilosPorDefecto(Runtime.getRuntime().availableProcessors());
+        this.hilosImportacion = hilosImportacion > 0 ? hilosImportacion : hilosPorDefecto(nucleos);
+        this.executor = pool("hash-claves-", nucleos, new ArrayBlockingQueue<>(cola));
+        // Cada importación tiene como máximo hilosImportacion tareas en vuelo; la cola
+        // sin límite solo absorbe importaciones simultáneas, que son de administradores
+        this.executorImportacion = pool("hash-importacion-", this.hilosImportacion, new LinkedBlockingQueue<>());
+        log.info("Hash de claves BCrypt con costo {} en {} hilos ({} para importaciones)",
+                this.costo, nucleos, this.hilosImportacion);
+    }
+
+    private static ThreadPoolExecutor pool(String prefijo, int hilos, BlockingQueue<Runnable> cola) {
+        AtomicInteger contador = new AtomicInteger();
+        return new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS, cola, tarea -> {
+            Thread hilo = new Thread(tarea, prefijo + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Hilos del pool cuando hash.hilos=0 (la mitad de los núcleos, al menos uno);
+     * con hash.hilos-importacion=0 se aplica de nuevo sobre los hilos del login
+     */
+    static int hilosPorDefecto(int nucleos) {
+        return Math.max(1, nucleos / 2);
+    }
+
+    /**
+     * Mayor costo cuyo hash no supera la latencia objetivo (cada +1 duplica el tiempo)
+     */
+    static int calibrar(int costoMinimo, long objetivoMs) {
+        BCryptPasswordEncoder prueba = new BCryptPasswordEncoder(costoMinimo);
+        prueba.encode("calentamiento");
+        long mejor = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long inicio = System.nanoTime();
+            prueba.encode("calibracion");
+            mejor = Math.min(mejor, System.nanoTime() - inicio);
+        }
+        long objetivoNanos = TimeUnit.MILLISECONDS.toNanos(objetivoMs);
+        int calibrado = costoMinimo;
+        while (calibrado < COSTO_MAXIMO && mejor * 2 <= objetivoNanos) {
+            mejor *= 2;
+            calibrado++;
+        }
+        log.info("Costo BCrypt calibrado: {} (~{} ms por hash)", calibrado, TimeUnit.NANOSECONDS.toMillis(mejor));
+        return calibrado;
+    }
+
+    /**
+     * Calcula el hash de la clave en el pool de hash
+     */
+    public String hashear(String clave) {
+        return ejecutar(() -> encoder.encode(clave));
+    }
+
+    /**
+     * Calcula los hashes de un lote (importación masiva) en el mismo orden, en
+     * el pool de importación. Mantiene en vuelo tantas tareas como hilos tiene
+     * ese pool, así que una importación grande no compite con los logins.
+     */
+    public List<String> hashearLote(List<String> claves) {
+        List<String> hashes = new ArrayList<>(claves.size());
+        Deque<Integer> pendientes = new ArrayDeque<>();
+        List<Future<String>> futuros = new ArrayList<>(claves.size());
+        for (int i = 0; i < claves.size(); i++) {
+            String clave = claves.get(i);
+            hashes.add(null);
+            if (pendientes.size() >= hilosImportacion) {
+                int indice = pendientes.removeFirst();
+                hashes.set(indice, esperar(futuros.get(indice)));
+            }
+            futuros.add(executorImportacion.submit(() -> encoder.encode(clave)));
+            pendientes.addLast(i);
+        }
+        for (int indice : pendientes) {
+            hashes.set(indice, esperar(futuros.get(indice)));
+        }
+        return hashes;
+    }
+
+    /**
+     * Indica si el valor es un hash BCrypt completo ($2a, $2b o $2y, costo y
+     * 53 caracteres de sal y hash)
+     */
+    public static boolean esHashBcrypt(String valor) {
+        return valor != null && FORMATO_BCRYPT.matcher(valor).matches();
+    }
+
+    /**
+     * Compara la clave con el hash guardado. Las claves heredadas en texto plano
+     * se comparan en tiempo constante sin pasar por el pool.
+     */
+    public boolean verificar(String clave, String hash) {
+        if (clave == null || hash == null) {
+            return false;
+        }
+        if (!hash.startsWith(PREFIJO_BCRYPT)) {
+            return MessageDigest.isEqual(clave.getBytes(StandardCharsets.UTF_8), hash.getBytes(StandardCharsets.UTF_8));
+        }
+        return ejecutar(() -> encoder.matches(clave, hash));
+    }
+
+    /**
+     * Indica si el hash guardado debe recalcularse: claves en texto plano,
+     * hashes ilegibles o con un costo menor que el actual
+     */
+    public boolean necesitaRehash(String hash) {
+        if (hash == null || !hash.startsWith(PREFIJO_BCRYPT) || hash.length() < 7) {
+            return true;
+        }
+        // Formato $2a$NN$...
+        try {
+            return Integer.parseInt(hash.substring(4, 6)) < costo;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    public int getCosto() {
+        return costo;
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            throw new LimiteExcedidoException(MENSAJE_OCUPADO, 1);
+        }
+        return esperar(futuro);
+    }
+
+    private <T> T esperar(Future<T> futuro) {
+        try {
+            return futuro.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            throw new LimiteExcedidoException(MENSAJE_OCUPADO, 1);
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hash de clave interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error calculando el hash de la clave", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdownNow();
+        executorImportacion.shutdownNow();
+    }
+
+    /**
+     * Ocupación del pool (hilos activos, cola, tareas completadas) y costo vigente
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(executor, "hash.claves", Tags.empty()).bindTo(registry);
+        new ExecutorServiceMetrics(executorImportacion, "hash.claves.importacion", Tags.empty()).bindTo(registry);
+        Gauge.builder("hash.claves.costo", this, HashClaves::getCosto)
+                .description("Costo BCrypt usado para las claves nuevas")
+                .register(registry);
+    }
+}
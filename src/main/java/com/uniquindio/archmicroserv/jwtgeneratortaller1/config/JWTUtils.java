@@ -1,60 +1,264 @@
 package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-
-import javax.crypto.SecretKey;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.TokenRevocadoException;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.Rol;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
 
 @Component
-public class JWTUtils {
+public class JWTUtils implements MeterBinder {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * Llavero de claves de firma (HMAC o asimétricas según jwt.algoritmo)
+     */
+    private LlaveroFirma llavero;
+
+    /**
+     * Parser inmutable y thread-safe, construido una sola vez en init()
+     */
+    private JwtParser parser;
 
-     private SecretKey key;
+    /**
+     * Reloj usado para emitir y validar tokens
+     */
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * Emisor rápido para la clave HMAC activa (null en modo asimétrico)
+     */
+    private volatile EmisorTokenHmac emisorRapido;
+
+    /**
+     * Caché opcional de tokens verificados (null si está deshabilitada)
+     */
+    private VerifiedTokenCache cache;
+
+    /**
+     * Tokens y usuarios revocados antes de la expiración de sus tokens
+     */
+    private ListaRevocacion revocaciones;
 
     @Value("${jwt.secret}")
     private String secret;
     
-    @Value("${jwt.expiration:3600}")
-    private int expirationHours;
+    @Value("${jwt.access-expiration-seconds:900}")
+    private long accessExpirationSeconds;
     
     @Value("${jwt.issuer}")
     private String issuer;
 
+    @Value("${jwt.algoritmo:HS256}")
+    private String algoritmo;
+
+    @Value("${jwt.clave-privada:}")
+    private String clavePrivada;
+
+    @Value("${jwt.clave-publica:}")
+    private String clavePublica;
+
+    @Value("${jwt.clave-efimera:false}")
+    private boolean claveEfimera;
+
+    @Value("${jwt.secrets:}")
+    private String secretsAdicionales;
+
+    @Value("${jwt.claves:}")
+    private String clavesAdicionales;
+
+    @Value("${jwt.kid-activo:}")
+    private String kidActivo;
+
+    @Value("${jwt.clock-skew-seconds:0}")
+    private long clockSkewSeconds;
+
+    @Value("${jwt.emision-rapida:false}")
+    private boolean emisionRapida;
+
+    @Value("${jwt.cache.enabled:false}")
+    private boolean cacheEnabled;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${jwt.revocacion.capacidad:100000}")
+    private int revocacionCapacidad;
+
+    @Value("${jwt.revocacion.falsos-positivos:0.01}")
+    private double revocacionFalsosPositivos = 0.01;
+
     public JWTUtils() {
         // Constructor por defecto para compatibilidad
     }
     
     @PostConstruct
     public void init() {
-        this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        ClaveFirma inicial = ClaveFirma.crear(algoritmo, secret, clavePrivada, clavePublica, claveEfimera);
+        this.llavero = new LlaveroFirma(inicial,
+                ClaveFirma.llavero(inicial.algoritmo(), inicial.esAsimetrica() ? clavesAdicionales : secretsAdicionales),
+                kidActivo);
+        this.parser = Jwts.parser()
+                .keyLocator(llavero) // la clave se elige por el "kid" del header
+                .clock(() -> Date.from(clock.instant()))
+                .clockSkewSeconds(clockSkewSeconds)
+                .build();
+        this.cache = cacheEnabled ? new VerifiedTokenCache(cacheMaxSize, clock, clockSkewSeconds) : null;
+        this.revocaciones = new ListaRevocacion(revocacionCapacidad, revocacionFalsosPositivos, clock);
+    }
+
+    /**
+     * Activa otra clave del llavero configurado sin reiniciar el servicio.
+     * Todas las instancias cargan el mismo llavero, así que los tokens firmados
+     * con ella se verifican en cualquiera; para que la activación sobreviva a
+     * los reinicios se fija jwt.kid-activo en la configuración.
+     *
+     * @return kid de la nueva clave activa
+     * @throws IllegalArgumentException si el kid no está en el llavero
+     */
+    public String rotarClave(String kid) {
+        llavero.activar(kid);
+        return kid;
+    }
+
+    /**
+     * Vida máxima de un token emitido ahora, incluida la tolerancia de reloj
+     */
+    public Duration vidaTokens() {
+        return Duration.ofSeconds(accessExpirationSeconds + clockSkewSeconds);
+    }
+
+    /**
+     * Instante hasta el que el token puede pasar la validación (exp más la
+     * tolerancia de reloj); null si no tiene expiración
+     */
+    public Instant finValidez(VerifiedToken token) {
+        return token.exp() != null ? token.exp().plusSeconds(clockSkewSeconds) : null;
+    }
+
+    /**
+     * Revoca en esta instancia el token con el jti indicado hasta "vence"
+     */
+    public void revocarToken(String jti, Instant vence) {
+        revocaciones.revocarToken(jti, vence);
+    }
+
+    /**
+     * Revoca en esta instancia los tokens del usuario emitidos hasta "corte"
+     */
+    public void revocarUsuario(String usuario, Instant corte, Instant vence) {
+        revocaciones.revocarUsuario(usuario, corte, vence);
+    }
+
+    /**
+     * Elimina periódicamente las revocaciones de tokens que ya expiraron
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocacion.purga-ms:60000}")
+    public void purgarRevocaciones() {
+        revocaciones.purgar();
+    }
+
+    /**
+     * kids de las claves que todavía verifican tokens
+     */
+    public List<String> getKidsVigentes() {
+        return llavero.kidsVigentes();
+    }
+
+    /**
+     * Documento JWKS con las claves públicas de verificación
+     */
+    public String getJwksJson() {
+        return llavero.getJwksJson();
+    }
+
+    /**
+     * ETag del documento JWKS, cambia solo cuando cambian las claves
+     */
+    public String getJwksEtag() {
+        return llavero.getJwksEtag();
+    }
+
+    /**
+     * Expone los contadores de la caché (hits, misses, evictions) en Micrometer
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache.getCache(), "jwt.tokens.verificados");
+        }
+        Gauge.builder("jwt.revocaciones", revocaciones, ListaRevocacion::tamano)
+                .description("Entradas vigentes en la lista de revocación")
+                .register(registry);
     }
 
     public String generarToken(String correo, Map <String, Object > claims) {
-        Instant now = Instant.now();
+        Instant now = clock.instant();
+        Instant expiration = now.plusSeconds(accessExpirationSeconds); // token de acceso de vida corta
+        ClaveFirma claveFirma = llavero.activa();
+        String jti = nuevoJti();
+        EmisorTokenHmac emisor = emisorPara(claveFirma);
+        if (emisor != null && EmisorTokenHmac.soporta(claims)) {
+            return emisor.emitir(correo, issuer, jti, claims, now, expiration);
+        }
         return Jwts.builder()
+                .header().keyId(claveFirma.kid()).and()
                 .claims(claims)
                 .subject(correo)
                 .issuer(issuer)
                 .issuedAt(Date.from(now))
-                .expiration(Date.from(now.plus(expirationHours, ChronoUnit.HOURS))) // expira en horas configurables
-                .signWith(key) // firma con clave secreta
+                .expiration(Date.from(expiration))
+                .id(jti)
+                .signWith(claveFirma.claveFirma()) // firma con la clave activa (HMAC o privada)
                 .compact();
     }
 
+    /**
+     * Identificador único del token (128 bits aleatorios), usado para revocarlo
+     */
+    private static String nuevoJti() {
+        byte[] bytes = new byte[16];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return BASE64URL.encodeToString(bytes);
+    }
+
+    /**
+     * Emisor rápido de la clave activa; se recrea cuando la clave rota
+     */
+    private EmisorTokenHmac emisorPara(ClaveFirma claveFirma) {
+        if (!emisionRapida || claveFirma.esAsimetrica()) {
+            return null;
+        }
+        EmisorTokenHmac emisor = emisorRapido;
+        if (emisor == null || !Objects.equals(emisor.kid(), claveFirma.kid())) {
+            emisor = new EmisorTokenHmac(claveFirma);
+            emisorRapido = emisor;
+        }
+        return emisor;
+    }
+
      /**
      * Elimina el prefijo Bearer si existe
      */
@@ -73,15 +277,51 @@ public class JWTUtils {
             throw new JwtException("Token no puede ser nulo o vacío");
         }
         String clean = cleanToken(token);
-        JwtParser parser = Jwts.parser().verifyWith(key).build();
         return parser.parseSignedClaims(clean).getPayload();
     }
 
+    /**
+     * Verifica la firma del token una sola vez y extrae todos los claims
+     * que se usan en la autorización. Lanza ExpiredJwtException si el token expiró
+     * y TokenRevocadoException si fue revocado.
+     */
+    public VerifiedToken verificarToken(String token) throws JwtException {
+        VerifiedToken verificado;
+        if (cache == null) {
+            verificado = toVerifiedToken(getClaims(token));
+        } else {
+            String clean = cleanToken(token);
+            verificado = clean != null ? cache.obtener(clean) : null;
+            if (verificado == null) {
+                verificado = toVerifiedToken(getClaims(clean));
+                cache.guardar(clean, verificado);
+            }
+        }
+        // La revocación se consulta también para los tokens tomados de la caché
+        if (revocaciones.estaRevocado(verificado)) {
+            throw new TokenRevocadoException("El token ha sido revocado");
+        }
+        return verificado;
+    }
+
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        Date expiration = claims.getExpiration();
+        Date issuedAt = claims.getIssuedAt();
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.getIssuer(),
+                claims.get("rol", String.class),
+                claims.get("usuario", String.class),
+                expiration != null ? expiration.toInstant() : null,
+                claims.getId(),
+                issuedAt != null ? issuedAt.toInstant() : null);
+    }
+
     /**
      * Extrae el subject (username) del token
      */
     public String getSubject(String token) throws JwtException {
-        return getClaims(token).getSubject();
+        return verificarToken(token).subject();
     }
 
     /**
@@ -99,7 +339,7 @@ public class JWTUtils {
      * Extrae el issuer del token
      */
     public String getIssuer(String token) throws JwtException {
-        return getClaims(token).getIssuer();
+        return verificarToken(token).issuer();
     }
 
     /**
@@ -116,14 +356,14 @@ public class JWTUtils {
      * Extrae el rol del token
      */
     public String getRol(String token) throws JwtException {
-        return (String) getClaims(token).get("rol");
+        return verificarToken(token).rol();
     }
 
     /**
      * Extrae el usuario del token
      */
     public String getUsuario(String token) throws JwtException {
-        return (String) getClaims(token).get("usuario");
+        return verificarToken(token).usuario();
     }
 
 
@@ -143,8 +383,7 @@ public class JWTUtils {
      */
     public boolean isTokenExpired(String token) {
         try {
-            Date expiration = getClaims(token).getExpiration();
-            return expiration.before(new Date());
+            return verificarToken(token).isExpired(clock.instant());
         } catch (JwtException e) {
             return true; // si no se puede parsear lo consideramos inválido
         }
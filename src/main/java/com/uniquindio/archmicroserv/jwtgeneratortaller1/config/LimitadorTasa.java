@@ -0,0 +1,95 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * Limitador de tasa por llave (IP o usuario) con cubetas de tokens.
+ * Cada cubeta se guarda en su forma de "tiempo teórico de llegada" (GCRA):
+ * un solo AtomicLong actualizado con CAS, sin locks ni hilos de recarga.
+ * Una cubeta que no se usa durante el tiempo de llenarse ya está llena, así
+ * que se desaloja sin perder información; además el número de llaves está acotado.
+ */
+public class LimitadorTasa {
+
+    private final int capacidad;
+    private final long intervaloNanos;      // tiempo para recuperar un token
+    private final long rafagaNanos;         // capacidad * intervalo
+    private final Ticker reloj;
+    private final Cache<String, AtomicLong> cubetas;
+
+    public LimitadorTasa(int capacidad, Duration periodo, long maxLlaves, Ticker reloj) {
+        if (capacidad <= 0 || periodo.isNegative() || periodo.isZero()) {
+            throw new IllegalArgumentException("Límite inválido: " + capacidad + "/" + periodo);
+        }
+        this.capacidad = capacidad;
+        this.intervaloNanos = Math.max(1, periodo.toNanos() / capacidad);
+        this.rafagaNanos = intervaloNanos * capacidad;
+        this.reloj = reloj;
+        this.cubetas = Caffeine.newBuilder()
+                .maximumSize(maxLlaves)
+                .expireAfterAccess(rafagaNanos, TimeUnit.NANOSECONDS)
+                .ticker(reloj)
+                .build();
+    }
+
+    /**
+     * Crea el limitador a partir de una especificación "capacidad/periodo",
+     * por ejemplo "10/1m", "5/30s", "100/1h"
+     */
+    public static LimitadorTasa desde(String especificacion, long maxLlaves) {
+        String[] partes = especificacion.trim().split("/");
+        if (partes.length != 2) {
+            throw new IllegalArgumentException("Límite inválido (use capacidad/periodo): " + especificacion);
+        }
+        return new LimitadorTasa(Integer.parseInt(partes[0].trim()), periodo(partes[1].trim()), maxLlaves,
+                Ticker.systemTicker());
+    }
+
+    private static Duration periodo(String texto) {
+        String unidad = texto.replaceAll("^[0-9]+", "");
+        long valor = Long.parseLong(texto.substring(0, texto.length() - unidad.length()));
+        return switch (unidad) {
+            case "ms" -> Duration.ofMillis(valor);
+            case "s" -> Duration.ofSeconds(valor);
+            case "m" -> Duration.ofMinutes(valor);
+            case "h" -> Duration.ofHours(valor);
+            default -> throw new IllegalArgumentException("Unidad de periodo inválida: " + texto);
+        };
+    }
+
+    /**
+     * Consume un token de la cubeta de la llave.
+     *
+     * @return 0 si se permite la petición, o los nanosegundos que faltan para el próximo token
+     */
+    public long intentar(String llave) {
+        AtomicLong llegada = cubetas.get(llave, k -> new AtomicLong(Long.MIN_VALUE));
+        long ahora = reloj.read();
+        while (true) {
+            long actual = llegada.get();
+            long siguiente = Math.max(actual, ahora) + intervaloNanos;
+            long espera = siguiente - ahora - rafagaNanos;
+            if (espera > 0) {
+                return espera;
+            }
+            if (llegada.compareAndSet(actual, siguiente)) {
+                return 0;
+            }
+        }
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    long llaves() {
+        cubetas.cleanUp();
+        return cubetas.estimatedSize();
+    }
+}
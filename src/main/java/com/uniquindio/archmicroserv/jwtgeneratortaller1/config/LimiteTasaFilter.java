@@ -0,0 +1,89 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.io.IOException;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.LimitesTasa.RutaLimitada;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Límite de tasa por IP para login y códigos de recuperación. Corre después de
+ * CorsFilter y antes de la seguridad, así que una IP abusiva recibe 429 sin
+ * tocar la base de datos ni RabbitMQ. Detrás de un proxy, getRemoteAddr() ya
+ * es la IP del cliente porque server.forward-headers-strategy=native resuelve
+ * X-Forwarded-For solo para los proxies de confianza.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class LimiteTasaFilter extends OncePerRequestFilter {
+
+    private static final RespuestaError DEMASIADAS_SOLICITUDES = RespuestaError.de(429, LimitesTasa.MENSAJE);
+
+    private final LimitesTasa limitesTasa;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        RutaLimitada ruta = rutaLimitada(request);
+        if (ruta != null) {
+            long espera = limitesTasa.esperaPorIp(ruta, request.getRemoteAddr());
+            if (espera > 0) {
+                response.setHeader("Retry-After", Long.toString(espera));
+                DEMASIADAS_SOLICITUDES.escribir(response);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static RutaLimitada rutaLimitada(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return null;
+        }
+        String uri = request.getRequestURI();
+        if (esRuta(uri, "/v1/sesiones")) {
+            return RutaLimitada.SESIONES;
+        }
+        return esRuta(uri, "/v1/codigos") ? RutaLimitada.CODIGOS : null;
+    }
+
+    /**
+     * Compara la URI con la ruta ignorando barras repetidas y la barra final, sin asignar memoria
+     */
+    static boolean esRuta(String uri, String ruta) {
+        if (uri == null) {
+            return false;
+        }
+        int i = 0;
+        int j = 0;
+        while (i < uri.length() && j < ruta.length()) {
+            char c = uri.charAt(i);
+            if (c == '/' && i > 0 && uri.charAt(i - 1) == '/') {
+                i++;
+                continue;
+            }
+            if (c != ruta.charAt(j)) {
+                return false;
+            }
+            i++;
+            j++;
+        }
+        while (i < uri.length() && uri.charAt(i) == '/') {
+            i++;
+        }
+        return i == uri.length() && j == ruta.length();
+    }
+}
@@ -0,0 +1,77 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.LimiteExcedidoException;
+
+/**
+ * Límites de tasa de las rutas que consultan la base de datos sin autenticación.
+ * Por IP se aplican en LimiteTasaFilter (antes de leer el cuerpo) y por usuario
+ * en el servicio, antes de cualquier consulta al repositorio.
+ */
+@Component
+public class LimitesTasa {
+
+    public static final String MENSAJE = "Demasiadas solicitudes, intente más tarde";
+
+    /**
+     * Rutas con límite de tasa
+     */
+    public enum RutaLimitada {
+        SESIONES,   // POST /v1/sesiones (login)
+        CODIGOS     // POST /v1/codigos (código de recuperación)
+    }
+
+    private final boolean habilitado;
+    private final LimitadorTasa sesionesPorIp;
+    private final LimitadorTasa sesionesPorUsuario;
+    private final LimitadorTasa codigosPorIp;
+    private final LimitadorTasa codigosPorUsuario;
+
+    public LimitesTasa(@Value("${limite-tasa.enabled:true}") boolean habilitado,
+                       @Value("${limite-tasa.max-llaves:100000}") long maxLlaves,
+                       @Value("${limite-tasa.sesiones.por-ip:30/1m}") String sesionesPorIp,
+                       @Value("${limite-tasa.sesiones.por-usuario:10/1m}") String sesionesPorUsuario,
+                       @Value("${limite-tasa.codigos.por-ip:10/1m}") String codigosPorIp,
+                       @Value("${limite-tasa.codigos.por-usuario:3/15m}") String codigosPorUsuario) {
+        this.habilitado = habilitado;
+        this.sesionesPorIp = LimitadorTasa.desde(sesionesPorIp, maxLlaves);
+        this.sesionesPorUsuario = LimitadorTasa.desde(sesionesPorUsuario, maxLlaves);
+        this.codigosPorIp = LimitadorTasa.desde(codigosPorIp, maxLlaves);
+        this.codigosPorUsuario = LimitadorTasa.desde(codigosPorUsuario, maxLlaves);
+    }
+
+    /**
+     * @return 0 si la IP puede continuar, o los segundos que debe esperar
+     */
+    public long esperaPorIp(RutaLimitada ruta, String ip) {
+        if (!habilitado || ip == null) {
+            return 0;
+        }
+        return segundos((ruta == RutaLimitada.SESIONES ? sesionesPorIp : codigosPorIp).intentar(ip));
+    }
+
+    /**
+     * Lanza LimiteExcedidoException si el usuario superó el límite de la ruta
+     */
+    public void verificarUsuario(RutaLimitada ruta, String usuario) {
+        if (!habilitado || usuario == null) {
+            return;
+        }
+        long espera = segundos((ruta == RutaLimitada.SESIONES ? sesionesPorUsuario : codigosPorUsuario)
+                .intentar(usuario));
+        if (espera > 0) {
+            throw new LimiteExcedidoException(MENSAJE, espera);
+        }
+    }
+
+    /**
+     * Redondea hacia arriba a segundos enteros (Retry-After no admite fracciones)
+     */
+    private static long segundos(long nanos) {
+        return nanos <= 0 ? 0 : Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,114 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lista de revocación de tokens en memoria, copia local de la tabla compartida
+ * de revocaciones (RevocacionServiceImp la mantiene sincronizada).
+ * Se revocan tokens individuales por "jti" (logout) y todos los tokens de un
+ * usuario emitidos hasta un instante (eliminación o cambio de clave).
+ * Un filtro de Bloom descarta en nanosegundos el caso común (no revocado) y los
+ * mapas exactos confirman los positivos. Cada entrada vence cuando vencería el
+ * token que revoca; la purga reconstruye el filtro solo con las entradas vigentes.
+ */
+@Slf4j
+public class ListaRevocacion {
+
+    private static final long SEMILLA_JTI = 0x6a7469L;
+    private static final long SEMILLA_USUARIO = 0x75737561L;
+
+    /**
+     * Entrada de revocación de un usuario: tokens emitidos hasta "corte" inclusive
+     */
+    private record CorteUsuario(Instant corte, Instant vence) {
+    }
+
+    private final Map<String, Instant> jtisRevocados = new ConcurrentHashMap<>();
+    private final Map<String, CorteUsuario> usuariosRevocados = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final int capacidad;
+    private final double probabilidadFalsoPositivo;
+    private volatile FiltroBloom filtro;
+
+    public ListaRevocacion(int capacidad, double probabilidadFalsoPositivo, Clock clock) {
+        this.capacidad = capacidad;
+        this.probabilidadFalsoPositivo = probabilidadFalsoPositivo;
+        this.clock = clock;
+        this.filtro = new FiltroBloom(capacidad, probabilidadFalsoPositivo);
+    }
+
+    /**
+     * Revoca un token individual hasta su expiración
+     */
+    public synchronized void revocarToken(String jti, Instant expiracion) {
+        if (jti == null || expiracion == null || !expiracion.isAfter(clock.instant())) {
+            return;
+        }
+        jtisRevocados.put(jti, expiracion);
+        filtro.agregar(jti, SEMILLA_JTI);
+    }
+
+    /**
+     * Revoca los tokens del usuario emitidos hasta "corte", conservando la
+     * entrada hasta "vence". Si ya había un corte posterior se mantiene, así
+     * una revocación antigua que llega tarde de otra instancia no lo adelanta.
+     */
+    public synchronized void revocarUsuario(String usuario, Instant corte, Instant vence) {
+        if (usuario == null || corte == null || vence == null || !vence.isAfter(clock.instant())) {
+            return;
+        }
+        usuariosRevocados.merge(usuario, new CorteUsuario(corte, vence), (actual, nuevo) -> new CorteUsuario(
+                actual.corte().isAfter(nuevo.corte()) ? actual.corte() : nuevo.corte(),
+                actual.vence().isAfter(nuevo.vence()) ? actual.vence() : nuevo.vence()));
+        filtro.agregar(usuario, SEMILLA_USUARIO);
+    }
+
+    /**
+     * Indica si el token verificado fue revocado. El iat tiene precisión de
+     * segundos, así que un token emitido en el mismo segundo del corte también
+     * se considera revocado.
+     */
+    public boolean estaRevocado(VerifiedToken token) {
+        FiltroBloom actual = filtro;
+        String jti = token.jti();
+        if (jti != null && actual.podriaContener(jti, SEMILLA_JTI) && jtisRevocados.containsKey(jti)) {
+            return true;
+        }
+        String usuario = token.usuario();
+        if (usuario != null && actual.podriaContener(usuario, SEMILLA_USUARIO)) {
+            CorteUsuario corte = usuariosRevocados.get(usuario);
+            return corte != null && (token.iat() == null
+                    || token.iat().getEpochSecond() <= corte.corte().getEpochSecond());
+        }
+        return false;
+    }
+
+    /**
+     * Elimina las entradas vencidas y reconstruye el filtro con las vigentes,
+     * de modo que la memoria y la tasa de falsos positivos no crecen sin límite
+     */
+    public synchronized int purgar() {
+        Instant ahora = clock.instant();
+        int antes = tamano();
+        jtisRevocados.values().removeIf(expiracion -> !expiracion.isAfter(ahora));
+        usuariosRevocados.values().removeIf(corte -> !corte.vence().isAfter(ahora));
+        FiltroBloom nuevo = new FiltroBloom(Math.max(capacidad, tamano()), probabilidadFalsoPositivo);
+        jtisRevocados.keySet().forEach(jti -> nuevo.agregar(jti, SEMILLA_JTI));
+        usuariosRevocados.keySet().forEach(usuario -> nuevo.agregar(usuario, SEMILLA_USUARIO));
+        filtro = nuevo;
+        int eliminadas = antes - tamano();
+        if (eliminadas > 0) {
+            log.debug("Revocaciones vencidas eliminadas: {}", eliminadas);
+        }
+        return eliminadas;
+    }
+
+    public int tamano() {
+        return jtisRevocados.size() + usuariosRevocados.size();
+    }
+}
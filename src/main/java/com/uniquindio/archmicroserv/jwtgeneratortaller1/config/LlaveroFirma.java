@@ -0,0 +1,112 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.security.Key;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.Jwks;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Llavero de claves de firma identificadas por "kid".
+ * Las claves vienen de la configuración compartida (jwt.secret / jwt.secrets,
+ * o jwt.clave-privada / jwt.claves), así que todas las instancias verifican
+ * con el mismo conjunto y un reinicio no invalida tokens. Solo la clave activa
+ * firma tokens nuevos; rotar es activar otra clave del llavero, que las demás
+ * instancias ya conocen. Una clave deja de verificar cuando se retira de la
+ * configuración. La búsqueda por kid es O(1).
+ */
+@Slf4j
+public class LlaveroFirma extends LocatorAdapter<Key> {
+
+    private final Map<String, ClaveFirma> claves;
+    private final String kidInicial;
+    private final String jwksJson;
+    private final String jwksEtag;
+    private volatile ClaveFirma activa;
+
+    /**
+     * @param inicial    clave principal; verifica también los tokens sin kid
+     * @param adicionales demás claves del llavero compartido
+     * @param kidActivo  kid que firma al arrancar; vacío para la clave principal
+     */
+    public LlaveroFirma(ClaveFirma inicial, List<ClaveFirma> adicionales, String kidActivo) {
+        this.kidInicial = inicial.kid();
+        Map<String, ClaveFirma> registradas = new LinkedHashMap<>();
+        registradas.put(inicial.kid(), inicial);
+        for (ClaveFirma clave : adicionales) {
+            if (registradas.putIfAbsent(clave.kid(), clave) != null) {
+                throw new IllegalArgumentException("kid de firma repetido: " + clave.kid());
+            }
+        }
+        this.claves = Map.copyOf(registradas);
+        this.activa = kidActivo == null || kidActivo.isBlank() ? inicial : buscar(kidActivo);
+        String keys = registradas.values().stream()
+                .filter(ClaveFirma::esAsimetrica)
+                .map(clave -> Jwks.json(clave.toJwk()))
+                .collect(Collectors.joining(","));
+        this.jwksJson = "{\"keys\":[" + keys + "]}";
+        this.jwksEtag = "\"" + Integer.toHexString(jwksJson.hashCode()) + "\"";
+    }
+
+    /**
+     * Clave con la que se firman los tokens nuevos
+     */
+    public ClaveFirma activa() {
+        return activa;
+    }
+
+    /**
+     * Activa otra clave del llavero para firmar los tokens nuevos. Las demás
+     * siguen verificando, en esta y en las otras instancias.
+     *
+     * @throws IllegalArgumentException si el kid no está en el llavero configurado
+     */
+    public synchronized void activar(String kid) {
+        ClaveFirma anterior = activa;
+        activa = buscar(kid);
+        log.info("Clave de firma rotada: {} -> {}", anterior.kid(), kid);
+    }
+
+    private ClaveFirma buscar(String kid) {
+        ClaveFirma clave = claves.get(kid);
+        if (clave == null) {
+            throw new IllegalArgumentException("La clave " + kid + " no está en el llavero configurado");
+        }
+        return clave;
+    }
+
+    /**
+     * Busca la clave de verificación por el kid del header.
+     * Los tokens sin kid (emitidos antes del llavero) usan la clave inicial.
+     */
+    @Override
+    protected Key locate(ProtectedHeader header) {
+        String kid = header.getKeyId() != null ? header.getKeyId() : kidInicial;
+        ClaveFirma clave = claves.get(kid);
+        if (clave == null) {
+            throw new JwtException("Clave de firma desconocida o retirada: " + kid);
+        }
+        return clave.claveVerificacion();
+    }
+
+    /**
+     * kids de las claves que verifican tokens
+     */
+    public List<String> kidsVigentes() {
+        return List.copyOf(claves.keySet());
+    }
+
+    public String getJwksJson() {
+        return jwksJson;
+    }
+
+    public String getJwksEtag() {
+        return jwksEtag;
+    }
+}
@@ -0,0 +1,56 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.MessageDTO;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Respuesta de error fija de los filtros, serializada una sola vez al iniciar.
+ * Escribir la respuesta solo copia los bytes UTF-8 al stream de salida, sin
+ * crear el MessageDTO ni pasar por Jackson en cada petición rechazada.
+ */
+public final class RespuestaError {
+
+    private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final int codigo;
+    private final String mensaje;
+    private final byte[] cuerpo;
+
+    private RespuestaError(int codigo, String mensaje, byte[] cuerpo) {
+        this.codigo = codigo;
+        this.mensaje = mensaje;
+        this.cuerpo = cuerpo;
+    }
+
+    /**
+     * Serializa {"error": true, "respuesta": mensaje} igual que MessageDTO
+     */
+    public static RespuestaError de(int codigo, String mensaje) {
+        try {
+            return new RespuestaError(codigo, mensaje, MAPPER.writeValueAsBytes(new MessageDTO<>(true, mensaje)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el mensaje de error", e);
+        }
+    }
+
+    public void escribir(HttpServletResponse response) throws IOException {
+        response.setStatus(codigo);
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(cuerpo.length);
+        response.getOutputStream().write(cuerpo);
+    }
+
+    public int getCodigo() {
+        return codigo;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+}
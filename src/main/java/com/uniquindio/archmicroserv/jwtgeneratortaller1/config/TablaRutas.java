@@ -0,0 +1,168 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clasificador de rutas del TokenFilter, construido una sola vez al iniciar.
+ * Es un trie de segmentos por método HTTP: cada petición se recorre en una
+ * sola pasada sin expresiones regulares, sin split y sin normalizar la URI
+ * (las barras repetidas y la barra final se ignoran al recorrer).
+ *
+ * Patrones soportados: segmentos literales, "{usuario}" (se captura) y "**"
+ * al final (cero o más segmentos). Los literales tienen prioridad sobre la
+ * variable y esta sobre "**".
+ */
+public final class TablaRutas {
+
+    /**
+     * Tipo de acceso que exige una ruta
+     */
+    public enum Acceso {
+        LIBRE,      // rutas no registradas (documentación, health, etc.)
+        PUBLICA,    // rutas públicas sin token
+        ADMIN,      // requieren token con rol ADMIN
+        USUARIO     // requieren token del propio usuario (o ADMIN)
+    }
+
+    /**
+     * Resultado de clasificar una petición; usuario es el valor de {usuario} si la ruta lo tiene
+     */
+    public record Ruta(Acceso acceso, String usuario) {
+    }
+
+    public static final Ruta NO_REGISTRADA = new Ruta(Acceso.LIBRE, null);
+
+    private static final class Nodo {
+        String[] literales = new String[0];
+        Nodo[] hijos = new Nodo[0];
+        Nodo variable;      // {usuario}
+        Nodo resto;         // **
+        Ruta ruta;          // ruta terminal (sin variable)
+        Acceso acceso;
+
+        Nodo literal(String segmento) {
+            for (int i = 0; i < literales.length; i++) {
+                if (literales[i].equals(segmento)) {
+                    return hijos[i];
+                }
+            }
+            literales = Arrays.copyOf(literales, literales.length + 1);
+            hijos = Arrays.copyOf(hijos, hijos.length + 1);
+            literales[literales.length - 1] = segmento;
+            return hijos[hijos.length - 1] = new Nodo();
+        }
+    }
+
+    private final Map<String, Nodo> raices;
+
+    private TablaRutas(Map<String, Nodo> raices) {
+        this.raices = raices;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Clasifica la petición. Solo asigna memoria para el valor de {usuario}.
+     */
+    public Ruta clasificar(String metodo, String uri) {
+        if (metodo == null || uri == null) {
+            return NO_REGISTRADA;
+        }
+        Nodo raiz = raices.get(metodo);
+        if (raiz == null) {
+            return NO_REGISTRADA;
+        }
+        Ruta ruta = buscar(raiz, uri, 0, -1, -1);
+        return ruta != null ? ruta : NO_REGISTRADA;
+    }
+
+    private static Ruta buscar(Nodo nodo, String uri, int pos, int inicioVariable, int finVariable) {
+        int longitud = uri.length();
+        while (pos < longitud && uri.charAt(pos) == '/') {
+            pos++;
+        }
+        if (pos == longitud) {
+            if (nodo.acceso != null) {
+                return resultado(nodo, uri, inicioVariable, finVariable);
+            }
+            return nodo.resto != null ? resultado(nodo.resto, uri, inicioVariable, finVariable) : null;
+        }
+        int fin = uri.indexOf('/', pos);
+        if (fin < 0) {
+            fin = longitud;
+        }
+        int tamano = fin - pos;
+        String[] literales = nodo.literales;
+        for (int i = 0; i < literales.length; i++) {
+            if (literales[i].length() == tamano && uri.regionMatches(pos, literales[i], 0, tamano)) {
+                Ruta ruta = buscar(nodo.hijos[i], uri, fin, inicioVariable, finVariable);
+                if (ruta != null) {
+                    return ruta;
+                }
+            }
+        }
+        if (nodo.variable != null) {
+            Ruta ruta = buscar(nodo.variable, uri, fin, pos, fin);
+            if (ruta != null) {
+                return ruta;
+            }
+        }
+        return nodo.resto != null ? resultado(nodo.resto, uri, inicioVariable, finVariable) : null;
+    }
+
+    private static Ruta resultado(Nodo nodo, String uri, int inicioVariable, int finVariable) {
+        return inicioVariable < 0
+                ? nodo.ruta
+                : new Ruta(nodo.acceso, uri.substring(inicioVariable, finVariable));
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Nodo> raices = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Registra un patrón, por ejemplo "/v1/usuarios/{usuario}/**"
+         */
+        public Builder ruta(String metodo, String patron, Acceso acceso) {
+            Nodo nodo = raices.computeIfAbsent(metodo, m -> new Nodo());
+            List<String> segmentos = new ArrayList<>();
+            for (String segmento : patron.split("/")) {
+                if (!segmento.isEmpty()) {
+                    segmentos.add(segmento);
+                }
+            }
+            for (int i = 0; i < segmentos.size(); i++) {
+                String segmento = segmentos.get(i);
+                if ("**".equals(segmento)) {
+                    if (i != segmentos.size() - 1) {
+                        throw new IllegalArgumentException("'**' solo se permite al final: " + patron);
+                    }
+                    nodo = nodo.resto != null ? nodo.resto : (nodo.resto = new Nodo());
+                } else if (segmento.startsWith("{") && segmento.endsWith("}")) {
+                    nodo = nodo.variable != null ? nodo.variable : (nodo.variable = new Nodo());
+                } else {
+                    nodo = nodo.literal(segmento);
+                }
+            }
+            if (nodo.acceso != null) {
+                throw new IllegalArgumentException("Ruta duplicada: " + metodo + " " + patron);
+            }
+            nodo.acceso = acceso;
+            nodo.ruta = new Ruta(acceso, null);
+            return this;
+        }
+
+        public TablaRutas build() {
+            return new TablaRutas(Map.copyOf(raices));
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.MessageDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.TokenRevocadoException;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.Rol;
 
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -19,9 +19,55 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class TokenFilter extends OncePerRequestFilter {
 
+    /**
+     * Atributo de la petición donde se guarda el token verificado
+     */
+    public static final String ATRIBUTO_TOKEN = "tokenVerificado";
+
     private final JWTUtils jwtUtils;
     private final String ISSUER = Constants.ISSUER;
-    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // Respuestas de error serializadas una sola vez
+    private static final RespuestaError TOKEN_REQUERIDO = RespuestaError.de(
+            HttpServletResponse.SC_UNAUTHORIZED, "Token de autenticación requerido");
+    private static final RespuestaError TOKEN_EXPIRADO = RespuestaError.de(
+            HttpServletResponse.SC_UNAUTHORIZED, "El token ha expirado");
+    private static final RespuestaError TOKEN_REVOCADO = RespuestaError.de(
+            HttpServletResponse.SC_UNAUTHORIZED, "El token ha sido revocado");
+    private static final RespuestaError TOKEN_INVALIDO = RespuestaError.de(
+            HttpServletResponse.SC_UNAUTHORIZED, "El token es inválido o malformado");
+    private static final RespuestaError EMISOR_INVALIDO = RespuestaError.de(
+            HttpServletResponse.SC_FORBIDDEN, "El emisor del token no es válido");
+    private static final RespuestaError ROL_INVALIDO = RespuestaError.de(
+            HttpServletResponse.SC_FORBIDDEN, "El rol del token no es válido para esta operación");
+    private static final RespuestaError USUARIO_AJENO = RespuestaError.de(
+            HttpServletResponse.SC_FORBIDDEN, "No tiene permisos para acceder a los datos de otro usuario");
+    private static final RespuestaError ERROR_INTERNO = RespuestaError.de(
+            HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error interno del servidor durante la autenticación");
+
+    /**
+     * Rutas protegidas y públicas; las demás pasan sin autenticación
+     */
+    static final TablaRutas RUTAS = TablaRutas.builder()
+            // Públicas
+            .ruta("POST", "/v1/usuarios", TablaRutas.Acceso.PUBLICA)                    // registro
+            .ruta("POST", "/v1/sesiones", TablaRutas.Acceso.PUBLICA)                    // login
+            .ruta("POST", "/v1/sesiones/refresco", TablaRutas.Acceso.PUBLICA)           // refresco de token
+            .ruta("POST", "/v1/codigos", TablaRutas.Acceso.PUBLICA)                     // recuperar clave
+            .ruta("PATCH", "/v1/usuarios/{usuario}/contrasena", TablaRutas.Acceso.PUBLICA) // cambiar clave
+            // Administrador
+            .ruta("GET", "/v1/usuarios", TablaRutas.Acceso.ADMIN)                       // obtener usuarios
+            .ruta("POST", "/v1/claves", TablaRutas.Acceso.ADMIN)                        // rotar clave de firma
+            .ruta("POST", "/v1/usuarios:bulk", TablaRutas.Acceso.ADMIN)                 // importación masiva
+            .ruta("GET", "/v1/usuarios/export", TablaRutas.Acceso.ADMIN)                // exportación completa
+            .ruta("DELETE", "/v1/usuarios/{usuario}/**", TablaRutas.Acceso.ADMIN)       // eliminar usuario
+            .ruta("GET", "/actuator/metrics/**", TablaRutas.Acceso.ADMIN)               // métricas de Actuator
+            .ruta("POST", "/v1/introspect", TablaRutas.Acceso.ADMIN)                    // introspección (RFC 7662)
+            // Usuario (o administrador)
+            .ruta("PATCH", "/v1/usuarios/{usuario}/**", TablaRutas.Acceso.USUARIO)      // actualizar usuario
+            .ruta("GET", "/v1/usuarios/{usuario}/**", TablaRutas.Acceso.USUARIO)        // obtener usuario
+            .ruta("DELETE", "/v1/sesiones", TablaRutas.Acceso.USUARIO)                  // cerrar sesión
+            .build();
 
     @Override
     protected void doFilterInternal(
@@ -29,232 +75,119 @@ public class TokenFilter extends OncePerRequestFilter {
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
-        // Configuración CORS
-        response.addHeader("Access-Control-Allow-Origin", "*");
-        response.addHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        response.addHeader("Access-Control-Allow-Headers", "Origin, Accept, Content-Type, Authorization");
-
-        if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
-            response.setStatus(HttpServletResponse.SC_OK);
-            return;
-        }
-
-        String requestURI = request.getRequestURI();
-        // Normalizar dobles barras y quitar trailing slash (salvo "/")
-        if (requestURI != null) {
-            requestURI = requestURI.replaceAll("/+", "/");
-            if (requestURI.length() > 1 && requestURI.endsWith("/")) {
-                requestURI = requestURI.substring(0, requestURI.length() - 1);
-            }
-        }
-        String method = request.getMethod();
-        
-        // Permitir acceso libre a rutas de documentación y swagger
-        if (requestURI.equals("/v3/api-docs.yaml") ||
-                requestURI.startsWith("/v3/api-docs") ||
-                requestURI.startsWith("/swagger-ui")) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        // Rutas públicas que no requieren autenticación
-        if (esRutaPublica(requestURI, method)) {
+        // CORS y preflight se resuelven antes, en CorsFilter
+        // Rutas públicas y no registradas (documentación, health) no requieren autenticación
+        TablaRutas.Ruta ruta = RUTAS.clasificar(request.getMethod(), request.getRequestURI());
+        if (ruta.acceso() == TablaRutas.Acceso.LIBRE || ruta.acceso() == TablaRutas.Acceso.PUBLICA) {
             filterChain.doFilter(request, response);
             return;
         }
 
         String token = getToken(request);
         boolean error = false;
+        VerifiedToken verificado = null;
         
         try {
             // Rutas que requieren autenticación de administrador
-            if (esRutaAdmin(requestURI, method)) {
+            if (ruta.acceso() == TablaRutas.Acceso.ADMIN) {
                 if (token == null || token.trim().isEmpty()) {
-                    crearRespuestaError("Token de autenticación requerido",
-                            HttpServletResponse.SC_UNAUTHORIZED, response);
+                    TOKEN_REQUERIDO.escribir(response);
                     return;
                 }
-                error = verificarValidezTokenAdmin(response, token, Rol.ADMIN);
+                verificado = verificarToken(response, token);
+                error = verificado == null || verificarValidezTokenAdmin(response, verificado, Rol.ADMIN);
             } 
             // Rutas que requieren autenticación de cliente
-            else if (esRutaUsuario(requestURI, method)) {
+            else if (ruta.acceso() == TablaRutas.Acceso.USUARIO) {
                 if (token == null || token.trim().isEmpty()) {
-                    crearRespuestaError("Token de autenticación requerido",
-                            HttpServletResponse.SC_UNAUTHORIZED, response);
+                    TOKEN_REQUERIDO.escribir(response);
                     return;
                 }
-                // Extraer usuario del path para validar que solo acceda a sus propios datos
-                String usuarioPath = extraerUsuarioDelPath(requestURI);
-                error = verificarValidezTokenCliente(response, token, usuarioPath);
+                // El usuario del path se valida para que solo acceda a sus propios datos
+                verificado = verificarToken(response, token);
+                error = verificado == null || verificarValidezTokenCliente(response, verificado, ruta.usuario());
             } 
-            // Otras rutas (públicas)
-            else {
-                error = false;
-            }
-        } catch (JwtException e) {
-            crearRespuestaError("El token es inválido o ha expirado",
-                    HttpServletResponse.SC_UNAUTHORIZED, response);
-            return;
         } catch (Exception e) {
-            crearRespuestaError("Error interno del servidor durante la autenticación",
-                    HttpServletResponse.SC_INTERNAL_SERVER_ERROR, response);
+            ERROR_INTERNO.escribir(response);
             return;
         }
         
         if (!error) {
+            // El token ya verificado queda disponible para los controladores
+            if (verificado != null) {
+                request.setAttribute(ATRIBUTO_TOKEN, verificado);
+            }
             filterChain.doFilter(request, response);
         }
 
     }
 
-    private boolean verificarValidezTokenAdmin(HttpServletResponse response, String token, Rol rol)
-            throws IOException {
-
+    /**
+     * Verifica la firma y expiración del token una sola vez por petición.
+     * Si el token no es válido escribe la respuesta de error y retorna null.
+     */
+    private VerifiedToken verificarToken(HttpServletResponse response, String token) throws IOException {
         try {
-            // Verificar si el token está expirado
-            if (jwtUtils.isTokenExpired(token)) {
-                crearRespuestaError("El token ha expirado",
-                        HttpServletResponse.SC_UNAUTHORIZED, response);
-                return true;
-            }
-
-            boolean validoIssuer = jwtUtils.validarIssuer(token, ISSUER);
-            if (!validoIssuer) {
-                crearRespuestaError("El emisor del token no es válido",
-                        HttpServletResponse.SC_FORBIDDEN, response);
-                return true;
-            }
-            
-            boolean validoRol = jwtUtils.verificarRol(token, rol);
-            if (!validoRol) {
-                crearRespuestaError("El rol del token no es válido para esta operación",
-                        HttpServletResponse.SC_FORBIDDEN, response);
-                return true;
-            }
-            return false;
+            return jwtUtils.verificarToken(token);
+        } catch (ExpiredJwtException e) {
+            TOKEN_EXPIRADO.escribir(response);
+            return null;
+        } catch (TokenRevocadoException e) {
+            TOKEN_REVOCADO.escribir(response);
+            return null;
         } catch (JwtException e) {
-            crearRespuestaError("El token es inválido o malformado",
-                    HttpServletResponse.SC_UNAUTHORIZED, response);
+            TOKEN_INVALIDO.escribir(response);
+            return null;
+        }
+    }
+
+    private boolean verificarValidezTokenAdmin(HttpServletResponse response, VerifiedToken token, Rol rol)
+            throws IOException {
+
+        if (!token.emitidoPor(ISSUER)) {
+            EMISOR_INVALIDO.escribir(response);
             return true;
-        } catch (Exception e) {
-            crearRespuestaError("Error interno del servidor durante la validación del token",
-                    HttpServletResponse.SC_INTERNAL_SERVER_ERROR, response);
+        }
+
+        if (!token.tieneRol(rol)) {
+            ROL_INVALIDO.escribir(response);
             return true;
         }
+        return false;
     }
 
-    private boolean verificarValidezTokenCliente(HttpServletResponse response, String token, String usuarioPath)
+    private boolean verificarValidezTokenCliente(HttpServletResponse response, VerifiedToken token, String usuarioPath)
             throws IOException {
 
-        try {
-            // Verificar si el token está expirado
-            if (jwtUtils.isTokenExpired(token)) {
-                crearRespuestaError("El token ha expirado",
-                        HttpServletResponse.SC_UNAUTHORIZED, response);
-                return true;
-            }
+        if (!token.emitidoPor(ISSUER)) {
+            EMISOR_INVALIDO.escribir(response);
+            return true;
+        }
 
-            boolean validoIssuer = jwtUtils.validarIssuer(token, ISSUER);
-            if (!validoIssuer) {
-                crearRespuestaError("El emisor del token no es válido",
-                        HttpServletResponse.SC_FORBIDDEN, response);
-                return true;
-            }
-            
-            String rolToken = jwtUtils.getRol(token);
-            boolean validoRol = jwtUtils.verificarRol(token, Rol.CLIENTE);
-            
-            // Si es ADMIN, permitir acceso a cualquier usuario
-            if (Rol.ADMIN.getNombre().equals(rolToken)) {
-                return false;
-            }
-            
-            // Si es CLIENTE, verificar que solo acceda a sus propios datos
-            if (!validoRol) {
-                crearRespuestaError("El rol del token no es válido para esta operación",
-                        HttpServletResponse.SC_FORBIDDEN, response);
-                return true;
-            }
-            
-            // Validar que el usuario del token coincida con el usuario del path
-            if (usuarioPath != null && !usuarioPath.isEmpty()) {
-                String usuarioToken = jwtUtils.getUsuario(token);
-                if (usuarioToken == null || !usuarioToken.trim().equals(usuarioPath.trim())) {
-                    crearRespuestaError("No tiene permisos para acceder a los datos de otro usuario",
-                            HttpServletResponse.SC_FORBIDDEN, response);
-                    return true;
-                }
-            }
-            
+        // Si es ADMIN, permitir acceso a cualquier usuario
+        if (token.tieneRol(Rol.ADMIN)) {
             return false;
-        } catch (JwtException e) {
-            crearRespuestaError("El token es inválido o malformado",
-                    HttpServletResponse.SC_UNAUTHORIZED, response);
+        }
+
+        // Si es CLIENTE, verificar que solo acceda a sus propios datos
+        if (!token.tieneRol(Rol.CLIENTE)) {
+            ROL_INVALIDO.escribir(response);
             return true;
-        } catch (Exception e) {
-            crearRespuestaError("Error interno del servidor durante la validación del token",
-                    HttpServletResponse.SC_INTERNAL_SERVER_ERROR, response);
+        }
+
+        // Validar que el usuario del token coincida con el usuario del path
+        if (usuarioPath != null && !usuarioPath.isEmpty() && !token.perteneceA(usuarioPath)) {
+            USUARIO_AJENO.escribir(response);
             return true;
         }
+
+        return false;
     }
     
-    /**
-     * Extrae el nombre de usuario del path de la URI
-     * Ejemplo: /v1/usuarios/testuser -> testuser
-     */
-    private String extraerUsuarioDelPath(String requestURI) {
-        if (requestURI == null || !requestURI.startsWith("/v1/usuarios/")) {
-            return null;
-        }
-        String[] partes = requestURI.split("/");
-        if (partes.length >= 4) {
-            return partes[3]; // /v1/usuarios/{usuario}
-        }
-        return null;
-    }
-
     private String getToken(HttpServletRequest req) {
         String header = req.getHeader("Authorization");
         return (header != null && header.startsWith("Bearer "))
                 ? header.replace("Bearer ", "")
                 : null;
     }
-
-    private void crearRespuestaError(String mensaje, int codigoError, HttpServletResponse response)
-            throws IOException {
-        var dto = new MessageDTO<String>(true, mensaje);
-        response.setContentType("application/json");
-        response.setStatus(codigoError);
-        response.getWriter().write(mapper.writeValueAsString(dto));
-        response.getWriter().flush();
-    }
-
-    /**
-     * Identifica si una ruta es pública (no requiere autenticación)
-     */
-    private boolean esRutaPublica(String requestURI, String method) {
-        return ("POST".equals(method) && 
-                   (requestURI.equals("/v1/usuarios")      // registro
-                    || requestURI.equals("/v1/sesiones")    // login
-                    || requestURI.equals("/v1/codigos")))   // recuperar clave (ruta pública real)
-               ||
-               ("PATCH".equals(method) && requestURI.matches("^/v1/usuarios/[^/]+/contrasena$") ); // cambiar clave
-    }
-
-    /**
-     * Identifica si una ruta requiere autenticación de administrador
-     */
-    private boolean esRutaAdmin(String requestURI, String method) {
-        return (requestURI.equals("/v1/usuarios") && "GET".equals(method)) || // GET /v1/usuarios (obtener usuarios)
-               (requestURI.startsWith("/v1/usuarios/") && "DELETE".equals(method)); // DELETE /v1/usuarios/{usuario} (eliminar usuario)
-    }
-
-    /**
-     * Identifica si una ruta requiere autenticación de cliente/usuario
-     */
-    private boolean esRutaUsuario(String requestURI, String method) {
-        return (requestURI.startsWith("/v1/usuarios/") && "PATCH".equals(method) && 
-               !requestURI.endsWith("/contrasena")) || // PATCH /v1/usuarios/{usuario} (actualizar usuario)
-               (requestURI.startsWith("/v1/usuarios/") && "GET".equals(method)); // GET /v1/usuarios/{usuario} (obtener usuario)
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.time.Instant;
+import java.util.Objects;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.Rol;
+
+/**
+ * Resultado de verificar un token JWT una única vez.
+ * Contiene los claims que necesitan el TokenFilter y los controladores,
+ * de modo que ninguno tenga que volver a validar la firma.
+ */
+public record VerifiedToken(
+        String subject,   // correo del usuario
+        String issuer,    // emisor del token
+        String rol,       // rol del usuario (ADMIN / CLIENTE)
+        String usuario,   // nombre de usuario
+        Instant exp,      // fecha de expiración
+        String jti,       // identificador único del token (null en tokens anteriores)
+        Instant iat       // fecha de emisión
+) {
+
+    /**
+     * Verifica si el issuer del token coincide con el esperado
+     */
+    public boolean emitidoPor(String issuerEsperado) {
+        return issuer != null && issuerEsperado != null
+                && Objects.equals(issuer.trim(), issuerEsperado.trim());
+    }
+
+    /**
+     * Verifica si el rol del token coincide con el esperado
+     */
+    public boolean tieneRol(Rol rolEsperado) {
+        return rol != null && Objects.equals(rol.trim(), rolEsperado.getNombre().trim());
+    }
+
+    /**
+     * Verifica si el token pertenece al usuario indicado
+     */
+    public boolean perteneceA(String nombreUsuario) {
+        return usuario != null && nombreUsuario != null
+                && usuario.trim().equals(nombreUsuario.trim());
+    }
+
+    /**
+     * Verifica si el token está expirado respecto al instante indicado
+     */
+    public boolean isExpired(Instant ahora) {
+        return exp != null && exp.isBefore(ahora);
+    }
+}
@@ -0,0 +1,118 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Caché acotada (W-TinyLFU) de tokens cuya firma ya fue verificada.
+ * La llave es el SHA-256 del token compacto, nunca el token en claro,
+ * y cada entrada expira a más tardar en el "exp" del propio token más la
+ * tolerancia de reloj, con el mismo reloj que usa el parser: la caché nunca
+ * acepta un token que el parser rechazaría, ni al revés.
+ */
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    });
+
+    private final Cache<String, VerifiedToken> cache;
+    private final Clock clock;
+    private final long clockSkewSeconds;
+
+    public VerifiedTokenCache(long maxSize, Clock clock, long clockSkewSeconds) {
+        this.clock = clock;
+        this.clockSkewSeconds = clockSkewSeconds;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String llave, VerifiedToken token, long currentTime) {
+                        return tiempoRestante(token);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String llave, VerifiedToken token, long currentTime,
+                            long currentDuration) {
+                        return tiempoRestante(token);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String llave, VerifiedToken token, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Retorna el token verificado en caché o null si no existe o ya expiró
+     */
+    public VerifiedToken obtener(String token) {
+        String llave = digest(token);
+        VerifiedToken verificado = cache.getIfPresent(llave);
+        if (verificado != null && finValidez(verificado).isBefore(clock.instant())) {
+            cache.invalidate(llave);
+            return null;
+        }
+        return verificado;
+    }
+
+    /**
+     * Guarda un token verificado; los tokens sin expiración no se guardan
+     */
+    public void guardar(String token, VerifiedToken verificado) {
+        if (verificado.exp() != null) {
+            cache.put(digest(token), verificado);
+        }
+    }
+
+    /**
+     * Elimina un token de la caché
+     */
+    public void invalidar(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    public CacheStats estadisticas() {
+        return cache.stats();
+    }
+
+    Cache<String, VerifiedToken> getCache() {
+        return cache;
+    }
+
+    /**
+     * Nanosegundos que le quedan al token antes de su "exp" más la tolerancia
+     */
+    private long tiempoRestante(VerifiedToken token) {
+        return Math.max(0L, Duration.between(clock.instant(), finValidez(token)).toNanos());
+    }
+
+    private Instant finValidez(VerifiedToken token) {
+        return token.exp().plusSeconds(clockSkewSeconds);
+    }
+
+    private static String digest(String token) {
+        MessageDigest md = SHA256.get();
+        md.reset();
+        byte[] hash = md.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+}
@@ -7,22 +7,41 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.Constants;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.MessageDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.ResultadoImportacionDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.ExportacionUsuariosServiceImp;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.ExportacionUsuariosServiceImp.FormatoExportacion;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.ImportacionUsuariosServiceImp;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.ImportacionUsuariosServiceImp.FormatoImportacion;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.UsuarioServiceImp;
 
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
 
 @RestController
 @RequestMapping("/v1")
@@ -30,12 +49,19 @@ import lombok.AllArgsConstructor;
 public class Admin {
 
 
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
     private final UsuarioServiceImp usuarioService;
+    private final JWTUtils jwtUtils;
+    private final ImportacionUsuariosServiceImp importacionService;
+    private final ExportacionUsuariosServiceImp exportacionService;
 
     @Tag(name = "Obtener Usuarios", description = "Obtiene parte de los usuarios del sistema")
     @Operation(
             summary = "Obtener usuarios",
-            description = "Obtiene una pagina de los usuarios que hay en el sistema"
+            description = "Obtiene una pagina de los usuarios que hay en el sistema. Con after y/o limit usa " +
+                    "paginación por cursor (costo constante, sin conteo) y retorna el cursor de la página " +
+                    "siguiente; sin ellos usa el parámetro pagina"
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -51,7 +77,7 @@ public class Admin {
             ),
             @ApiResponse(
                     responseCode = "400",
-                    description = "Número de página inválido o fuera de rango",
+                    description = "Número de página, límite o cursor inválido",
                     content = @Content(
                             mediaType = "application/json",
                             schema = @Schema(implementation = MessageDTO.class),
@@ -132,7 +158,12 @@ public class Admin {
     })
     @GetMapping("/usuarios")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<MessageDTO<?>> obtenerUsuarios(@Valid @RequestParam(defaultValue = "0") int pagina) {
+    public ResponseEntity<MessageDTO<?>> obtenerUsuarios(@Valid @RequestParam(defaultValue = "0") int pagina,
+                                                         @RequestParam(required = false) String after,
+                                                         @RequestParam(required = false) Integer limit) {
+        if (after != null || limit != null) {
+            return obtenerPaginaUsuarios(after, limit != null ? limit : Constants.TAMANO_PAGINA_DEFAULT);
+        }
         if (pagina < 0) {
             return ResponseEntity
                     .badRequest()
@@ -147,6 +178,18 @@ public class Admin {
         }
     }
 
+    private ResponseEntity<MessageDTO<?>> obtenerPaginaUsuarios(String after, int limit) {
+        if (limit < 1 || limit > Constants.TAMANO_PAGINA_MAXIMO) {
+            return ResponseEntity.badRequest().body(new MessageDTO<>(true,
+                    "El limite debe estar entre 1 y " + Constants.TAMANO_PAGINA_MAXIMO));
+        }
+        try {
+            return ResponseEntity.ok(new MessageDTO<>(false, usuarioService.obtenerPaginaUsuarios(after, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageDTO<>(true, e.getMessage()));
+        }
+    }
+
     @Tag(name = "Eliminación de usuario",
             description = "Elimina un usuario del sistema (solo administradores)")
     @Operation(
@@ -260,5 +303,214 @@ public class Admin {
                     .body(new MessageDTO<>(true, "Usuario no encontrado en el sistema"));
         }
     }
-    
+
+    @Tag(name = "Rotación de claves", description = "Rota la clave de firma de los tokens sin reiniciar el servicio")
+    @Operation(
+            summary = "Rotar clave de firma",
+            description = "Activa otra clave del llavero configurado (jwt.secrets o jwt.claves) para firmar los " +
+                    "tokens nuevos. Todas las instancias cargan el mismo llavero, así que verifican los tokens " +
+                    "firmados con cualquiera de sus claves; para que la activación persista tras un reinicio " +
+                    "se fija jwt.kid-activo"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Clave rotada exitosamente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class),
+                            examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                    value = "{\"error\": false, \"respuesta\": {\"kidActivo\": \"k2026\", \"kidsVigentes\": [\"hs-1a2b...\", \"k2026\"]}}"
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "El kid no está en el llavero configurado",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Token de autenticación requerido, expirado o inválido",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Token con emisor o rol inválido",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class)
+                    )
+            )
+    })
+    @PostMapping("/claves")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<MessageDTO<?>> rotarClave(@RequestParam String kid) {
+        try {
+            String kidActivo = jwtUtils.rotarClave(kid);
+            return ResponseEntity.ok(new MessageDTO<>(false, Map.of(
+                    "kidActivo", kidActivo,
+                    "kidsVigentes", jwtUtils.getKidsVigentes())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageDTO<>(true, e.getMessage()));
+        }
+    }
+
+    @Tag(name = "Importación masiva", description = "Registra muchos usuarios en una sola petición")
+    @Operation(
+            summary = "Importar usuarios",
+            description = "Lee NDJSON (un objeto DatosUsuario por línea) o CSV con encabezado " +
+                    "usuario,correo,clave,numeroTelefono y los inserta en lotes. Los usuarios existentes " +
+                    "se reportan como conflicto por fila. Las claves se hashean; con clavesHasheadas=true se " +
+                    "guardan tal cual y cada una debe ser un hash BCrypt completo"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Importación procesada; el detalle indica las filas no creadas",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class),
+                            examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                    value = "{\"error\": false, \"respuesta\": {\"procesadas\": 3, \"creados\": 1, " +
+                                            "\"conflictos\": 1, \"invalidas\": 1, \"truncado\": false, \"rechazadas\": [" +
+                                            "{\"linea\": 2, \"usuario\": \"juan123\", \"motivo\": \"El usuario ya existe\"}, " +
+                                            "{\"linea\": 3, \"usuario\": \"ana\", \"motivo\": \"correo es obligatorio\"}]}}"
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Encabezado CSV inválido",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Token de autenticación requerido, expirado o inválido",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Token con emisor o rol inválido",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/usuarios:bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<MessageDTO<?>> importarUsuarios(
+            @RequestParam(defaultValue = "false") boolean clavesHasheadas,
+            HttpServletRequest request) {
+        FormatoImportacion formato = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                ? FormatoImportacion.CSV : FormatoImportacion.NDJSON;
+        Charset charset = request.getCharacterEncoding() != null
+                ? Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+        // El cuerpo se lee en streaming, sin cargarlo completo en memoria
+        try (Reader lector = new InputStreamReader(request.getInputStream(), charset)) {
+            ResultadoImportacionDTO resultado = importacionService.importar(lector, formato, clavesHasheadas);
+            return ResponseEntity.ok(new MessageDTO<>(false, resultado));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageDTO<>(true, e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageDTO<>(true, "Error interno del servidor durante la importación"));
+        }
+    }
+
+    @Tag(name = "Exportar Usuarios", description = "Exporta todos los usuarios del sistema")
+    @Operation(
+            summary = "Exportar usuarios",
+            description = "Envía todos los usuarios en NDJSON o CSV (sin clave) a medida que se leen de la " +
+                    "base de datos, con transferencia chunked y memoria constante"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Usuarios exportados, uno por línea",
+                    content = {
+                            @Content(
+                                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                            value = "{\"usuario\":\"juan123\",\"correo\":\"juan@email.com\"," +
+                                                    "\"numeroTelefono\":\"+573001234567\",\"rol\":\"CLIENTE\"}"
+                                    )
+                            ),
+                            @Content(
+                                    mediaType = TEXT_CSV_VALUE,
+                                    examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                            value = "usuario,correo,numeroTelefono,rol\njuan123,juan@email.com,+573001234567,CLIENTE"
+                                    )
+                            )
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Formato no soportado",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Token de autenticación requerido, expirado o inválido",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Token con emisor o rol inválido",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class)
+                    )
+            )
+    })
+    @GetMapping("/usuarios/export")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<MessageDTO<?>> exportarUsuarios(@RequestParam(defaultValue = "ndjson") String formato,
+                                                          HttpServletResponse response) {
+        FormatoExportacion tipo;
+        try {
+            tipo = FormatoExportacion.valueOf(formato.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageDTO<>(true, "Formato no soportado, use ndjson o csv"));
+        }
+        boolean csv = tipo == FormatoExportacion.CSV;
+        response.setContentType(csv ? TEXT_CSV_VALUE : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"usuarios." + (csv ? "csv" : "ndjson") + "\"");
+        // Sin Content-Length: el contenedor envía la respuesta chunked a medida que el servicio la vacía
+        try {
+            exportacionService.exportar(response.getOutputStream(), tipo);
+            return null;
+        } catch (Exception e) {
+            if (response.isCommitted()) {
+                // Ya se enviaron filas: se aborta la respuesta para que el cliente no la tome como completa
+                throw new IllegalStateException("Exportación de usuarios interrumpida", e);
+            }
+            response.reset();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageDTO<>(true, "Error interno del servidor durante la exportación"));
+        }
+    }
+
 }
@@ -0,0 +1,170 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.IntrospeccionDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.IntrospeccionLoteDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.IntrospeccionLoteRequest;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.MessageDTO;
+
+import io.jsonwebtoken.JwtException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+
+/**
+ * Introspección de tokens (RFC 7662) para los servicios que no pueden validar
+ * los JWT localmente. Usa la misma verificación que el TokenFilter, incluida la
+ * caché de tokens verificados (llave: SHA-256 del token) y la lista de revocación.
+ * El servicio que consulta se autentica con su propio token de rol ADMIN.
+ */
+@RestController
+@RequestMapping("/v1")
+public class IntrospeccionController {
+
+    private final JWTUtils jwtUtils;
+    private final int maximoLote;
+
+    public IntrospeccionController(JWTUtils jwtUtils, @Value("${jwt.introspeccion.max-lote:100}") int maximoLote) {
+        this.jwtUtils = jwtUtils;
+        this.maximoLote = maximoLote;
+    }
+
+    @Tag(name = "Introspección", description = "Validación de tokens para otros servicios")
+    @Operation(
+            summary = "Introspectar token",
+            description = "Formulario application/x-www-form-urlencoded con el parámetro token (RFC 7662). " +
+                    "Retorna active=false para tokens inválidos, expirados o revocados. " +
+                    "Requiere el token Bearer de un servicio con rol ADMIN"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Resultado de la introspección",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = IntrospeccionDTO.class),
+                            examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                    value = "{\"active\": true, \"username\": \"testuser\", \"sub\": \"test@email.com\", \"iss\": \"ingesis.uniquindio.edu.co\", \"exp\": 1736514000, \"iat\": 1736510400, \"rol\": \"CLIENTE\", \"token_type\": \"Bearer\"}"
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Token de autenticación del servicio requerido, expirado o inválido",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "El token del servicio no tiene rol ADMIN",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/introspect", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<IntrospeccionDTO> introspectar(
+            @RequestParam("token") String token,
+            @RequestParam(value = "token_type_hint", required = false) String tokenTypeHint) {
+        // Solo se emiten tokens de acceso, así que token_type_hint no cambia la búsqueda
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(introspectar(token));
+    }
+
+    @Tag(name = "Introspección", description = "Validación de tokens para otros servicios")
+    @Operation(
+            summary = "Introspectar tokens en lote",
+            description = "Cuerpo JSON con la lista de tokens; los resultados vienen en el mismo orden"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Resultados de la introspección",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = IntrospeccionLoteDTO.class),
+                            examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                    value = "{\"resultados\": [{\"active\": true, \"username\": \"testuser\", \"token_type\": \"Bearer\"}, {\"active\": false}]}"
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "El lote supera el máximo permitido",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class),
+                            examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                    value = "{\"error\": true, \"respuesta\": \"El lote supera el máximo de 100 tokens\"}"
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Token de autenticación del servicio requerido, expirado o inválido",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "El token del servicio no tiene rol ADMIN",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/introspect", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<?> introspectarLote(@Valid @RequestBody IntrospeccionLoteRequest request) {
+        if (request.tokens().size() > maximoLote) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageDTO<>(true, "El lote supera el máximo de " + maximoLote + " tokens"));
+        }
+        List<IntrospeccionDTO> resultados = new ArrayList<>(request.tokens().size());
+        for (String token : request.tokens()) {
+            resultados.add(introspectar(token));
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(new IntrospeccionLoteDTO(resultados));
+    }
+
+    private IntrospeccionDTO introspectar(String token) {
+        if (token == null || token.isBlank()) {
+            return IntrospeccionDTO.INACTIVO;
+        }
+        try {
+            return IntrospeccionDTO.activo(jwtUtils.verificarToken(token));
+        } catch (JwtException e) {
+            return IntrospeccionDTO.INACTIVO;
+        }
+    }
+}
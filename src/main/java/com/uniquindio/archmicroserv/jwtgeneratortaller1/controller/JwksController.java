@@ -0,0 +1,62 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.controller;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * Publica las claves públicas de verificación (RFC 7517) para que otros
+ * microservicios validen los tokens localmente sin llamar a este servicio.
+ */
+@RestController
+public class JwksController {
+
+    public static final String JWK_SET_MEDIA_TYPE = "application/jwk-set+json";
+
+    private final JWTUtils jwtUtils;
+    private final long maxAgeSeconds;
+
+    public JwksController(JWTUtils jwtUtils, @Value("${jwt.jwks.max-age-seconds:3600}") long maxAgeSeconds) {
+        this.jwtUtils = jwtUtils;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    @Tag(name = "JWKS", description = "Claves públicas para verificar tokens")
+    @Operation(
+            summary = "Obtener JWKS",
+            description = "Retorna las claves públicas de firma. Vacío cuando el servicio firma con HMAC"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Conjunto de claves públicas",
+                    content = @Content(
+                            mediaType = JWK_SET_MEDIA_TYPE,
+                            examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                    value = "{\"keys\":[{\"kty\":\"EC\",\"crv\":\"P-256\",\"kid\":\"...\",\"alg\":\"ES256\",\"x\":\"...\",\"y\":\"...\"}]}"
+                            )
+                    )
+            ),
+            @ApiResponse(responseCode = "304", description = "El JWKS no ha cambiado (If-None-Match)")
+    })
+    @GetMapping(value = "/.well-known/jwks.json", produces = JWK_SET_MEDIA_TYPE)
+    public ResponseEntity<String> jwks() {
+        // El ETag permite responder 304 a los consumidores que ya tienen las claves
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .eTag(jwtUtils.getJwksEtag())
+                .body(jwtUtils.getJwksJson());
+    }
+}
@@ -1,15 +1,21 @@
 package com.uniquindio.archmicroserv.jwtgeneratortaller1.controller;
 
 
-import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.TokenFilter;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.VerifiedToken;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.CambioClaveDTO;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.CambioClaveRequestDTO;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.DatosUsuario;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.EnviarCodigoUsuario;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.HealthCheckDTO;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.MessageDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.RefrescoTokenRequest;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.TokenDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.LimiteExcedidoException;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.SesionInvalidaException;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.HealthService;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.RevocacionServiceImp;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.SesionServiceImp;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.UsuarioServiceImp;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.LoginRequest;
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,13 +26,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.hibernate.exception.SQLGrammarException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -37,12 +46,17 @@ import org.springframework.web.bind.annotation.RestController;
 public class PublicController {
 
 
+    private final RevocacionServiceImp revocacionService;
     private final UsuarioServiceImp usuarioService;
     private final HealthService healthService;
+    private final SesionServiceImp sesionService;
 
-    public PublicController(JWTUtils jwtUtils, UsuarioServiceImp usuarioService, HealthService healthService) {
+    public PublicController(RevocacionServiceImp revocacionService, UsuarioServiceImp usuarioService,
+                            HealthService healthService, SesionServiceImp sesionService) {
+        this.revocacionService = revocacionService;
         this.usuarioService = usuarioService;
         this.healthService = healthService;
+        this.sesionService = sesionService;
     }
 
     @Tag(name = "Registro de usuarios", description = "Registra un nuevo usuario")
@@ -173,6 +187,18 @@ public class PublicController {
                             )
                     )
             ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Demasiadas solicitudes desde la IP o para el usuario, o cuenta bloqueada " +
+                            "temporalmente por intentos fallidos; ver cabecera Retry-After",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class),
+                            examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                    value = "{\"error\": true, \"respuesta\": \"Demasiadas solicitudes, intente más tarde\"}"
+                            )
+                    )
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Error interno del servidor durante la autenticación",
@@ -190,6 +216,8 @@ public class PublicController {
         try {
                 TokenDTO tokendto= usuarioService.login(request);
                 return ResponseEntity.ok(new MessageDTO<>(false, tokendto));
+        } catch (LimiteExcedidoException e) {
+                return limiteExcedido(e);
         } catch (Exception e) {
                 if (e.getMessage().equals("Contrasena invalida")) {
                     return ResponseEntity
@@ -204,6 +232,91 @@ public class PublicController {
         
     }
 
+    @Tag(name = "Login de usuario",
+            description = "Permite iniciar sesion al usario")
+    @Operation(
+            summary = "Refrescar sesion",
+            description = "Canjea el token de refresco por un token de acceso nuevo sin volver a enviar la contraseña. " +
+                    "El token de refresco es de un solo uso: la respuesta incluye su reemplazo"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Token de autenticación renovado exitosamente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class),
+                            examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                    value = "{\"error\": false, \"respuesta\": {\"token\": \"eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9...\", \"refreshToken\": \"q1Xo3...\"}}"
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "La sesión no existe, ya fue usada o expiró",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class),
+                            examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                    value = "{\"error\": true, \"respuesta\": \"La sesión ha expirado\"}"
+                            )
+                    )
+            )
+    })
+    @PostMapping("/sesiones/refresco")
+    public ResponseEntity<MessageDTO<?>> refrescarSesion(@Valid @RequestBody RefrescoTokenRequest request) {
+        try {
+            TokenDTO tokendto = sesionService.refrescar(request.refreshToken());
+            return ResponseEntity.ok(new MessageDTO<>(false, tokendto));
+        } catch (SesionInvalidaException e) {
+            return ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED) // 401
+                    .body(new MessageDTO<>(true, e.getMessage()));
+        }
+    }
+
+    @Tag(name = "Login de usuario",
+            description = "Permite iniciar sesion al usario")
+    @Operation(
+            summary = "Cerrar sesion",
+            description = "Revoca el token de acceso enviado en el header Authorization hasta su expiración. " +
+                    "Si se envía el token de refresco también se cierra esa sesión"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Sesión cerrada exitosamente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class),
+                            examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                    value = "{\"error\": false, \"respuesta\": \"Sesión cerrada exitosamente\"}"
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Token de autenticación requerido, inválido o revocado",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class),
+                            examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                    value = "{\"error\": true, \"respuesta\": \"El token ha sido revocado\"}"
+                            )
+                    )
+            )
+    })
+    @DeleteMapping("/sesiones")
+    public ResponseEntity<MessageDTO<?>> cerrarSesion(
+            @RequestAttribute(TokenFilter.ATRIBUTO_TOKEN) VerifiedToken token,
+            @RequestBody(required = false) RefrescoTokenRequest request) {
+        revocacionService.revocarToken(token);
+        if (request != null && request.refreshToken() != null && !request.refreshToken().isBlank()) {
+            sesionService.cerrarSesion(request.refreshToken());
+        }
+        return ResponseEntity.ok(new MessageDTO<>(false, "Sesión cerrada exitosamente"));
+    }
+
     @Tag(name = "Envio de codigo de recuperacion",
             description = "Hace que se envie un codigo de verificacion al correo de la cuenta")
     @Operation(
@@ -244,6 +357,17 @@ public class PublicController {
                             )
                     )
             ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Demasiadas solicitudes desde la IP o para el usuario; ver cabecera Retry-After",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageDTO.class),
+                            examples = @io.swagger.v3.oas.annotations.media.ExampleObject(
+                                    value = "{\"error\": true, \"respuesta\": \"Demasiadas solicitudes, intente más tarde\"}"
+                            )
+                    )
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Error interno del servidor durante el envío del código",
@@ -273,6 +397,8 @@ public class PublicController {
         try {
             usuarioService.enviarCodigoRecuperacion(enviarCodigoUsuario.usuario());
             return ResponseEntity.ok(new MessageDTO<>(false, "Código de verificación enviado exitosamente al correo"));
+        } catch (LimiteExcedidoException e) {
+            return limiteExcedido(e);
         } catch (Exception e) {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND) // 404
@@ -465,5 +591,10 @@ public class PublicController {
         return ResponseEntity.status(status).body(liveness);
     }
 
-
+    private ResponseEntity<MessageDTO<?>> limiteExcedido(LimiteExcedidoException e) {
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS) // 429
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getSegundosEspera()))
+                .body(new MessageDTO<>(true, e.getMessage()));
+    }
 }
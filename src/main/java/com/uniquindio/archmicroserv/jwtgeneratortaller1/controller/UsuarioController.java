@@ -4,6 +4,7 @@ package com.uniquindio.archmicroserv.jwtgeneratortaller1.controller;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.DatosUsuario;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.ActualizarUsuarioRequestDTO;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.MessageDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.UsuarioResumenDTO;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.UsuarioServiceImp;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,7 +24,6 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Map;
 
 @RestController
 @RequestMapping("/v1/usuarios")
@@ -78,16 +78,7 @@ public class UsuarioController {
     @SecurityRequirement(name = "bearerAuth")
     public ResponseEntity<MessageDTO<?>> obtenerUsuario(@PathVariable String usuario) {
         try {
-            com.uniquindio.archmicroserv.jwtgeneratortaller1.model.Usuario usuarioEncontrado = 
-                    usuarioService.obtenerUsuario(usuario);
-            
-            Map<String, Object> datosUsuario = Map.of(
-                    "usuario", usuarioEncontrado.getUsuario(),
-                    "correo", usuarioEncontrado.getCorreo(),
-                    "numeroTelefono", usuarioEncontrado.getNumeroTelefono(),
-                    "rol", usuarioEncontrado.getRol()
-            );
-            
+            UsuarioResumenDTO datosUsuario = usuarioService.obtenerUsuario(usuario);
             return ResponseEntity.ok(new MessageDTO<>(false, datosUsuario));
         } catch (com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.UsuarioNotFoundException e) {
             return ResponseEntity
@@ -0,0 +1,52 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.VerifiedToken;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Respuesta de introspección de un token (RFC 7662). Un token inactivo solo
+ * expone "active": false, sin indicar el motivo.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Resultado de la introspección de un token (RFC 7662)")
+public record IntrospeccionDTO(
+        @Schema(description = "Indica si el token es válido, no expiró y no fue revocado", example = "true", required = true)
+        boolean active,
+        @Schema(description = "Nombre de usuario", example = "testuser")
+        String username,
+        @Schema(description = "Subject del token (correo del usuario)", example = "test@email.com")
+        String sub,
+        @Schema(description = "Emisor del token", example = "ingesis.uniquindio.edu.co")
+        String iss,
+        @Schema(description = "Expiración en segundos desde epoch", example = "1736514000")
+        Long exp,
+        @Schema(description = "Emisión en segundos desde epoch", example = "1736510400")
+        Long iat,
+        @Schema(description = "Identificador único del token", example = "q1Xo3kL0sYb7mQ2wZ9aRcA")
+        String jti,
+        @Schema(description = "Rol del usuario", example = "CLIENTE")
+        String rol,
+        @JsonProperty("token_type")
+        @Schema(description = "Tipo de token", example = "Bearer")
+        String tokenType
+) {
+
+    public static final IntrospeccionDTO INACTIVO =
+            new IntrospeccionDTO(false, null, null, null, null, null, null, null, null);
+
+    public static IntrospeccionDTO activo(VerifiedToken token) {
+        return new IntrospeccionDTO(
+                true,
+                token.usuario(),
+                token.subject(),
+                token.issuer(),
+                token.exp() != null ? token.exp().getEpochSecond() : null,
+                token.iat() != null ? token.iat().getEpochSecond() : null,
+                token.jti(),
+                token.rol(),
+                "Bearer");
+    }
+}
@@ -0,0 +1,11 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultados de la introspección en el mismo orden de los tokens recibidos")
+public record IntrospeccionLoteDTO(
+        List<IntrospeccionDTO> resultados
+) {
+}
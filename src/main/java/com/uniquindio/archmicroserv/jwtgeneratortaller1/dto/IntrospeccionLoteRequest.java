@@ -0,0 +1,14 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+
+@Schema(description = "Tokens a validar en una sola petición")
+public record IntrospeccionLoteRequest(
+        @Schema(description = "Tokens JWT a introspectar", required = true)
+        @NotEmpty(message = "tokens es obligatorio")
+        List<String> tokens
+) {
+}
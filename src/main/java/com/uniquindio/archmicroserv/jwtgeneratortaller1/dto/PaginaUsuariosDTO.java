@@ -0,0 +1,15 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Página de usuarios ordenada por nombre de usuario")
+public record PaginaUsuariosDTO(
+        @Schema(description = "Usuarios de la página")
+        List<UsuarioResumenDTO> usuarios,
+        @Schema(description = "Cursor opaco para pedir la página siguiente (parámetro after); null si no hay más",
+                example = "anVhbjEyMw")
+        String siguiente
+) {
+}
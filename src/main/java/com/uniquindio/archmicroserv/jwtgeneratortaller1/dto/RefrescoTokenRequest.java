@@ -0,0 +1,12 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(description = "Datos para refrescar el token de autenticación")
+public record RefrescoTokenRequest(
+        @Schema(description = "Token de refresco obtenido en el inicio de sesión", example = "q1Xo3...", required = true)
+        @NotBlank(message = "refreshToken es obligatorio")
+        String refreshToken
+) {
+}
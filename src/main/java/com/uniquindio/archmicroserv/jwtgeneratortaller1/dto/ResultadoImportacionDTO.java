@@ -0,0 +1,35 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado de la importación masiva de usuarios")
+public record ResultadoImportacionDTO(
+        @Schema(description = "Filas leídas (sin contar el encabezado CSV)", example = "3")
+        int procesadas,
+        @Schema(description = "Usuarios creados", example = "1")
+        int creados,
+        @Schema(description = "Filas no creadas porque el usuario ya existía", example = "1")
+        int conflictos,
+        @Schema(description = "Filas con datos inválidos", example = "1")
+        int invalidas,
+        @Schema(description = "Indica si se dejó de leer al superar el máximo de filas", example = "false")
+        boolean truncado,
+        @Schema(description = "Detalle de las filas no creadas, hasta el máximo configurado")
+        List<FilaRechazada> rechazadas,
+        @Schema(description = "Indica si hubo más filas no creadas de las que incluye el detalle", example = "false")
+        boolean rechazadasTruncadas
+) {
+
+    @Schema(description = "Fila no creada y el motivo")
+    public record FilaRechazada(
+            @Schema(description = "Número de línea en el archivo", example = "2")
+            int linea,
+            @Schema(description = "Usuario de la fila, si se pudo leer", example = "juan123")
+            String usuario,
+            @Schema(description = "Motivo", example = "El usuario ya existe")
+            String motivo
+    ) {
+    }
+}
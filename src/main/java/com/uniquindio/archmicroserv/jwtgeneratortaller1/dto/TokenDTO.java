@@ -1,10 +1,18 @@
 package com.uniquindio.archmicroserv.jwtgeneratortaller1.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Schema(description = "Token JWT de autenticación")
 public record TokenDTO(
         @Schema(description = "Token JWT para autenticación", example = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9...", required = true)
-        String token
+        String token,
+        @Schema(description = "Token de refresco para obtener nuevos tokens sin volver a iniciar sesión", example = "q1Xo3...")
+        String refreshToken
 ) {
+    public TokenDTO(String token) {
+        this(token, null);
+    }
 }
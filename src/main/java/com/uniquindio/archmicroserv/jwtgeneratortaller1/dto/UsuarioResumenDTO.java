@@ -0,0 +1,18 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.dto;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.Rol;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Datos públicos de un usuario (sin clave ni código de validación)")
+public record UsuarioResumenDTO(
+        @Schema(description = "Nombre de usuario", example = "juan123")
+        String usuario,
+        @Schema(description = "Correo electrónico", example = "juan@email.com")
+        String correo,
+        @Schema(description = "Número de teléfono", example = "+573001234567")
+        String numeroTelefono,
+        @Schema(description = "Rol del usuario", example = "CLIENTE")
+        Rol rol
+) {
+}
@@ -0,0 +1,12 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions;
+
+/**
+ * Excepción lanzada cuando se intenta iniciar sesión en una cuenta bloqueada
+ * temporalmente por acumular intentos fallidos.
+ */
+public class CuentaBloqueadaException extends LimiteExcedidoException {
+
+    public CuentaBloqueadaException(String message, long segundosEspera) {
+        super(message, segundosEspera);
+    }
+}
@@ -0,0 +1,23 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions;
+
+/**
+ * Excepción lanzada cuando una IP o un usuario supera el límite de peticiones de una ruta.
+ */
+public class LimiteExcedidoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long segundosEspera;
+
+    public LimiteExcedidoException(String message, long segundosEspera) {
+        super(message);
+        this.segundosEspera = segundosEspera;
+    }
+
+    /**
+     * Segundos que el cliente debe esperar (cabecera Retry-After)
+     */
+    public long getSegundosEspera() {
+        return segundosEspera;
+    }
+}
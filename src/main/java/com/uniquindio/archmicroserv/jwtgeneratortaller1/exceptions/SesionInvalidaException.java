@@ -0,0 +1,15 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions;
+
+/**
+ * Excepción lanzada cuando un token de refresco no existe, ya fue usado o expiró.
+ */
+public class SesionInvalidaException extends RuntimeException {
+    
+    public SesionInvalidaException(String message) {
+        super(message);
+    }
+    
+    public SesionInvalidaException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,14 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions;
+
+import io.jsonwebtoken.JwtException;
+
+/**
+ * Excepción lanzada cuando un token con firma válida fue revocado antes de su expiración
+ * (cierre de sesión, eliminación del usuario o cambio de clave).
+ */
+public class TokenRevocadoException extends JwtException {
+    
+    public TokenRevocadoException(String message) {
+        super(message);
+    }
+}
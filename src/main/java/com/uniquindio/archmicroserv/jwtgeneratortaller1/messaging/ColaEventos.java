@@ -0,0 +1,178 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.EventoDominio;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cola acotada en memoria para publicar eventos de dominio fuera del hilo de
+ * la petición. Los hilos de drenado toman los eventos en lotes y los envían
+ * con la función de envío; con un solo hilo se conserva el orden de llegada.
+ * Cuando la cola está llena se aplica la política de desborde configurada, y
+ * al cerrar se deja de aceptar eventos y se drena lo pendiente hasta un plazo.
+ */
+@Slf4j
+public class ColaEventos {
+
+    /**
+     * Qué hacer con un evento cuando la cola está llena
+     */
+    public enum PoliticaDesborde {
+        LLAMADOR,           // se envía en el hilo que publica (contrapresión, no se pierde; bloquea la petición)
+        ESPERAR,            // espera espacio hasta espera-ms y luego se descarta (por defecto)
+        DESCARTAR,          // se descarta el evento nuevo
+        DESCARTAR_ANTIGUO   // se descarta el evento más antiguo de la cola
+    }
+
+    private static final long ESPERA_DRENADO_MS = 200;
+
+    private final BlockingQueue<EventoDominio> cola;
+    private final Consumer<List<EventoDominio>> envio;
+    private final PoliticaDesborde politica;
+    private final long esperaMs;
+    private final int tamanoLote;
+    private final List<Thread> hilos = new ArrayList<>();
+    private volatile boolean abierta = true;
+
+    final AtomicLong publicados = new AtomicLong();
+    final AtomicLong descartados = new AtomicLong();
+    final AtomicLong fallidos = new AtomicLong();
+
+    public ColaEventos(Consumer<List<EventoDominio>> envio, int capacidad, int hilos, int tamanoLote,
+                       PoliticaDesborde politica, long esperaMs) {
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.envio = envio;
+        this.politica = politica;
+        this.esperaMs = esperaMs;
+        this.tamanoLote = Math.max(1, tamanoLote);
+        // Hilos de plataforma: el cliente AMQP bloquea dentro de bloques synchronized
+        // y fijaría los hilos virtuales a su portador
+        for (int i = 1; i <= Math.max(1, hilos); i++) {
+            Thread hilo = Thread.ofPlatform().name("eventos-" + i).daemon().unstarted(this::drenar);
+            this.hilos.add(hilo);
+            hilo.start();
+        }
+    }
+
+    /**
+     * Agrega el evento a la cola sin esperar al broker; si está llena aplica la política de desborde
+     */
+    public void encolar(EventoDominio evento) {
+        if (!abierta) {
+            enviar(List.of(evento));
+            return;
+        }
+        if (cola.offer(evento)) {
+            // Un cierre concurrente pudo terminar el drenado después del offer
+            if (!abierta && cola.remove(evento)) {
+                enviar(List.of(evento));
+            }
+            return;
+        }
+        switch (politica) {
+            case LLAMADOR -> enviar(List.of(evento));
+            case ESPERAR -> esperarEspacio(evento);
+            case DESCARTAR -> descartar(evento);
+            case DESCARTAR_ANTIGUO -> {
+                EventoDominio antiguo = cola.poll();
+                if (antiguo != null) {
+                    descartar(antiguo);
+                }
+                if (!cola.offer(evento)) {
+                    descartar(evento);
+                }
+            }
+        }
+    }
+
+    private void esperarEspacio(EventoDominio evento) {
+        try {
+            if (!cola.offer(evento, esperaMs, TimeUnit.MILLISECONDS)) {
+                descartar(evento);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            descartar(evento);
+        }
+    }
+
+    private void descartar(EventoDominio evento) {
+        descartados.incrementAndGet();
+        log.warn("Cola de eventos llena, evento descartado: tipo={}, id={}", evento.tipoAccion(), evento.id());
+    }
+
+    /**
+     * Ciclo de cada hilo: toma un lote y lo envía, hasta que la cola se cierra y queda vacía
+     */
+    private void drenar() {
+        List<EventoDominio> lote = new ArrayList<>(tamanoLote);
+        while (true) {
+            EventoDominio primero;
+            try {
+                primero = cola.poll(ESPERA_DRENADO_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (primero == null) {
+                if (!abierta) {
+                    return;
+                }
+                continue;
+            }
+            lote.add(primero);
+            cola.drainTo(lote, tamanoLote - 1);
+            enviar(lote);
+            lote.clear();
+        }
+    }
+
+    private void enviar(List<EventoDominio> lote) {
+        try {
+            envio.accept(lote);
+            publicados.addAndGet(lote.size());
+        } catch (RuntimeException e) {
+            fallidos.addAndGet(lote.size());
+            log.error("Error publicando {} eventos de dominio: {}", lote.size(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deja de aceptar eventos (los siguientes se envían en el hilo que llama) y
+     * espera a que se drene la cola hasta el plazo; lo que quede se descarta.
+     */
+    public void cerrar(Duration plazo) {
+        abierta = false;
+        long limite = System.nanoTime() + plazo.toNanos();
+        for (Thread hilo : hilos) {
+            try {
+                long restante = TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime());
+                if (restante > 0) {
+                    hilo.join(restante);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        hilos.forEach(Thread::interrupt);
+        int pendientes = cola.size();
+        if (pendientes > 0) {
+            descartados.addAndGet(pendientes);
+            cola.clear();
+            log.warn("Cierre de la cola de eventos: {} eventos sin publicar", pendientes);
+        }
+    }
+
+    public int tamano() {
+        return cola.size();
+    }
+}
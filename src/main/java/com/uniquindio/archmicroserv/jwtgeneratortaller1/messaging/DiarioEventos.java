@@ -0,0 +1,214 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Diario en disco de solo anexado, mapeado en memoria.
+ * Cabecera de 16 bytes: [int posición de lectura][long secuencia del registro
+ * en esa posición][4 bytes libres]. Cada registro es [int longitud][int crc32]
+ * [long secuencia][datos]; el crc cubre secuencia y datos. Al abrir se recorre
+ * desde la posición de lectura mientras la secuencia sea consecutiva y el crc
+ * coincida, así una escritura cortada o un registro de una vuelta anterior
+ * terminan el diario. Cuando se consumen todos los registros la escritura
+ * vuelve al inicio. Si la posición de lectura pasa la mitad del diario, los
+ * registros pendientes se copian al inicio (compactación): a partir de esa
+ * posición el destino ya no se solapa con el origen, así que la copia original
+ * sigue intacta hasta que la cabecera apunta a la nueva.
+ * El archivo se bloquea en exclusiva mientras está abierto: dos procesos con
+ * el mismo archivo (un despliegue gradual, dos réplicas en el mismo host) se
+ * pisarían las posiciones de lectura y escritura.
+ */
+class DiarioEventos implements Closeable {
+
+    static final int CABECERA = 16;
+    static final int ENCABEZADO_REGISTRO = 16;
+
+    private final FileChannel canal;
+    private final MappedByteBuffer mapa;
+    private final int capacidad;
+    private final boolean sincronizarCadaRegistro;
+
+    private int lectura;
+    private long secuenciaLectura;
+    private int escritura;
+    private long siguienteSecuencia;
+    private int registros;
+
+    DiarioEventos(Path archivo, int capacidad, boolean sincronizarCadaRegistro) throws IOException {
+        if (archivo.getParent() != null) {
+            Files.createDirectories(archivo.getParent());
+        }
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        bloquear(archivo);
+        // Si el archivo ya existe con más datos se conserva su tamaño
+        this.capacidad = (int) Math.max(Math.max(capacidad, CABECERA), Math.min(canal.size(), Integer.MAX_VALUE));
+        this.mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, this.capacidad);
+        this.sincronizarCadaRegistro = sincronizarCadaRegistro;
+        recuperar();
+    }
+
+    /**
+     * Toma el bloqueo exclusivo del archivo antes de mapearlo; se libera al cerrar el canal
+     */
+    private void bloquear(Path archivo) throws IOException {
+        FileLock bloqueo;
+        try {
+            bloqueo = canal.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Ya lo tiene abierto este mismo proceso
+            bloqueo = null;
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+        if (bloqueo == null) {
+            canal.close();
+            throw new IOException("El diario " + archivo + " está en uso por otro proceso");
+        }
+    }
+
+    private void recuperar() {
+        lectura = mapa.getInt(0);
+        secuenciaLectura = mapa.getLong(4);
+        if (lectura < CABECERA || lectura > capacidad) {
+            lectura = CABECERA;
+        }
+        int posicion = lectura;
+        long secuencia = secuenciaLectura;
+        while (posicion + ENCABEZADO_REGISTRO <= capacidad) {
+            int longitud = mapa.getInt(posicion);
+            if (longitud <= 0 || posicion + ENCABEZADO_REGISTRO + longitud > capacidad
+                    || mapa.getLong(posicion + 8) != secuencia
+                    || mapa.getInt(posicion + 4) != crc(posicion, longitud)) {
+                break;
+            }
+            registros++;
+            secuencia++;
+            posicion += ENCABEZADO_REGISTRO + longitud;
+        }
+        escritura = posicion;
+        siguienteSecuencia = secuencia;
+    }
+
+    private int crc(int posicion, int longitud) {
+        CRC32 crc = new CRC32();
+        crc.update(mapa.slice(posicion + 8, longitud + 8));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Anexa un registro
+     *
+     * @return false si no cabe en el espacio que queda
+     */
+    synchronized boolean agregar(byte[] datos) {
+        int tamano = ENCABEZADO_REGISTRO + datos.length;
+        if (datos.length == 0 || escritura + tamano > capacidad) {
+            return false;
+        }
+        mapa.putInt(escritura, datos.length);
+        mapa.putLong(escritura + 8, siguienteSecuencia);
+        mapa.put(escritura + ENCABEZADO_REGISTRO, datos);
+        mapa.putInt(escritura + 4, crc(escritura, datos.length));
+        if (sincronizarCadaRegistro) {
+            mapa.force(escritura, tamano);
+        }
+        escritura += tamano;
+        siguienteSecuencia++;
+        registros++;
+        return true;
+    }
+
+    /**
+     * Lee hasta max registros desde la posición de lectura, sin consumirlos
+     */
+    synchronized List<byte[]> leer(int max) {
+        List<byte[]> leidos = new ArrayList<>(Math.min(max, registros));
+        int posicion = lectura;
+        for (int i = 0; i < max && i < registros; i++) {
+            int longitud = mapa.getInt(posicion);
+            byte[] datos = new byte[longitud];
+            mapa.get(posicion + ENCABEZADO_REGISTRO, datos);
+            leidos.add(datos);
+            posicion += ENCABEZADO_REGISTRO + longitud;
+        }
+        return leidos;
+    }
+
+    /**
+     * Marca como consumidos los primeros n registros; si no queda ninguno la
+     * escritura vuelve al inicio del diario, y si la lectura pasó la mitad se
+     * compacta
+     */
+    synchronized void consumir(int n) {
+        for (int i = 0; i < n && registros > 0; i++) {
+            lectura += ENCABEZADO_REGISTRO + mapa.getInt(lectura);
+            secuenciaLectura++;
+            registros--;
+        }
+        if (registros == 0) {
+            lectura = CABECERA;
+            escritura = CABECERA;
+        } else if (lectura >= (capacidad + CABECERA) / 2) {
+            compactar();
+        }
+        mapa.putInt(0, lectura);
+        mapa.putLong(4, secuenciaLectura);
+        if (sincronizarCadaRegistro) {
+            mapa.force(0, CABECERA);
+        }
+    }
+
+    /**
+     * Copia los registros pendientes al inicio del diario. La cabecera se
+     * actualiza después (en consumir), cuando la copia ya está completa; una
+     * secuencia que no continúa termina el diario en la recuperación, así que
+     * los registros viejos que siguen a la copia no reaparecen.
+     */
+    private void compactar() {
+        int usados = escritura - lectura;
+        mapa.put(CABECERA, mapa, lectura, usados);
+        if (sincronizarCadaRegistro) {
+            mapa.force(CABECERA, usados);
+        }
+        lectura = CABECERA;
+        escritura = CABECERA + usados;
+    }
+
+    synchronized int registros() {
+        return registros;
+    }
+
+    synchronized int bytesUsados() {
+        return escritura - lectura;
+    }
+
+    int capacidad() {
+        return capacidad;
+    }
+
+    /**
+     * Fuerza a disco las páginas modificadas
+     */
+    synchronized void sincronizar() {
+        mapa.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        mapa.force();
+        canal.close();
+    }
+}
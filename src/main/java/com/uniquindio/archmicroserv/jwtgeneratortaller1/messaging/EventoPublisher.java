@@ -1,30 +1,348 @@
 package com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging;
 
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.EventoDominio;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging.ColaEventos.PoliticaDesborde;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publica los eventos de dominio en el exchange dominio.events.
+ * Con publisher-confirm-type=correlated cada mensaje lleva un CorrelationData
+ * y su confirmación llega de forma asíncrona: varios mensajes quedan en vuelo
+ * por canal en lugar de esperar el ida y vuelta del broker uno por uno.
+ * publicarLote espera todas las confirmaciones del lote juntas.
+ * Un evento devuelto (sin ruta) o rechazado por el broker no se aceptará en
+ * ningún reintento: se cuenta, se registra y se descarta del lote. Solo los
+ * errores de conexión y la falta de confirmación llevan el lote al spool o
+ * revierten el outbox.
+ * Con eventos.spool.enabled los eventos que no se pueden enviar se guardan en
+ * el spool en disco en lugar de propagar el error, y se reenvían en orden.
+ */
 @Slf4j
 @Service
-public class EventoPublisher {
+public class EventoPublisher implements MeterBinder {
+
+    private static final String EXCHANGE = "dominio.events";
+
+    /**
+     * Confirmaciones de publicación que ofrece la conexión
+     */
+    enum ModoConfirmacion {
+        NINGUNA,
+        SIMPLE,             // waitForConfirms sobre el canal
+        CORRELACIONADA      // futuro por mensaje (CorrelationData)
+    }
 
     private final RabbitTemplate rabbitTemplate;
+    private final ColaEventos cola;     // null en modo síncrono
+    private final SpoolEventos spool;   // null sin spool
+    private final Duration plazoDrenado;
+    private final ModoConfirmacion modoConfirmacion;
+    private final long esperaConfirmacionesMs;
 
+    private final AtomicInteger enVuelo = new AtomicInteger();
+    final AtomicLong rechazados = new AtomicLong();
+    private volatile Timer latenciaConfirmacion;
+
+    /**
+     * Publicación síncrona: cada evento se envía en el hilo que llama
+     */
     public EventoPublisher(RabbitTemplate rabbitTemplate) {
         this.rabbitTemplate = rabbitTemplate;
+        this.cola = null;
+        this.spool = null;
+        this.plazoDrenado = Duration.ZERO;
+        this.modoConfirmacion = modoConfirmacion(rabbitTemplate);
+        this.esperaConfirmacionesMs = 5000;
+    }
+
+    /**
+     * Con eventos.async.enabled los eventos se encolan y los envían hilos
+     * propios, así la respuesta HTTP no espera la latencia del broker
+     */
+    @Autowired
+    public EventoPublisher(RabbitTemplate rabbitTemplate, SpoolEventos spool,
+                           @Value("${eventos.async.enabled:true}") boolean asincrono,
+                           @Value("${eventos.async.capacidad:10000}") int capacidad,
+                           @Value("${eventos.async.hilos:1}") int hilos,
+                           @Value("${eventos.async.tamano-lote:100}") int tamanoLote,
+                           @Value("${eventos.async.politica-desborde:ESPERAR}") PoliticaDesborde politica,
+                           @Value("${eventos.async.espera-ms:100}") long esperaMs,
+                           @Value("${eventos.async.drenado-ms:10000}") long drenadoMs,
+                           @Value("${eventos.confirmacion.espera-ms:5000}") long esperaConfirmacionesMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.modoConfirmacion = modoConfirmacion(rabbitTemplate);
+        this.esperaConfirmacionesMs = esperaConfirmacionesMs;
+        this.plazoDrenado = Duration.ofMillis(drenadoMs);
+        this.spool = spool != null && spool.habilitado() ? spool : null;
+        if (this.spool != null) {
+            // El reenvío espera las confirmaciones antes de consumir el spool
+            this.spool.iniciar(this::publicarLote);
+        }
+        // La cola arranca sus hilos de drenado al crearse: va al final, cuando
+        // enviarLote ya ve todos los campos asignados
+        this.cola = asincrono
+                ? new ColaEventos(this::enviarLote, capacidad, hilos, tamanoLote, politica, esperaMs)
+                : null;
+        if (asincrono) {
+            log.info("Publicación asíncrona de eventos: capacidad {}, {} hilos, desborde {}",
+                    capacidad, hilos, politica);
+        }
     }
 
     public void publicar(EventoDominio evento) {
-        log.info("Publicando evento de dominio: tipo={}, id={}", 
+        if (spool != null && spool.tienePendientes()) {
+            // Hay eventos anteriores sin reenviar: se conserva el orden
+            guardarEnSpool(List.of(evento), null);
+            return;
+        }
+        if (cola != null) {
+            log.debug("Encolando evento de dominio: tipo={}, id={}", evento.tipoAccion(), evento.id());
+            cola.encolar(evento);
+            return;
+        }
+        try {
+            enviar(evento);
+        } catch (AmqpException e) {
+            guardarEnSpool(List.of(evento), e);
+        }
+    }
+
+    /**
+     * Guarda los eventos en el spool; sin spool, o si está lleno, se propaga el error del envío
+     */
+    private void guardarEnSpool(List<EventoDominio> eventos, AmqpException error) {
+        if (spool != null && spool.agregar(eventos)) {
+            log.warn("{} eventos guardados en el spool: {}", eventos.size(),
+                    error != null ? error.getMessage() : "hay eventos pendientes de reenvío");
+            return;
+        }
+        throw error != null ? error : new AmqpException("Spool de eventos lleno, no se pudo guardar el evento");
+    }
+
+    private void enviar(EventoDominio evento) {
+        log.info("Publicando evento de dominio: tipo={}, id={}",
             evento.tipoAccion(), evento.id());
         log.debug("Routing key: {}", evento.tipoAccion().routingKey());
-        rabbitTemplate.convertAndSend(
-                "dominio.events",                // exchange
-                evento.tipoAccion().routingKey(), // routing key desde enum
-                evento                           // body (serializado como JSON)
-        );
+        if (modoConfirmacion == ModoConfirmacion.CORRELACIONADA) {
+            // No espera la confirmación: se registra cuando llegue
+            enviarCorrelacionado(rabbitTemplate, evento);
+        } else {
+            rabbitTemplate.convertAndSend(
+                    EXCHANGE,                        // exchange
+                    evento.tipoAccion().routingKey(), // routing key desde enum
+                    evento                           // body (serializado como JSON)
+            );
+        }
         log.debug("Evento publicado exitosamente en exchange 'dominio.events'");
     }
-}
 
+    /**
+     * Envía el evento con un CorrelationData cuyo futuro se completa con la
+     * confirmación del broker; mientras tanto cuenta como mensaje en vuelo
+     */
+    private CorrelationData enviarCorrelacionado(RabbitOperations operaciones, EventoDominio evento) {
+        CorrelationData correlacion = new CorrelationData(evento.id());
+        long inicio = System.nanoTime();
+        enVuelo.incrementAndGet();
+        correlacion.getFuture().whenComplete((confirmacion, error) -> {
+            enVuelo.decrementAndGet();
+            Timer latencia = latenciaConfirmacion;
+            if (latencia != null) {
+                latencia.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+            if (error == null && rechazoDefinitivo(correlacion, confirmacion)) {
+                rechazados.incrementAndGet();
+                log.error("El broker no aceptó el evento, se descarta: tipo={}, id={}, motivo={}",
+                        evento.tipoAccion(), evento.id(), motivoRechazo(correlacion, confirmacion));
+            } else if (error != null || !confirmacion.isAck()) {
+                log.warn("Evento sin confirmar por el broker: tipo={}, id={}, motivo={}", evento.tipoAccion(),
+                        evento.id(), error != null ? error.getMessage() : confirmacion.getReason());
+            }
+        });
+        try {
+            operaciones.convertAndSend(EXCHANGE, evento.tipoAccion().routingKey(), evento, correlacion);
+        } catch (RuntimeException e) {
+            // El futuro nunca se completará
+            enVuelo.decrementAndGet();
+            throw e;
+        }
+        return correlacion;
+    }
+
+    /**
+     * Devuelto por el broker (sin cola para su routing key) o nack del propio
+     * broker. Los nack que genera el cliente al cerrarse el canal traen motivo
+     * y no son definitivos: el mensaje pudo no llegar al broker.
+     */
+    private static boolean rechazoDefinitivo(CorrelationData correlacion, CorrelationData.Confirm confirmacion) {
+        return correlacion.getReturned() != null || (!confirmacion.isAck() && confirmacion.getReason() == null);
+    }
+
+    private static String motivoRechazo(CorrelationData correlacion, CorrelationData.Confirm confirmacion) {
+        if (correlacion.getReturned() != null) {
+            return "devuelto: " + correlacion.getReturned().getReplyText();
+        }
+        return "nack del broker";
+    }
+
+    /**
+     * Envío de los lotes que toma la cola asíncrona. Siempre pasa por
+     * publicarLote, incluso con un solo evento: así cada evento espera su
+     * confirmación y, si no llega, termina en el spool.
+     */
+    private void enviarLote(List<EventoDominio> eventos) {
+        if (spool != null && spool.tienePendientes()) {
+            guardarEnSpool(eventos, null);
+            return;
+        }
+        try {
+            publicarLote(eventos);
+        } catch (AmqpException e) {
+            guardarEnSpool(eventos, e);
+        }
+    }
+
+    /**
+     * Publica varios eventos usando un único canal en vez de uno por evento y
+     * espera las confirmaciones de todo el lote (si la conexión las tiene).
+     * Los eventos devueltos o rechazados por el broker se descartan sin
+     * detener el lote. Lanza AmqpException si falla la conexión o si las
+     * confirmaciones no llegan en eventos.confirmacion.espera-ms.
+     */
+    public void publicarLote(List<EventoDominio> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        log.info("Publicando lote de {} eventos de dominio", eventos.size());
+        List<CorrelationData> correlaciones = rabbitTemplate.invoke(operaciones -> {
+            List<CorrelationData> enviados = new ArrayList<>(eventos.size());
+            for (EventoDominio evento : eventos) {
+                if (modoConfirmacion == ModoConfirmacion.CORRELACIONADA) {
+                    enviados.add(enviarCorrelacionado(operaciones, evento));
+                } else {
+                    operaciones.convertAndSend(EXCHANGE, evento.tipoAccion().routingKey(), evento);
+                }
+            }
+            if (modoConfirmacion == ModoConfirmacion.SIMPLE) {
+                operaciones.waitForConfirmsOrDie(esperaConfirmacionesMs);
+            }
+            return enviados;
+        });
+        if (correlaciones != null && !correlaciones.isEmpty()) {
+            esperarConfirmaciones(correlaciones);
+        }
+        log.debug("Lote de eventos publicado exitosamente en exchange 'dominio.events'");
+    }
+
+    /**
+     * Espera las confirmaciones del lote con un único plazo para todas. Los
+     * rechazos definitivos ya quedaron contados y registrados al completarse
+     * su futuro; aquí solo se descartan.
+     */
+    private void esperarConfirmaciones(List<CorrelationData> correlaciones) {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaConfirmacionesMs);
+        int noConfirmados = 0;
+        int descartados = 0;
+        for (CorrelationData correlacion : correlaciones) {
+            try {
+                CorrelationData.Confirm confirmacion =
+                        correlacion.getFuture().get(limite - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (rechazoDefinitivo(correlacion, confirmacion)) {
+                    descartados++;
+                } else if (!confirmacion.isAck()) {
+                    noConfirmados++;
+                }
+            } catch (ExecutionException e) {
+                noConfirmados++;
+            } catch (TimeoutException e) {
+                throw new AmqpTimeoutException("Sin confirmación del broker tras " + esperaConfirmacionesMs
+                        + " ms para el evento " + correlacion.getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AmqpException("Interrumpido esperando confirmaciones del broker", e);
+            }
+        }
+        if (noConfirmados > 0) {
+            throw new AmqpException("El broker no confirmó " + noConfirmados + " de "
+                    + correlaciones.size() + " eventos");
+        }
+        if (descartados > 0) {
+            log.warn("{} de {} eventos del lote devueltos o rechazados por el broker, descartados",
+                    descartados, correlaciones.size());
+        }
+    }
+
+    private static ModoConfirmacion modoConfirmacion(RabbitTemplate rabbitTemplate) {
+        ConnectionFactory connectionFactory = rabbitTemplate.getConnectionFactory();
+        if (connectionFactory == null) {
+            return ModoConfirmacion.NINGUNA;
+        }
+        if (connectionFactory.isPublisherConfirms()) {
+            return ModoConfirmacion.CORRELACIONADA;
+        }
+        return connectionFactory.isSimplePublisherConfirms() ? ModoConfirmacion.SIMPLE : ModoConfirmacion.NINGUNA;
+    }
+
+    /**
+     * Drena los eventos pendientes antes de que se cierre la conexión a RabbitMQ
+     */
+    @PreDestroy
+    public void cerrar() {
+        if (cola != null) {
+            cola.cerrar(plazoDrenado);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (modoConfirmacion == ModoConfirmacion.CORRELACIONADA) {
+            Gauge.builder("eventos.confirmacion.en-vuelo", enVuelo, AtomicInteger::get)
+                    .description("Eventos enviados pendientes de confirmación del broker")
+                    .register(registry);
+            FunctionCounter.builder("eventos.confirmacion.rechazados", rechazados, AtomicLong::get)
+                    .description("Eventos rechazados (nack) o devueltos por el broker, descartados")
+                    .register(registry);
+            latenciaConfirmacion = Timer.builder("eventos.confirmacion.latencia")
+                    .description("Tiempo entre el envío y la confirmación del broker")
+                    .register(registry);
+        }
+        if (cola == null) {
+            return;
+        }
+        Gauge.builder("eventos.cola.tamano", cola, ColaEventos::tamano)
+                .description("Eventos de dominio pendientes de publicar")
+                .register(registry);
+        FunctionCounter.builder("eventos.cola.publicados", cola, c -> c.publicados.get())
+                .register(registry);
+        FunctionCounter.builder("eventos.cola.descartados", cola, c -> c.descartados.get())
+                .description("Eventos descartados por cola llena o por cierre")
+                .register(registry);
+        FunctionCounter.builder("eventos.cola.fallidos", cola, c -> c.fallidos.get())
+                .description("Eventos cuyo envío al broker falló")
+                .register(registry);
+    }
+}
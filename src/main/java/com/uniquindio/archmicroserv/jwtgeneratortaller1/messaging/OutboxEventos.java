@@ -0,0 +1,198 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.EventoDominio;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.EventoOutbox;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories.EventoOutboxRepo;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Outbox transaccional de eventos de dominio.
+ * Con eventos.outbox.enabled el evento se guarda en la tabla eventos_outbox
+ * dentro de la misma transacción que el cambio del usuario, así no se pierde
+ * si el broker no está disponible ni se publica si la transacción se revierte.
+ * El relay toma lotes con FOR UPDATE SKIP LOCKED, los publica esperando las
+ * confirmaciones del broker y los elimina con un solo DELETE; si la
+ * publicación falla (conexión o confirmaciones que no llegan) la transacción
+ * se revierte y el lote se reintenta (entrega al menos una vez). Los eventos
+ * que el broker devuelve o rechaza se descartan en el publisher y no bloquean
+ * el outbox.
+ * Sin outbox, o fuera de una transacción (el evento de autenticación del
+ * login no acompaña ningún cambio), los eventos van directo al publisher; si
+ * hay una transacción en curso se publican solo después de su commit, así
+ * nunca sale un evento de un cambio que se revirtió.
+ */
+@Slf4j
+@Component
+public class OutboxEventos implements MeterBinder {
+
+    private final EventoOutboxRepo outboxRepo;
+    private final EventoPublisher eventoPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionOperations transacciones;
+    private final boolean habilitado;
+    private final int tamanoLote;
+
+    final AtomicLong relevados = new AtomicLong();
+    final AtomicLong fallidos = new AtomicLong();
+
+    public OutboxEventos(EventoOutboxRepo outboxRepo, EventoPublisher eventoPublisher,
+                         ObjectMapper objectMapper, TransactionOperations transacciones,
+                         @Value("${eventos.outbox.enabled:false}") boolean habilitado,
+                         @Value("${eventos.outbox.tamano-lote:100}") int tamanoLote) {
+        this.outboxRepo = outboxRepo;
+        this.eventoPublisher = eventoPublisher;
+        this.objectMapper = objectMapper;
+        this.transacciones = transacciones;
+        this.habilitado = habilitado;
+        this.tamanoLote = Math.max(1, tamanoLote);
+    }
+
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Registra el evento en la transacción actual; sin outbox o sin transacción
+     * lo publica directamente (después del commit si hay transacción)
+     */
+    public void publicar(EventoDominio evento) {
+        if (!usarOutbox()) {
+            despuesDelCommit(() -> eventoPublisher.publicar(evento));
+            return;
+        }
+        outboxRepo.save(aOutbox(evento));
+        log.debug("Evento registrado en el outbox: tipo={}, id={}", evento.tipoAccion(), evento.id());
+    }
+
+    /**
+     * Registra varios eventos en la transacción actual; sin outbox o sin
+     * transacción los publica como lote (después del commit si hay transacción)
+     */
+    public void publicarLote(List<EventoDominio> eventos) {
+        if (!usarOutbox()) {
+            despuesDelCommit(() -> eventoPublisher.publicarLote(eventos));
+            return;
+        }
+        if (!eventos.isEmpty()) {
+            outboxRepo.saveAll(eventos.stream().map(this::aOutbox).toList());
+        }
+    }
+
+    /**
+     * El outbox solo tiene sentido dentro de una transacción: fuera de ella el
+     * INSERT no acompaña ningún cambio y solo agrega una escritura por evento
+     */
+    private boolean usarOutbox() {
+        return habilitado && TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private void despuesDelCommit(Runnable publicacion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publicacion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // El cambio ya se confirmó: un fallo del broker no debe convertirse en error de la petición
+                try {
+                    publicacion.run();
+                } catch (RuntimeException e) {
+                    log.error("No se pudo publicar el evento después del commit: {}", e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    private EventoOutbox aOutbox(EventoDominio evento) {
+        try {
+            return EventoOutbox.builder()
+                    .id(evento.id())
+                    .routingKey(evento.tipoAccion().routingKey())
+                    .evento(objectMapper.writeValueAsString(evento))
+                    .creado(evento.timestamp())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("No se pudo serializar el evento " + evento.id(), e);
+        }
+    }
+
+    /**
+     * Publica los eventos pendientes; sigue mientras encuentre lotes completos
+     */
+    @Scheduled(fixedDelayString = "${eventos.outbox.intervalo-ms:500}")
+    public void relevar() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            int relevadosLote;
+            do {
+                relevadosLote = relevarLote();
+            } while (relevadosLote == tamanoLote);
+        } catch (RuntimeException e) {
+            fallidos.incrementAndGet();
+            log.warn("No se pudo relevar el outbox de eventos, se reintentará: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Toma, publica y elimina un lote en una sola transacción
+     *
+     * @return número de filas tomadas del outbox
+     */
+    int relevarLote() {
+        Integer filas = transacciones.execute(estado -> {
+            List<EventoOutbox> pendientes = outboxRepo.tomarPendientes(tamanoLote);
+            if (pendientes.isEmpty()) {
+                return 0;
+            }
+            List<EventoDominio> eventos = new ArrayList<>(pendientes.size());
+            List<String> ids = new ArrayList<>(pendientes.size());
+            for (EventoOutbox pendiente : pendientes) {
+                ids.add(pendiente.getId());
+                try {
+                    eventos.add(objectMapper.readValue(pendiente.getEvento(), EventoDominio.class));
+                } catch (JsonProcessingException e) {
+                    // No se podrá publicar nunca: se elimina para no bloquear el outbox
+                    log.error("Evento del outbox ilegible, se descarta: id={}", pendiente.getId(), e);
+                }
+            }
+            eventoPublisher.publicarLote(eventos);
+            outboxRepo.eliminar(ids);
+            relevados.addAndGet(eventos.size());
+            return pendientes.size();
+        });
+        return filas == null ? 0 : filas;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!habilitado) {
+            return;
+        }
+        FunctionCounter.builder("eventos.outbox.relevados", relevados, AtomicLong::get)
+                .description("Eventos publicados desde el outbox")
+                .register(registry);
+        FunctionCounter.builder("eventos.outbox.fallidos", fallidos, AtomicLong::get)
+                .description("Ciclos del relay que fallaron y se reintentarán")
+                .register(registry);
+    }
+}
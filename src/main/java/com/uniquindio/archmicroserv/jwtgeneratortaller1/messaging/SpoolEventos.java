@@ -0,0 +1,243 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.EventoDominio;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Spool en disco para los eventos que no se pudieron publicar porque el broker
+ * no estaba disponible o no confirmó a tiempo. Los eventos se anexan a un
+ * diario mapeado en memoria (sin esperar al disco, según la política de fsync)
+ * y un hilo propio los reenvía en orden cuando el broker vuelve a responder.
+ * Si el diario se llena el evento se rechaza y el llamador conserva el error.
+ */
+@Slf4j
+@Component
+public class SpoolEventos implements MeterBinder {
+
+    /**
+     * Cuándo se fuerzan a disco los registros del diario
+     */
+    public enum PoliticaFsync {
+        SIEMPRE,    // cada registro (sobrevive a una caída del sistema operativo, más lento)
+        INTERVALO,  // cada fsync-ms desde el hilo de reenvío
+        NUNCA       // lo decide el sistema operativo (sobrevive a una caída del proceso)
+    }
+
+    private final ObjectMapper objectMapper;
+    private final boolean habilitado;
+    private final Path archivo;
+    private final int capacidadBytes;
+    private final PoliticaFsync politica;
+    private final long fsyncMs;
+    private final long reintentoMs;
+    private final int tamanoLote;
+
+    private DiarioEventos diario;
+    private Thread reenvio;
+    private volatile boolean abierto;
+
+    final AtomicLong almacenados = new AtomicLong();
+    final AtomicLong reenviados = new AtomicLong();
+    final AtomicLong rechazados = new AtomicLong();
+
+    public SpoolEventos(ObjectMapper objectMapper,
+                        @Value("${eventos.spool.enabled:false}") boolean habilitado,
+                        @Value("${eventos.spool.archivo:data/eventos-spool.dat}") Path archivo,
+                        @Value("${eventos.spool.capacidad-mb:64}") int capacidadMb,
+                        @Value("${eventos.spool.politica-fsync:INTERVALO}") PoliticaFsync politica,
+                        @Value("${eventos.spool.fsync-ms:1000}") long fsyncMs,
+                        @Value("${eventos.spool.reintento-ms:1000}") long reintentoMs,
+                        @Value("${eventos.spool.tamano-lote:100}") int tamanoLote) {
+        this.objectMapper = objectMapper;
+        this.habilitado = habilitado;
+        this.archivo = archivo;
+        this.capacidadBytes = (int) Math.min(Integer.MAX_VALUE, capacidadMb * 1024L * 1024L);
+        this.politica = politica;
+        this.fsyncMs = fsyncMs;
+        this.reintentoMs = reintentoMs;
+        this.tamanoLote = Math.max(1, tamanoLote);
+    }
+
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Abre el diario y arranca el hilo que reenvía los eventos con la función de envío
+     */
+    public synchronized void iniciar(Consumer<List<EventoDominio>> envio) {
+        if (!habilitado || abierto) {
+            return;
+        }
+        try {
+            diario = new DiarioEventos(archivo, capacidadBytes, politica == PoliticaFsync.SIEMPRE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el spool de eventos " + archivo, e);
+        }
+        abierto = true;
+        if (diario.registros() > 0) {
+            log.warn("Spool de eventos con {} eventos pendientes de una ejecución anterior", diario.registros());
+        }
+        // Hilo de plataforma por la misma razón que los de ColaEventos
+        reenvio = Thread.ofPlatform().name("eventos-spool").daemon().unstarted(() -> reenviar(envio));
+        reenvio.start();
+        log.info("Spool de eventos en {} ({} MB, fsync {})", archivo, capacidadBytes / (1024 * 1024), politica);
+    }
+
+    /**
+     * Indica si hay eventos esperando reenvío; mientras los haya, los nuevos
+     * también deben ir al spool para conservar el orden
+     */
+    public boolean tienePendientes() {
+        return abierto && diario.registros() > 0;
+    }
+
+    /**
+     * Guarda los eventos en el diario
+     *
+     * @return false si el spool no está abierto o no hay espacio para todos
+     */
+    public boolean agregar(List<EventoDominio> eventos) {
+        if (!abierto) {
+            return false;
+        }
+        for (int i = 0; i < eventos.size(); i++) {
+            EventoDominio evento = eventos.get(i);
+            byte[] datos;
+            try {
+                datos = objectMapper.writeValueAsBytes(evento);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("No se pudo serializar el evento " + evento.id(), e);
+            }
+            if (!diario.agregar(datos)) {
+                rechazados.addAndGet(eventos.size() - i);
+                log.error("Spool de eventos lleno ({} bytes usados), {} eventos rechazados",
+                        diario.bytesUsados(), eventos.size() - i);
+                return false;
+            }
+            almacenados.incrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * Ciclo del hilo de reenvío: espera reintento-ms (dando tiempo a que la
+     * conexión se recupere) y envía lotes en orden mientras el broker responda
+     */
+    private void reenviar(Consumer<List<EventoDominio>> envio) {
+        long espera = politica == PoliticaFsync.INTERVALO ? Math.min(reintentoMs, fsyncMs) : reintentoMs;
+        long ultimaSincronizacion = System.nanoTime();
+        boolean enviado = false;
+        while (abierto) {
+            if (!enviado) {
+                try {
+                    Thread.sleep(espera);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            enviado = false;
+            try {
+                enviado = reenviarLote(envio);
+            } catch (RuntimeException e) {
+                log.debug("Broker no disponible, {} eventos siguen en el spool: {}",
+                        diario.registros(), e.getMessage());
+            }
+            if (politica == PoliticaFsync.INTERVALO && System.nanoTime() - ultimaSincronizacion >= fsyncMs * 1_000_000) {
+                diario.sincronizar();
+                ultimaSincronizacion = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Envía el lote más antiguo y lo consume del diario solo si el envío tuvo éxito
+     *
+     * @return true si se consumió algún registro
+     */
+    boolean reenviarLote(Consumer<List<EventoDominio>> envio) {
+        List<byte[]> registros = diario.leer(tamanoLote);
+        if (registros.isEmpty()) {
+            return false;
+        }
+        List<EventoDominio> eventos = new ArrayList<>(registros.size());
+        for (byte[] registro : registros) {
+            try {
+                eventos.add(objectMapper.readValue(registro, EventoDominio.class));
+            } catch (IOException e) {
+                // No se podrá publicar nunca: se consume para no bloquear el spool
+                log.error("Evento ilegible en el spool, se descarta", e);
+            }
+        }
+        if (!eventos.isEmpty()) {
+            envio.accept(eventos);
+        }
+        diario.consumir(registros.size());
+        reenviados.addAndGet(eventos.size());
+        log.info("Reenviados {} eventos desde el spool, quedan {}", eventos.size(), diario.registros());
+        return true;
+    }
+
+    /**
+     * Detiene el reenvío y fuerza el diario a disco; lo pendiente se reenvía al reiniciar
+     */
+    @PreDestroy
+    public synchronized void cerrar() {
+        if (!abierto) {
+            return;
+        }
+        abierto = false;
+        reenvio.interrupt();
+        try {
+            reenvio.join(reintentoMs + fsyncMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (diario.registros() > 0) {
+                log.warn("Cierre del spool de eventos con {} eventos pendientes", diario.registros());
+            }
+            diario.close();
+        } catch (IOException e) {
+            log.error("Error cerrando el spool de eventos: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!habilitado) {
+            return;
+        }
+        Gauge.builder("eventos.spool.pendientes", this, s -> s.abierto ? s.diario.registros() : 0)
+                .description("Eventos en el spool esperando reenvío al broker")
+                .register(registry);
+        Gauge.builder("eventos.spool.bytes", this, s -> s.abierto ? s.diario.bytesUsados() : 0)
+                .register(registry);
+        FunctionCounter.builder("eventos.spool.almacenados", almacenados, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("eventos.spool.reenviados", reenviados, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("eventos.spool.rechazados", rechazados, AtomicLong::get)
+                .description("Eventos rechazados por spool lleno")
+                .register(registry);
+    }
+}
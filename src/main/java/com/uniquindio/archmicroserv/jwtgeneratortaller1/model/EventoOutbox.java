@@ -0,0 +1,52 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Evento de dominio pendiente de publicar (outbox transaccional). Se inserta
+ * en la misma transacción que el cambio del usuario y el relay lo elimina
+ * cuando el broker confirma la publicación.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "eventos_outbox", indexes = @Index(name = "idx_eventos_outbox_creado", columnList = "creado"))
+public class EventoOutbox implements Persistable<String> {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @Column(name = "id", length = 36)
+    private String id;
+    @Column(name = "routing_key", nullable = false, length = 100)
+    private String routingKey;
+    @Column(name = "evento", nullable = false, columnDefinition = "text")
+    private String evento;      // EventoDominio serializado como JSON
+    @Column(name = "creado", nullable = false)
+    private Instant creado;
+
+    /**
+     * Los eventos se insertan directamente, sin el SELECT previo de merge
+     */
+    @Transient
+    @Builder.Default
+    private boolean nueva = true;
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+}
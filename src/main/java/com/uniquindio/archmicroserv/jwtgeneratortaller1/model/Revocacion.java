@@ -0,0 +1,60 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Revocación compartida por todas las instancias: un token por "jti" (logout)
+ * o todos los tokens de un usuario emitidos hasta "corte" (eliminación o
+ * cambio de clave). Cada instancia la copia a su lista en memoria y la fila se
+ * elimina cuando vence el último token al que puede afectar.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "revocaciones", indexes = {
+        @Index(name = "idx_revocaciones_creado", columnList = "creado"),
+        @Index(name = "idx_revocaciones_vence", columnList = "vence")
+})
+public class Revocacion implements Persistable<String> {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @Column(name = "id", length = 36)
+    private String id;
+    @Column(name = "jti", length = 64)
+    private String jti;         // null en las revocaciones por usuario
+    @Column(name = "usuario", length = 255)
+    private String usuario;     // null en las revocaciones por token
+    @Column(name = "corte")
+    private Instant corte;      // tokens del usuario emitidos hasta este instante
+    @Column(name = "vence", nullable = false)
+    private Instant vence;
+    @Column(name = "creado", nullable = false)
+    private Instant creado;
+
+    /**
+     * Las revocaciones se insertan directamente, sin el SELECT previo de merge
+     */
+    @Transient
+    @Builder.Default
+    private boolean nueva = true;
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+}
@@ -0,0 +1,52 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sesión asociada a un token de refresco. Solo se guarda el SHA-256 del token,
+ * el usuario y la ventana de validez; el correo y el rol se leen del usuario en
+ * cada refresco.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "sesiones_refresco", indexes = @Index(name = "idx_sesiones_refresco_usuario", columnList = "usuario"))
+public class SesionRefresco implements Persistable<String> {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @Column(name = "id", length = 64)
+    private String id;
+    @Column(name = "usuario", nullable = false, length = 255)
+    private String usuario;
+    @Column(name = "inicio_sesion", nullable = false)
+    private LocalDateTime inicioSesion;
+    @Column(name = "expira", nullable = false)
+    private LocalDateTime expira;
+
+    /**
+     * Las sesiones nuevas se insertan directamente, sin el SELECT previo de merge
+     */
+    @Transient
+    @Builder.Default
+    private boolean nueva = true;
+
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+}
@@ -0,0 +1,33 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.model;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.UsuarioResumenDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.Rol;
+
+/**
+ * Proyección de solo lectura de un usuario con las columnas que usan el login
+ * y las consultas. No es una entidad: no entra al contexto de persistencia, no
+ * tiene dirty checking ni flush y no carga el código de validación.
+ */
+public record UsuarioCredenciales(
+        String usuario,
+        String correo,
+        String clave,           // hash de la clave
+        String numeroTelefono,
+        Rol rol
+) {
+
+    /**
+     * Perfil público del usuario, sin la clave
+     */
+    public UsuarioResumenDTO perfil() {
+        return new UsuarioResumenDTO(usuario, correo, numeroTelefono, rol);
+    }
+
+    /**
+     * Omite el hash de la clave para que no termine en los logs
+     */
+    @Override
+    public String toString() {
+        return "UsuarioCredenciales[usuario=" + usuario + ", correo=" + correo + ", rol=" + rol + "]";
+    }
+}
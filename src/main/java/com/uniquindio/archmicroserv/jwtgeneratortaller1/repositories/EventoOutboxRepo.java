@@ -0,0 +1,28 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.EventoOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EventoOutboxRepo extends JpaRepository<EventoOutbox, String> {
+
+    /**
+     * Bloquea los eventos más antiguos; SKIP LOCKED salta los que ya tomó otra
+     * instancia del relay, así varias instancias drenan la tabla sin esperarse
+     * ni publicar dos veces el mismo evento. Debe llamarse dentro de una transacción.
+     */
+    @Query(value = "SELECT * FROM eventos_outbox ORDER BY creado LIMIT :limite FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<EventoOutbox> tomarPendientes(int limite);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EventoOutbox e WHERE e.id IN :ids")
+    int eliminar(Collection<String> ids);
+
+}
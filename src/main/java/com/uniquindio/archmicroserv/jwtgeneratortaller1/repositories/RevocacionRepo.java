@@ -0,0 +1,25 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.Revocacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevocacionRepo extends JpaRepository<Revocacion, String> {
+
+    @Query("SELECT r FROM Revocacion r WHERE r.vence > :ahora")
+    List<Revocacion> buscarVigentes(Instant ahora);
+
+    @Query("SELECT r FROM Revocacion r WHERE r.creado >= :desde AND r.vence > :ahora")
+    List<Revocacion> buscarCreadasDesde(Instant desde, Instant ahora);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Revocacion r WHERE r.vence <= :ahora")
+    int eliminarVencidas(Instant ahora);
+
+}
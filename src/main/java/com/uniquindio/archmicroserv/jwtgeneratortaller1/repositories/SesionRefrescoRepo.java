@@ -0,0 +1,28 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.SesionRefresco;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface SesionRefrescoRepo extends JpaRepository<SesionRefresco, String> {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SesionRefresco s WHERE s.id = :id")
+    int eliminarPorId(String id);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SesionRefresco s WHERE s.usuario = :usuario")
+    int eliminarPorUsuario(String usuario);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SesionRefresco s WHERE s.expira < :fecha")
+    int eliminarExpiradas(LocalDateTime fecha);
+
+}
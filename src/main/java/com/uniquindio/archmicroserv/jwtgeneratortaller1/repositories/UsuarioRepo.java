@@ -1,11 +1,72 @@
 package com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories;
 
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.UsuarioResumenDTO;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.Usuario;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.UsuarioCredenciales;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.Rol;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface UsuarioRepo extends JpaRepository<Usuario, String> {
     
     Optional<Usuario> findByCorreo(String correo);
 
+    /**
+     * Lee solo las columnas del login y de las consultas como un record:
+     * sin entidad administrada, sin dirty checking y sin el código de validación
+     */
+    @Query("SELECT new com.uniquindio.archmicroserv.jwtgeneratortaller1.model.UsuarioCredenciales(" +
+            "u.usuario, u.correo, u.clave, u.numeroTelefono, u.rol) " +
+            "FROM Usuario u WHERE u.usuario = :usuario")
+    Optional<UsuarioCredenciales> buscarCredenciales(String usuario);
+
+    /**
+     * Reemplaza solo el hash de la clave, sin cargar ni fusionar la entidad
+     *
+     * @return 1 si se actualizó, 0 si el usuario ya no existe
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Usuario u SET u.clave = :clave WHERE u.usuario = :usuario")
+    int actualizarClave(String usuario, String clave);
+
+    /**
+     * Página por llave (keyset): usuarios posteriores a "despues" en orden de
+     * usuario. Recorre el índice de la llave primaria desde el cursor, así que
+     * el costo no depende de la profundidad y no hay consulta de conteo.
+     */
+    @Query("SELECT new com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.UsuarioResumenDTO(" +
+            "u.usuario, u.correo, u.numeroTelefono, u.rol) " +
+            "FROM Usuario u WHERE u.usuario > :despues ORDER BY u.usuario")
+    List<UsuarioResumenDTO> buscarPagina(String despues, Limit limite);
+
+    /**
+     * Inserta el usuario en una sola sentencia; si ya existe no hace nada.
+     * El rol se guarda por ordinal, igual que lo mapea JPA.
+     *
+     * @return 1 si se creó la fila, 0 si el usuario ya existía
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO usuarios (usuario, correo, clave, numero_telefono, rol) " +
+            "VALUES (:usuario, :correo, :clave, :numeroTelefono, :rol) ON CONFLICT (usuario) DO NOTHING",
+            nativeQuery = true)
+    int insertarSiNoExiste(String usuario, String correo, String clave, String numeroTelefono, int rol);
+
+    /**
+     * Crea el usuario si no existe, sin SELECT previo ni merge
+     *
+     * @return true si se creó, false si el usuario ya existía
+     */
+    default boolean crearSiNoExiste(Usuario usuario) {
+        return insertarSiNoExiste(usuario.getUsuario(), usuario.getCorreo(), usuario.getClave(),
+                usuario.getNumeroTelefono(), Rol.getRolByName(usuario.getRol()).ordinal()) == 1;
+    }
+
 }
@@ -0,0 +1,83 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.services;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.UsuarioCredenciales;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories.UsuarioRepo;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caché de lectura (read-through) de usuarios delante de
+ * UsuarioRepo.buscarCredenciales. Guarda la proyección inmutable, no la
+ * entidad, así que no retiene el código de validación. Solo la usan las lecturas (login, consulta, existencia); los métodos que
+ * modifican un usuario leen del repositorio e invalidan la entrada después de
+ * guardar. Los usuarios inexistentes no se guardan, así un registro nuevo se
+ * ve de inmediato. La invalidación es local a cada instancia: el TTL acota
+ * cuánto puede tardar otra instancia en ver un cambio.
+ */
+@Component
+public class CacheUsuarios implements MeterBinder {
+
+    private final UsuarioRepo usuarioRepo;
+    private final Cache<String, UsuarioCredenciales> cache;
+
+    public CacheUsuarios(UsuarioRepo usuarioRepo,
+                         @Value("${usuarios.cache.enabled:true}") boolean habilitada,
+                         @Value("${usuarios.cache.max-size:10000}") long maxSize,
+                         @Value("${usuarios.cache.ttl-seconds:60}") long ttlSegundos) {
+        this.usuarioRepo = usuarioRepo;
+        this.cache = habilitada
+                ? Caffeine.newBuilder()
+                        .maximumSize(maxSize)
+                        .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                        .recordStats()
+                        .build()
+                : null;
+    }
+
+    /**
+     * Busca el usuario en la caché y, si no está, en el repositorio
+     */
+    public Optional<UsuarioCredenciales> buscar(String usuario) {
+        if (cache == null || usuario == null) {
+            return usuarioRepo.buscarCredenciales(usuario);
+        }
+        return Optional.ofNullable(cache.get(usuario, llave -> usuarioRepo.buscarCredenciales(llave).orElse(null)));
+    }
+
+    /**
+     * Elimina el usuario de la caché; se llama después de guardarlo o eliminarlo
+     */
+    public void invalidar(String usuario) {
+        if (cache != null && usuario != null) {
+            cache.invalidate(usuario);
+        }
+    }
+
+    /**
+     * Expone aciertos, fallos y desalojos (tasa de aciertos) en Micrometer
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "usuarios");
+        }
+    }
+
+    long tamano() {
+        if (cache == null) {
+            return 0;
+        }
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,171 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.Rol;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exportación completa de usuarios en NDJSON o CSV.
+ * Las filas se leen con un cursor de solo avance (TYPE_FORWARD_ONLY con
+ * fetch size) y se escriben a la salida a medida que llegan, sin crear
+ * entidades ni acumular resultados: la memoria es constante sin importar el
+ * número de usuarios. La salida se vacía tras la primera fila y luego cada
+ * fetch size filas, para que la respuesta chunked empiece a enviarse de
+ * inmediato. No se exportan la clave ni el código de validación.
+ */
+@Slf4j
+@Service
+public class ExportacionUsuariosServiceImp {
+
+    static final String SQL_EXPORTAR = "SELECT usuario, correo, numero_telefono, rol FROM usuarios ORDER BY usuario";
+
+    static final String ENCABEZADO_CSV = "usuario,correo,numeroTelefono,rol";
+
+    /**
+     * Formatos de salida soportados
+     */
+    public enum FormatoExportacion {
+        NDJSON,     // un objeto JSON por línea
+        CSV         // encabezado usuario,correo,numeroTelefono,rol
+    }
+
+    private static final Rol[] ROLES = Rol.values();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public ExportacionUsuariosServiceImp(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                                         @Value("${usuarios.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Escribe todos los usuarios en la salida. La transacción es necesaria para
+     * que el driver de PostgreSQL respete el fetch size (con autocommit carga
+     * el resultado completo).
+     *
+     * @return número de usuarios exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportar(OutputStream salida, FormatoExportacion formato) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        JsonGenerator json = null;
+        if (formato == FormatoExportacion.CSV) {
+            escritor.write(ENCABEZADO_CSV);
+            escritor.write('\n');
+        } else {
+            json = objectMapper.getFactory().createGenerator(escritor);
+            json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            json.setRootValueSeparator(null);    // el separador es el salto de línea de cada fila
+        }
+        Escritura escritura = new Escritura(escritor, json);
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SQL_EXPORTAR,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, escritura::escribir);
+        } catch (UncheckedIOException e) {
+            // El cliente cerró la conexión o falló la escritura
+            throw e.getCause();
+        }
+        escritura.vaciar();
+        log.info("Exportación de usuarios terminada: {} filas en {}", escritura.filas, formato);
+        return escritura.filas;
+    }
+
+    /**
+     * Escribe cada fila del cursor en la salida
+     */
+    private final class Escritura {
+        private final Writer escritor;
+        private final JsonGenerator json;
+        long filas;
+
+        Escritura(Writer escritor, JsonGenerator json) {
+            this.escritor = escritor;
+            this.json = json;
+        }
+
+        void escribir(ResultSet rs) throws SQLException {
+            String usuario = rs.getString(1);
+            String correo = rs.getString(2);
+            String numeroTelefono = rs.getString(3);
+            String rol = ROLES[rs.getInt(4)].name();
+            try {
+                if (json != null) {
+                    json.writeStartObject();
+                    json.writeStringField("usuario", usuario);
+                    json.writeStringField("correo", correo);
+                    json.writeStringField("numeroTelefono", numeroTelefono);
+                    json.writeStringField("rol", rol);
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                } else {
+                    escritor.write(campoCsv(usuario));
+                    escritor.write(',');
+                    escritor.write(campoCsv(correo));
+                    escritor.write(',');
+                    escritor.write(campoCsv(numeroTelefono));
+                    escritor.write(',');
+                    escritor.write(rol);
+                    escritor.write('\n');
+                }
+                if (++filas == 1 || filas % fetchSize == 0) {
+                    vaciar();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Envía lo escrito al cliente; el generador JSON también vacía el escritor
+         */
+        void vaciar() throws IOException {
+            if (json != null) {
+                json.flush();
+            } else {
+                escritor.flush();
+            }
+        }
+    }
+
+    /**
+     * Escapa un campo CSV (RFC 4180) solo cuando lo necesita
+     */
+    static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + valor.replace("\"", "\"\"") + '"';
+            }
+        }
+        return valor;
+    }
+}
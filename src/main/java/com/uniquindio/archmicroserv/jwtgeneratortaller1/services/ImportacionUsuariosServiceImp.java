@@ -0,0 +1,308 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.HashClaves;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.DatosUsuario;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.EventoDominio;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.ResultadoImportacionDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.ResultadoImportacionDTO.FilaRechazada;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging.OutboxEventos;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.Rol;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.TipoAccion;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Importación masiva de usuarios desde NDJSON o CSV.
+ * La entrada se lee línea a línea (nunca se carga completa en memoria) y los
+ * usuarios se insertan en lotes JDBC con el mismo INSERT ... ON CONFLICT
+ * (usuario) DO NOTHING del registro individual: el conteo por fila indica si
+ * se creó o si ya existía. Se usa batch en lugar de COPY porque COPY no admite
+ * ON CONFLICT ni reporta el resultado por fila. Los eventos de registro de cada lote se
+ * publican juntos. Las claves se hashean siempre, salvo que la petición declare
+ * que ya vienen como hashes BCrypt; en ese caso cada una debe tener el formato
+ * BCrypt completo o la fila se rechaza. El detalle de filas rechazadas se
+ * limita a usuarios.bulk.max-rechazadas; los contadores cubren todas.
+ */
+@Slf4j
+@Service
+public class ImportacionUsuariosServiceImp {
+
+    static final String SQL_INSERTAR = "INSERT INTO usuarios (usuario, correo, clave, numero_telefono, rol) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (usuario) DO NOTHING";
+
+    static final String MSG_YA_EXISTE = "El usuario ya existe";
+
+    static final String MSG_HASH_INVALIDO = "clave no es un hash BCrypt válido";
+
+    /**
+     * Formatos de entrada soportados
+     */
+    public enum FormatoImportacion {
+        NDJSON,     // un objeto JSON de DatosUsuario por línea
+        CSV         // encabezado con usuario,correo,clave,numeroTelefono en cualquier orden
+    }
+
+    private static final List<String> COLUMNAS_CSV = List.of("usuario", "correo", "clave", "numeroTelefono");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HashClaves hashClaves;
+    private final OutboxEventos eventos;
+    private final TransactionOperations transacciones;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int tamanoLote;
+    private final int maxFilas;
+    private final int maxRechazadas;
+
+    public ImportacionUsuariosServiceImp(JdbcTemplate jdbcTemplate, HashClaves hashClaves,
+                                         OutboxEventos eventos, TransactionOperations transacciones,
+                                         ObjectMapper objectMapper,
+                                         Validator validator,
+                                         @Value("${usuarios.bulk.tamano-lote:500}") int tamanoLote,
+                                         @Value("${usuarios.bulk.max-filas:100000}") int maxFilas,
+                                         @Value("${usuarios.bulk.max-rechazadas:1000}") int maxRechazadas) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.hashClaves = hashClaves;
+        this.eventos = eventos;
+        this.transacciones = transacciones;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.tamanoLote = tamanoLote;
+        this.maxFilas = maxFilas;
+        this.maxRechazadas = maxRechazadas;
+    }
+
+    /**
+     * Fila válida pendiente de insertar
+     */
+    private record Fila(int linea, DatosUsuario datos) {
+    }
+
+    /**
+     * Acumula el resultado mientras se procesa la entrada
+     */
+    private static final class Acumulado {
+        int procesadas;
+        int creados;
+        int conflictos;
+        int invalidas;
+        boolean truncado;
+        boolean rechazadasTruncadas;
+        final List<FilaRechazada> rechazadas = new ArrayList<>();
+    }
+
+    /**
+     * @param clavesHasheadas true si las claves ya son hashes BCrypt (migración
+     *                        desde otro sistema) y deben guardarse tal cual
+     */
+    public ResultadoImportacionDTO importar(Reader entrada, FormatoImportacion formato, boolean clavesHasheadas)
+            throws IOException {
+        BufferedReader lector = entrada instanceof BufferedReader br ? br : new BufferedReader(entrada);
+        Acumulado acumulado = new Acumulado();
+        List<Fila> lote = new ArrayList<>(tamanoLote);
+        Map<String, Integer> columnas = null;
+        String linea;
+        int numero = 0;
+        while ((linea = lector.readLine()) != null) {
+            numero++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            if (formato == FormatoImportacion.CSV && columnas == null) {
+                columnas = leerEncabezado(linea);
+                continue;
+            }
+            if (acumulado.procesadas == maxFilas) {
+                acumulado.truncado = true;
+                break;
+            }
+            acumulado.procesadas++;
+            DatosUsuario datos;
+            try {
+                datos = formato == FormatoImportacion.CSV ? leerCsv(linea, columnas) : leerJson(linea);
+            } catch (IllegalArgumentException e) {
+                rechazar(acumulado, numero, null, e.getMessage());
+                continue;
+            }
+            String invalido = validar(datos);
+            if (invalido == null && clavesHasheadas && !HashClaves.esHashBcrypt(datos.getClave())) {
+                invalido = MSG_HASH_INVALIDO;
+            }
+            if (invalido != null) {
+                rechazar(acumulado, numero, datos.getUsuario(), invalido);
+                continue;
+            }
+            lote.add(new Fila(numero, datos));
+            if (lote.size() == tamanoLote) {
+                insertarLote(lote, clavesHasheadas, acumulado);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            insertarLote(lote, clavesHasheadas, acumulado);
+        }
+        log.info("Importación terminada: {} filas, {} creados, {} conflictos, {} inválidas",
+                acumulado.procesadas, acumulado.creados, acumulado.conflictos, acumulado.invalidas);
+        return new ResultadoImportacionDTO(acumulado.procesadas, acumulado.creados, acumulado.conflictos,
+                acumulado.invalidas, acumulado.truncado, acumulado.rechazadas, acumulado.rechazadasTruncadas);
+    }
+
+    /**
+     * Inserta el lote en un solo batch JDBC y publica los eventos de los creados
+     * en la misma transacción
+     */
+    private void insertarLote(List<Fila> lote, boolean clavesHasheadas, Acumulado acumulado) {
+        List<String> claves = lote.stream().map(fila -> fila.datos().getClave()).toList();
+        List<String> hashes = clavesHasheadas ? claves : hashClaves.hashearLote(claves);
+        int rolCliente = Rol.CLIENTE.ordinal();
+        List<Object[]> argumentos = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            DatosUsuario datos = lote.get(i).datos();
+            argumentos.add(new Object[]{datos.getUsuario(), datos.getCorreo(), hashes.get(i),
+                    datos.getNumeroTelefono(), rolCliente});
+        }
+        // Las filas y sus eventos se confirman juntos (outbox)
+        transacciones.executeWithoutResult(estado -> {
+            int[] filasAfectadas = jdbcTemplate.batchUpdate(SQL_INSERTAR, argumentos);
+            for (int filas : filasAfectadas) {
+                if (filas == Statement.SUCCESS_NO_INFO) {
+                    // Driver con reWriteBatchedInserts: sin el conteo por fila un conflicto
+                    // se contaría como creado y publicaría un registro falso
+                    IllegalStateException error = new IllegalStateException("El driver no informa el resultado "
+                            + "por fila del batch; desactive reWriteBatchedInserts en la URL de la base de datos");
+                    log.error("Importación abortada: {}", error.getMessage());
+                    throw error;
+                }
+            }
+
+            List<EventoDominio> creados = new ArrayList<>(lote.size());
+            for (int i = 0; i < lote.size(); i++) {
+                Fila fila = lote.get(i);
+                if (filasAfectadas[i] > 0) {
+                    acumulado.creados++;
+                    creados.add(EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of(
+                            "usuario", fila.datos().getUsuario(),
+                            "correo", fila.datos().getCorreo(),
+                            "numeroTelefono", fila.datos().getNumeroTelefono())));
+                } else {
+                    acumulado.conflictos++;
+                    agregarRechazada(acumulado, new FilaRechazada(fila.linea(), fila.datos().getUsuario(),
+                            MSG_YA_EXISTE));
+                }
+            }
+            eventos.publicarLote(creados);
+        });
+    }
+
+    private void rechazar(Acumulado acumulado, int linea, String usuario, String motivo) {
+        acumulado.invalidas++;
+        agregarRechazada(acumulado, new FilaRechazada(linea, usuario, motivo));
+    }
+
+    /**
+     * La respuesta no crece con el archivo: pasado el máximo solo se marca el truncado
+     */
+    private void agregarRechazada(Acumulado acumulado, FilaRechazada fila) {
+        if (acumulado.rechazadas.size() < maxRechazadas) {
+            acumulado.rechazadas.add(fila);
+        } else {
+            acumulado.rechazadasTruncadas = true;
+        }
+    }
+
+    private String validar(DatosUsuario datos) {
+        Set<ConstraintViolation<DatosUsuario>> violaciones = validator.validate(datos);
+        if (violaciones.isEmpty()) {
+            return null;
+        }
+        return violaciones.stream().map(ConstraintViolation::getMessage).sorted()
+                .reduce((a, b) -> a + ", " + b).orElse(null);
+    }
+
+    private DatosUsuario leerJson(String linea) {
+        try {
+            return objectMapper.readValue(linea, DatosUsuario.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON inválido");
+        }
+    }
+
+    private static Map<String, Integer> leerEncabezado(String linea) {
+        List<String> nombres = dividirCsv(linea);
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < nombres.size(); i++) {
+            columnas.put(nombres.get(i).trim(), i);
+        }
+        if (!columnas.keySet().containsAll(COLUMNAS_CSV)) {
+            throw new IllegalArgumentException("El encabezado CSV debe incluir las columnas " + COLUMNAS_CSV);
+        }
+        return columnas;
+    }
+
+    private static DatosUsuario leerCsv(String linea, Map<String, Integer> columnas) {
+        List<String> valores = dividirCsv(linea);
+        DatosUsuario datos = new DatosUsuario();
+        datos.setUsuario(valor(valores, columnas.get("usuario")));
+        datos.setCorreo(valor(valores, columnas.get("correo")));
+        datos.setClave(valor(valores, columnas.get("clave")));
+        datos.setNumeroTelefono(valor(valores, columnas.get("numeroTelefono")));
+        return datos;
+    }
+
+    private static String valor(List<String> valores, int indice) {
+        return indice < valores.size() ? valores.get(indice).trim() : null;
+    }
+
+    /**
+     * Divide una línea CSV respetando comillas dobles ("" escapa una comilla)
+     */
+    static List<String> dividirCsv(String linea) {
+        List<String> valores = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                valores.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar en la línea CSV");
+        }
+        valores.add(actual.toString());
+        return valores;
+    }
+}
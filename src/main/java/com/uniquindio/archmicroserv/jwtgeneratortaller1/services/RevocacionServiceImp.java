@@ -0,0 +1,132 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.VerifiedToken;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.Revocacion;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories.RevocacionRepo;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Revocaciones compartidas entre instancias. Cada revocación se guarda en la
+ * tabla "revocaciones" y se aplica de inmediato en la lista local; las demás
+ * instancias la copian a su lista (filtro de Bloom) en la siguiente
+ * sincronización. Al arrancar se cargan todas las revocaciones vigentes.
+ */
+@Slf4j
+@Service
+public class RevocacionServiceImp {
+
+    /**
+     * Margen hacia atrás de cada consulta incremental: cubre transacciones que
+     * confirman tarde y diferencias de reloj entre instancias. Volver a aplicar
+     * una revocación no tiene efecto.
+     */
+    private static final Duration SOLAPE = Duration.ofSeconds(60);
+
+    private final RevocacionRepo revocacionRepo;
+    private final JWTUtils jwtUtils;
+    Clock clock = Clock.systemUTC();
+
+    /**
+     * Instante de la última sincronización (null hasta la carga inicial)
+     */
+    private Instant sincronizadoHasta;
+
+    public RevocacionServiceImp(RevocacionRepo revocacionRepo, JWTUtils jwtUtils) {
+        this.revocacionRepo = revocacionRepo;
+        this.jwtUtils = jwtUtils;
+    }
+
+    /**
+     * Carga las revocaciones vigentes al arrancar. Si la base de datos no
+     * responde, la sincronización periódica repite la carga completa.
+     */
+    @PostConstruct
+    public void cargar() {
+        try {
+            sincronizar();
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron cargar las revocaciones al iniciar: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Revoca el token indicado en todas las instancias (cierre de sesión)
+     */
+    public void revocarToken(VerifiedToken token) {
+        Instant vence = jwtUtils.finValidez(token);
+        if (token.jti() == null || vence == null) {
+            return;
+        }
+        revocacionRepo.save(Revocacion.builder()
+                .id(UUID.randomUUID().toString())
+                .jti(token.jti())
+                .vence(vence)
+                .creado(clock.instant())
+                .build());
+        jwtUtils.revocarToken(token.jti(), vence);
+    }
+
+    /**
+     * Revoca en todas las instancias los tokens del usuario emitidos hasta ahora.
+     * La fila vive lo que un token de acceso, no lo que la sesión de refresco.
+     */
+    public void revocarUsuario(String usuario) {
+        Instant corte = clock.instant();
+        Instant vence = corte.plus(jwtUtils.vidaTokens());
+        revocacionRepo.save(Revocacion.builder()
+                .id(UUID.randomUUID().toString())
+                .usuario(usuario)
+                .corte(corte)
+                .vence(vence)
+                .creado(corte)
+                .build());
+        jwtUtils.revocarUsuario(usuario, corte, vence);
+    }
+
+    /**
+     * Copia a la lista local las revocaciones registradas por cualquier instancia
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocacion.sincronizacion-ms:2000}")
+    public synchronized void sincronizar() {
+        Instant ahora = clock.instant();
+        List<Revocacion> nuevas = sincronizadoHasta == null
+                ? revocacionRepo.buscarVigentes(ahora)
+                : revocacionRepo.buscarCreadasDesde(sincronizadoHasta.minus(SOLAPE), ahora);
+        nuevas.forEach(this::aplicar);
+        if (sincronizadoHasta == null) {
+            log.info("Revocaciones vigentes cargadas: {}", nuevas.size());
+        }
+        sincronizadoHasta = ahora;
+    }
+
+    /**
+     * Elimina de la tabla las revocaciones cuyos tokens ya expiraron
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocacion.purga-ms:60000}")
+    public void purgarVencidas() {
+        int eliminadas = revocacionRepo.eliminarVencidas(clock.instant());
+        if (eliminadas > 0) {
+            log.debug("Revocaciones vencidas eliminadas de la tabla: {}", eliminadas);
+        }
+    }
+
+    private void aplicar(Revocacion revocacion) {
+        if (revocacion.getJti() != null) {
+            jwtUtils.revocarToken(revocacion.getJti(), revocacion.getVence());
+        } else {
+            jwtUtils.revocarUsuario(revocacion.getUsuario(), revocacion.getCorte(), revocacion.getVence());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.TokenDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.SesionInvalidaException;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.SesionRefresco;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.UsuarioCredenciales;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories.SesionRefrescoRepo;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories.UsuarioRepo;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sesiones de refresco. El login entrega un token de acceso de vida corta y un
+ * token de refresco opaco; con este último se obtienen tokens nuevos sin
+ * verificar la contraseña ni publicar el evento de autenticación. El correo y
+ * el rol se vuelven a leer del usuario en cada refresco, así un cambio de rol
+ * se refleja en el siguiente token de acceso.
+ * Cada refresco rota el token (un solo uso) y extiende la sesión (ventana
+ * deslizante) sin superar la duración máxima contada desde el login.
+ */
+@Slf4j
+@Service
+public class SesionServiceImp {
+
+    private static final int BYTES_TOKEN = 32;
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final SesionRefrescoRepo sesionRefrescoRepo;
+    private final UsuarioRepo usuarioRepo;
+    private final JWTUtils jwtUtils;
+    private final RevocacionServiceImp revocacionService;
+    private final SecureRandom random = new SecureRandom();
+    Clock clock = Clock.systemDefaultZone();
+
+    @Value("${jwt.refresh.expiration-seconds:604800}")
+    private long expiracionSegundos;
+
+    @Value("${jwt.refresh.max-session-seconds:2592000}")
+    private long duracionMaximaSegundos;
+
+    public SesionServiceImp(SesionRefrescoRepo sesionRefrescoRepo, UsuarioRepo usuarioRepo, JWTUtils jwtUtils,
+                            RevocacionServiceImp revocacionService) {
+        this.sesionRefrescoRepo = sesionRefrescoRepo;
+        this.usuarioRepo = usuarioRepo;
+        this.jwtUtils = jwtUtils;
+        this.revocacionService = revocacionService;
+    }
+
+    /**
+     * Abre una sesión para el usuario autenticado y retorna su token de refresco
+     */
+    public String crearSesion(String usuario) {
+        LocalDateTime ahora = LocalDateTime.now(clock);
+        return guardarSesion(usuario, ahora, ahora);
+    }
+
+    /**
+     * Canjea un token de refresco por un token de acceso nuevo y un token de refresco nuevo.
+     * El token usado queda invalidado; si dos peticiones lo usan a la vez solo una lo consigue.
+     */
+    @Transactional(noRollbackFor = SesionInvalidaException.class)
+    public TokenDTO refrescar(String refreshToken) {
+        String id = hash(refreshToken);
+        SesionRefresco sesion = sesionRefrescoRepo.findById(id)
+                .orElseThrow(() -> new SesionInvalidaException("La sesión no existe o ya fue cerrada"));
+        // El DELETE es el que decide quién consume el token cuando hay carreras
+        if (sesionRefrescoRepo.eliminarPorId(id) == 0) {
+            throw new SesionInvalidaException("La sesión no existe o ya fue cerrada");
+        }
+        LocalDateTime ahora = LocalDateTime.now(clock);
+        if (!sesion.getExpira().isAfter(ahora)) {
+            throw new SesionInvalidaException("La sesión ha expirado");
+        }
+
+        // Correo y rol actuales: un cambio de rol se refleja en el siguiente token
+        UsuarioCredenciales usuario = usuarioRepo.buscarCredenciales(sesion.getUsuario())
+                .orElseThrow(() -> new SesionInvalidaException("El usuario de la sesión ya no existe"));
+
+        String nuevoRefresco = guardarSesion(usuario.usuario(), sesion.getInicioSesion(), ahora);
+        Map<String, Object> claims = Map.of(
+                "usuario", usuario.usuario(),
+                "correo", usuario.correo(),
+                "rol", usuario.rol().getNombre());
+        log.debug("Sesión refrescada para usuario: {}", usuario.usuario());
+        return new TokenDTO(jwtUtils.generarToken(usuario.correo(), claims), nuevoRefresco);
+    }
+
+    /**
+     * Cierra la sesión del token de refresco indicado (logout)
+     */
+    public void cerrarSesion(String refreshToken) {
+        sesionRefrescoRepo.eliminarPorId(hash(refreshToken));
+    }
+
+    /**
+     * Cierra todas las sesiones del usuario y revoca sus tokens de acceso
+     * vigentes en todas las instancias (eliminación o cambio de clave)
+     */
+    public void revocarSesiones(String usuario) {
+        int eliminadas = sesionRefrescoRepo.eliminarPorUsuario(usuario);
+        revocacionService.revocarUsuario(usuario);
+        log.info("Sesiones revocadas para usuario {}: {}", usuario, eliminadas);
+    }
+
+    /**
+     * Elimina periódicamente las sesiones expiradas que nadie volvió a usar
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh.purga-ms:3600000}")
+    public void purgarSesionesExpiradas() {
+        int eliminadas = sesionRefrescoRepo.eliminarExpiradas(LocalDateTime.now(clock));
+        if (eliminadas > 0) {
+            log.info("Sesiones de refresco expiradas eliminadas: {}", eliminadas);
+        }
+    }
+
+    private String guardarSesion(String usuario, LocalDateTime inicio, LocalDateTime ahora) {
+        byte[] bytes = new byte[BYTES_TOKEN];
+        random.nextBytes(bytes);
+        String token = BASE64URL.encodeToString(bytes);
+
+        LocalDateTime expira = ahora.plusSeconds(expiracionSegundos);
+        LocalDateTime limite = inicio.plusSeconds(duracionMaximaSegundos);
+        sesionRefrescoRepo.save(SesionRefresco.builder()
+                .id(hash(token))
+                .usuario(usuario)
+                .inicioSesion(inicio)
+                .expira(expira.isBefore(limite) ? expira : limite)
+                .build());
+        return token;
+    }
+
+    /**
+     * Solo se persiste el SHA-256 del token, nunca el token en claro
+     */
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -1,29 +1,40 @@
 package com.uniquindio.archmicroserv.jwtgeneratortaller1.services;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.BloqueoCuentas;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.Constants;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.HashClaves;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.LimitesTasa;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.LimitesTasa.RutaLimitada;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.CambioClaveDTO;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.DatosUsuario;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.EventoDominio;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.LoginRequest;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.PaginaUsuariosDTO;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.TokenDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.UsuarioResumenDTO;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.UsuarioNotFoundException;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.UsuarioYaExisteException;
-import com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging.EventoPublisher;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging.OutboxEventos;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.CodigoValidacion;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.Usuario;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.UsuarioCredenciales;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.TipoAccion;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories.UsuarioRepo;
 
@@ -39,36 +50,28 @@ public class UsuarioServiceImp {
     private final UsuarioRepo usuarioRepo;
     //private final EmailServiceImp emailService;
     private final JWTUtils jWTUtils;
-    private final EventoPublisher eventoPublisher;
+    private final OutboxEventos eventos;
+    private final SesionServiceImp sesionService;
+    private final LimitesTasa limitesTasa;
+    private final BloqueoCuentas bloqueoCuentas;
+    private final HashClaves hashClaves;
+    private final CacheUsuarios cacheUsuarios;
+    private final TransactionOperations transacciones;
 
 
     public void registrarUsuario(@Valid DatosUsuario datosUsuario) throws Exception {
         log.info("Iniciando registro de usuario: {}", datosUsuario.getUsuario());
         Usuario usuario = Usuario.builder()
                 .usuario(datosUsuario.getUsuario())
-                .clave(datosUsuario.getClave())
                 .correo(datosUsuario.getCorreo())
                 .numeroTelefono(datosUsuario.getNumeroTelefono())
                 .codigoValidacion(new CodigoValidacion())
                 .build();
-        try {
-            if (usuarioRepo.findById(datosUsuario.getUsuario()).isPresent()) {
-                throw new UsuarioYaExisteException("El usuario ya existe");
-            }
-            log.debug("Usuario creado, guardando en base de datos");
-            usuarioRepo.save(usuario);
-            log.info("Usuario guardado exitosamente: {}", usuario.getUsuario());
-        } catch (Exception e) {
-            log.error("Error guardando usuario {}: {}", datosUsuario.getUsuario(), e.getMessage(), e);
-            throw e;
-        }
-
         /*
         Después de regitrar un usuario, el servicio envia el evento de dominio a RabbitMQ
         para publicarlo, y que el microservicio del orquestador puedan reaccionar a este evento.
+        El usuario y el evento se guardan en la misma transacción (outbox).
          */
-
-        //Publicar evento de dominio a RabbitMQ
         EventoDominio evento = EventoDominio.of(
                 TipoAccion.REGISTRO_USUARIO,
                 Map.of("usuario", usuario.getUsuario(),
@@ -77,10 +80,19 @@ public class UsuarioServiceImp {
                 )
         );
         try {
-            eventoPublisher.publicar(evento);
-            log.info("Evento de registro publicado para usuario: {}", usuario.getUsuario());
+            // El hash es costoso: se calcula fuera de la transacción
+            usuario.setClave(hashClaves.hashear(datosUsuario.getClave()));
+            log.debug("Usuario creado, guardando en base de datos");
+            transacciones.executeWithoutResult(estado -> {
+                // Una sola sentencia INSERT ... ON CONFLICT (usuario) DO NOTHING: sin carrera entre consulta y guardado
+                if (!usuarioRepo.crearSiNoExiste(usuario)) {
+                    throw new UsuarioYaExisteException("El usuario ya existe");
+                }
+                eventos.publicar(evento);
+            });
+            log.info("Usuario guardado y evento de registro publicado: {}", usuario.getUsuario());
         } catch (Exception e) {
-            log.error("Error publicando evento para usuario {}: {}", usuario.getUsuario(), e.getMessage(), e);
+            log.error("Error registrando usuario {}: {}", datosUsuario.getUsuario(), e.getMessage(), e);
             throw e;
         }
         log.info("Registro de usuario completado: {}", usuario.getUsuario());
@@ -94,8 +106,7 @@ public class UsuarioServiceImp {
                 if(usuario.getCodigoValidacion().getFechaCreacion().plusMinutes(15).isBefore(LocalDateTime.now())){
                     throw new Exception("El codigo ha expirado");
                 }
-                usuario.setClave(datos.clave());
-                usuarioRepo.save(usuario);
+                usuario.setClave(hashClaves.hashear(datos.clave()));
 
                 /*
                 Se ha creado el evento de dominio para la acción de cambio de clave
@@ -112,7 +123,12 @@ public class UsuarioServiceImp {
                         )
                 );
 
-                eventoPublisher.publicar(evento);
+                transacciones.executeWithoutResult(estado -> {
+                    usuarioRepo.save(usuario);
+                    eventos.publicar(evento);
+                });
+                cacheUsuarios.invalidar(usuario.getUsuario());
+                sesionService.revocarSesiones(usuario.getUsuario());
             } else {
                 throw new Exception("Codigo incorrecto");
             }
@@ -139,8 +155,9 @@ public class UsuarioServiceImp {
         }
         
         // Actualizar clave solo si se proporciona
-        if (datosUsuario.getClave() != null && !datosUsuario.getClave().isBlank()) {
-            usuario.setClave(datosUsuario.getClave());
+        boolean cambioClave = datosUsuario.getClave() != null && !datosUsuario.getClave().isBlank();
+        if (cambioClave) {
+            usuario.setClave(hashClaves.hashear(datosUsuario.getClave()));
         }
         
         // Actualizar número de teléfono solo si se proporciona
@@ -149,6 +166,10 @@ public class UsuarioServiceImp {
         }
         
         usuarioRepo.save(usuario);
+        cacheUsuarios.invalidar(usuario.getUsuario());
+        if (cambioClave) {
+            sesionService.revocarSesiones(usuario.getUsuario());
+        }
     }
 
     /**
@@ -169,6 +190,8 @@ public class UsuarioServiceImp {
     }
 
     public void enviarCodigoRecuperacion(@Valid String nombreUsuario) throws Exception {
+        // Límite por usuario antes de cualquier consulta a la base de datos
+        limitesTasa.verificarUsuario(RutaLimitada.CODIGOS, nombreUsuario);
         try {
             log.info("Iniciando proceso de recuperación de clave para usuario: {}", nombreUsuario);
 
@@ -203,16 +226,6 @@ public class UsuarioServiceImp {
                     throw e;
                 }*/
 
-                try {
-                    // Guardar el usuario con el código de validación actualizado
-                    log.debug("Guardando usuario con código de validación");
-                    usuarioRepo.save(usuario);
-                    log.info("Usuario guardado exitosamente con código de validación");
-                } catch (Exception e) {
-                    log.error("Error al guardar usuario {}: {}", nombreUsuario, e.getMessage(), e);
-                    throw e;
-                }
-
                 EventoDominio evento = EventoDominio.of(
                         TipoAccion.RECUPERAR_PASSWORD,
                         Map.of(
@@ -223,7 +236,19 @@ public class UsuarioServiceImp {
                         )
                 );
 
-                eventoPublisher.publicar(evento);
+                try {
+                    // Guardar el usuario con el código de validación actualizado junto con el evento
+                    log.debug("Guardando usuario con código de validación");
+                    transacciones.executeWithoutResult(estado -> {
+                        usuarioRepo.save(usuario);
+                        eventos.publicar(evento);
+                    });
+                    cacheUsuarios.invalidar(nombreUsuario);
+                    log.info("Usuario guardado exitosamente con código de validación");
+                } catch (Exception e) {
+                    log.error("Error al guardar usuario {}: {}", nombreUsuario, e.getMessage(), e);
+                    throw e;
+                }
                 /*
                 Este es el metodo para enviar el email, pero se ha comentado
                 porque ahora los emails se van a manejar por medio del orquestador
@@ -262,33 +287,69 @@ public class UsuarioServiceImp {
         return listaUsuarios;
     }
 
-    public Usuario obtenerUsuario(String usuario) throws UsuarioNotFoundException {
+    /**
+     * Página de usuarios por cursor: WHERE usuario > cursor ORDER BY usuario LIMIT n.
+     * Se pide una fila de más para saber si existe una página siguiente.
+     *
+     * @param cursor cursor opaco de la página anterior, o null para la primera
+     */
+    public PaginaUsuariosDTO obtenerPaginaUsuarios(String cursor, int limite) {
+        String despues = cursor == null || cursor.isBlank() ? "" : decodificarCursor(cursor);
+        List<UsuarioResumenDTO> usuarios = usuarioRepo.buscarPagina(despues, Limit.of(limite + 1));
+        if (usuarios.size() <= limite) {
+            return new PaginaUsuariosDTO(usuarios, null);
+        }
+        List<UsuarioResumenDTO> pagina = usuarios.subList(0, limite);
+        return new PaginaUsuariosDTO(List.copyOf(pagina), codificarCursor(pagina.get(limite - 1).usuario()));
+    }
+
+    private static String codificarCursor(String usuario) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(usuario.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodificarCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    public UsuarioResumenDTO obtenerUsuario(String usuario) throws UsuarioNotFoundException {
         log.info("Obteniendo usuario: {}", usuario);
-        Optional<Usuario> usuarioEncontrado = usuarioRepo.findById(usuario);
+        Optional<UsuarioCredenciales> usuarioEncontrado = cacheUsuarios.buscar(usuario);
         if (usuarioEncontrado.isEmpty()) {
             log.warn("Usuario no encontrado: {}", usuario);
             throw new UsuarioNotFoundException(Constants.MSG_USUARIO_NO_EXISTENTE);
         }
         log.info("Usuario encontrado exitosamente: {}", usuario);
-        return usuarioEncontrado.get();
+        return usuarioEncontrado.get().perfil();
     }
 
     public boolean existeUsuario(@Valid DatosUsuario request) {
-        Optional<Usuario> usuario = usuarioRepo.findById(request.getUsuario());
-        return usuario.isPresent() && usuario.get().getCorreo().equals(request.getCorreo()) &&
-                usuario.get().getClave().equals(request.getClave());
+        Optional<UsuarioCredenciales> usuario = cacheUsuarios.buscar(request.getUsuario());
+        return usuario.isPresent() && usuario.get().correo().equals(request.getCorreo()) &&
+                hashClaves.verificar(request.getClave(), usuario.get().clave());
     }
 
     public TokenDTO login(LoginRequest datos) throws Exception {
-        Optional<Usuario> usuarioEncontrado = usuarioRepo.findById(datos.getUsuario());
+        // Límite por usuario antes de cualquier consulta a la base de datos
+        limitesTasa.verificarUsuario(RutaLimitada.SESIONES, datos.getUsuario());
+        // Una cuenta bloqueada se rechaza sin consultar el repositorio
+        bloqueoCuentas.verificar(datos.getUsuario());
+        Optional<UsuarioCredenciales> usuarioEncontrado = cacheUsuarios.buscar(datos.getUsuario());
         if (usuarioEncontrado.isEmpty()) {
+            // También se cuentan los usuarios inexistentes para no distinguirlos por el bloqueo
+            bloqueoCuentas.registrarFallo(datos.getUsuario());
             throw new Exception("Usuario no encontrado");
         }
-        Usuario usuario = usuarioEncontrado.get();
-        // TODO encriptar contrasena
-        if (!datos.getClave().equals(usuario.getClave())) {
+        UsuarioCredenciales usuario = usuarioEncontrado.get();
+        if (!hashClaves.verificar(datos.getClave(), usuario.clave())) {
+            bloqueoCuentas.registrarFallo(datos.getUsuario());
             throw new Exception("Contrasena invalida");
         }
+        bloqueoCuentas.registrarExito(datos.getUsuario());
+        actualizarHashSiEsNecesario(usuario, datos.getClave());
         Map<String, Object> map = buildClaims(usuario);
 
         /*
@@ -299,30 +360,53 @@ public class UsuarioServiceImp {
         EventoDominio evento = EventoDominio.of(
                 TipoAccion.AUTENTICACION,
                 Map.of(
-                        "usuario", usuario.getUsuario(),
-                        "correo", usuario.getCorreo(),
+                        "usuario", usuario.usuario(),
+                        "correo", usuario.correo(),
                         "fecha", LocalDateTime.now().minusHours(5).toString(),
-                        "numeroTelefono", usuario.getNumeroTelefono()
+                        "numeroTelefono", usuario.numeroTelefono()
                 )
         );
 
-        eventoPublisher.publicar(evento);
-        return new TokenDTO(jWTUtils.generarToken(usuario.getCorreo(), map));
+        // Sin transacción: va directo al publisher aunque el outbox esté habilitado
+        eventos.publicar(evento);
+        return new TokenDTO(jWTUtils.generarToken(usuario.correo(), map),
+                sesionService.crearSesion(usuario.usuario()));
+    }
+
+    /**
+     * Recalcula el hash con los parámetros actuales (costo distinto o clave
+     * heredada en texto plano). Un error aquí no impide el login.
+     */
+    private void actualizarHashSiEsNecesario(UsuarioCredenciales usuario, String clave) {
+        if (!hashClaves.necesitaRehash(usuario.clave())) {
+            return;
+        }
+        try {
+            // UPDATE de una sola columna: la proyección no es una entidad que se pueda guardar
+            usuarioRepo.actualizarClave(usuario.usuario(), hashClaves.hashear(clave));
+            log.info("Hash de clave actualizado para usuario: {}", usuario.usuario());
+        } catch (Exception e) {
+            log.warn("No se pudo actualizar el hash de clave de {}: {}", usuario.usuario(), e.getMessage());
+        } finally {
+            cacheUsuarios.invalidar(usuario.usuario());
+        }
     }
 
-    private Map<String, Object> buildClaims(Usuario usuario) {
+    private Map<String, Object> buildClaims(UsuarioCredenciales usuario) {
         log.debug("Construyendo claims para usuario: {}, correo: {}, rol: {}", 
-            usuario.getUsuario(), usuario.getCorreo(), usuario.getRol());
+            usuario.usuario(), usuario.correo(), usuario.rol());
         return Map.of(
-                "usuario", usuario.getUsuario(),
-                "correo", usuario.getCorreo(),
-                "rol", usuario.getRol());
+                "usuario", usuario.usuario(),
+                "correo", usuario.correo(),
+                "rol", usuario.rol().getNombre());
     }
 
     public void eliminarUsuario(String usuario) throws UsuarioNotFoundException {
         Optional<Usuario> usuarioEncontrado = usuarioRepo.findById(usuario);
         if (usuarioEncontrado.isPresent()) {
             usuarioRepo.delete(usuarioEncontrado.get());
+            cacheUsuarios.invalidar(usuario);
+            sesionService.revocarSesiones(usuario);
         } else {
             throw new UsuarioNotFoundException("Usuario no encontrado");
         }
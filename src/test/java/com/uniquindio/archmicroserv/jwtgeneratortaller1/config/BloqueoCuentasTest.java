@@ -0,0 +1,103 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.CuentaBloqueadaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests unitarios para BloqueoCuentas")
+class BloqueoCuentasTest {
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final Ticker reloj = nanos::get;
+    private BloqueoCuentas bloqueo;
+
+    @BeforeEach
+    void setUp() {
+        // 3 fallos en 10 minutos bloquean la cuenta 5 minutos
+        bloqueo = new BloqueoCuentas(true, 3, Duration.ofMinutes(10), Duration.ofMinutes(5), 1000, reloj);
+    }
+
+    private void avanzar(Duration duracion) {
+        nanos.addAndGet(duracion.toNanos());
+    }
+
+    @Test
+    @DisplayName("Bloquea la cuenta al llegar al máximo de fallos e indica cuánto esperar")
+    void testBloqueoTrasMaximoDeFallos() {
+        assertFalse(bloqueo.registrarFallo("juan"));
+        assertFalse(bloqueo.registrarFallo("juan"));
+        assertDoesNotThrow(() -> bloqueo.verificar("juan"));
+
+        assertTrue(bloqueo.registrarFallo("juan"));
+
+        CuentaBloqueadaException exception = assertThrows(CuentaBloqueadaException.class,
+                () -> bloqueo.verificar("juan"));
+        assertEquals(300, exception.getSegundosEspera());
+        assertDoesNotThrow(() -> bloqueo.verificar("maria"));
+    }
+
+    @Test
+    @DisplayName("El bloqueo vence y los fallos se cuentan de nuevo desde cero")
+    void testBloqueoVence() {
+        for (int i = 0; i < 3; i++) {
+            bloqueo.registrarFallo("juan");
+        }
+        avanzar(Duration.ofMinutes(5));
+
+        assertDoesNotThrow(() -> bloqueo.verificar("juan"));
+        assertFalse(bloqueo.registrarFallo("juan"));
+    }
+
+    @Test
+    @DisplayName("Los fallos fuera de la ventana deslizante dejan de contar")
+    void testVentanaDeslizante() {
+        bloqueo.registrarFallo("juan");
+        bloqueo.registrarFallo("juan");
+        avanzar(Duration.ofMinutes(25));
+
+        assertFalse(bloqueo.registrarFallo("juan"));
+        assertDoesNotThrow(() -> bloqueo.verificar("juan"));
+    }
+
+    @Test
+    @DisplayName("Un login exitoso olvida los fallos")
+    void testExitoReiniciaFallos() {
+        bloqueo.registrarFallo("juan");
+        bloqueo.registrarFallo("juan");
+        bloqueo.registrarExito("juan");
+
+        assertFalse(bloqueo.registrarFallo("juan"));
+        assertEquals(1, bloqueo.cuentasSeguidas());
+    }
+
+    @Test
+    @DisplayName("Las cuentas inactivas se desalojan y las métricas se registran")
+    void testDesalojoYMetricas() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        bloqueo.bindTo(registry);
+        for (int i = 0; i < 3; i++) {
+            bloqueo.registrarFallo("juan");
+        }
+        assertThrows(CuentaBloqueadaException.class, () -> bloqueo.verificar("juan"));
+
+        assertEquals(3, registry.get("login.fallos").functionCounter().count());
+        assertEquals(1, registry.get("login.bloqueos").functionCounter().count());
+        assertEquals(1, registry.get("login.rechazos").functionCounter().count());
+
+        avanzar(Duration.ofMinutes(21));
+        assertEquals(0, bloqueo.cuentasSeguidas());
+    }
+}
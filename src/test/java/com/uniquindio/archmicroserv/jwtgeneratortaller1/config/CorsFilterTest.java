@@ -0,0 +1,99 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para CorsFilter")
+class CorsFilterTest {
+
+    @Mock
+    private FilterChain filterChain;
+
+    private CorsFilter corsFilter;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        corsFilter = new CorsFilter("https://app.uniquindio.edu.co, https://admin.uniquindio.edu.co", 7200);
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    @DisplayName("Preflight de un origen permitido se responde sin llegar a la aplicación")
+    void testPreflightPermitido() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/v1/usuarios/testuser");
+        request.addHeader("Origin", "https://app.uniquindio.edu.co");
+        request.addHeader("Access-Control-Request-Method", "PATCH");
+
+        // Act
+        corsFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(204, response.getStatus());
+        assertEquals("https://app.uniquindio.edu.co", response.getHeader("Access-Control-Allow-Origin"));
+        assertEquals("7200", response.getHeader("Access-Control-Max-Age"));
+        assertEquals("Origin", response.getHeader("Vary"));
+        verify(filterChain, never()).doFilter(request, response);
+    }
+
+    @Test
+    @DisplayName("Preflight de un origen no permitido es rechazado")
+    void testPreflightNoPermitido() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/v1/sesiones");
+        request.addHeader("Origin", "https://otro.com");
+        request.addHeader("Access-Control-Request-Method", "POST");
+
+        // Act
+        corsFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(403, response.getStatus());
+        assertNull(response.getHeader("Access-Control-Allow-Origin"));
+    }
+
+    @Test
+    @DisplayName("Petición sin Origin no lleva cabeceras CORS")
+    void testPeticionSinOrigin() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/health");
+
+        // Act
+        corsFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+        assertNull(response.getHeader("Access-Control-Allow-Origin"));
+    }
+
+    @Test
+    @DisplayName("Con \"*\" se permite cualquier origen")
+    void testCualquierOrigen() throws Exception {
+        // Arrange
+        corsFilter = new CorsFilter("*", 86400);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/sesiones");
+        request.addHeader("Origin", "https://otro.com");
+
+        // Act
+        corsFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+        assertEquals("*", response.getHeader("Access-Control-Allow-Origin"));
+        assertNull(response.getHeader("Vary"));
+    }
+}
@@ -0,0 +1,117 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.LimiteExcedidoException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests unitarios para HashClaves")
+class HashClavesTest {
+
+    private HashClaves hashClaves;
+
+    @BeforeEach
+    void setUp() {
+        // Costo mínimo de BCrypt para que las pruebas sean rápidas
+        hashClaves = new HashClaves(4, 4, 250, 2, 1, 4, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashClaves.cerrar();
+    }
+
+    @Test
+    @DisplayName("Hashea y verifica la clave")
+    void testHashearYVerificar() {
+        String hash = hashClaves.hashear("password123");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertNotEquals(hash, hashClaves.hashear("password123"));
+        assertTrue(hashClaves.verificar("password123", hash));
+        assertFalse(hashClaves.verificar("otra", hash));
+        assertFalse(hashClaves.verificar(null, hash));
+    }
+
+    @Test
+    @DisplayName("Hashea un lote en orden, incluso los valores que parecen hashes")
+    void testHashearLote() {
+        List<String> claves = List.of("uno", "$2clave", "dos", "tres", "cuatro");
+
+        List<String> hashes = hashClaves.hashearLote(claves);
+
+        assertEquals(5, hashes.size());
+        assertTrue(hashClaves.verificar("uno", hashes.get(0)));
+        assertTrue(hashClaves.verificar("$2clave", hashes.get(1)));
+        assertTrue(hashClaves.verificar("dos", hashes.get(2)));
+        assertTrue(hashClaves.verificar("tres", hashes.get(3)));
+        assertTrue(hashClaves.verificar("cuatro", hashes.get(4)));
+    }
+
+    @Test
+    @DisplayName("Acepta claves heredadas en texto plano y las marca para rehash")
+    void testClavesHeredadas() {
+        assertTrue(hashClaves.verificar("password123", "password123"));
+        assertFalse(hashClaves.verificar("password", "password123"));
+        assertTrue(hashClaves.necesitaRehash("password123"));
+    }
+
+    @Test
+    @DisplayName("Reconoce solo hashes BCrypt completos")
+    void testEsHashBcrypt() {
+        assertTrue(HashClaves.esHashBcrypt(hashClaves.hashear("password123")));
+        assertTrue(HashClaves.esHashBcrypt("$2y$12$" + "a".repeat(53)));
+        assertFalse(HashClaves.esHashBcrypt("$2mi-clave-real"));
+        assertFalse(HashClaves.esHashBcrypt("$2a$10$corto"));
+        assertFalse(HashClaves.esHashBcrypt("$2x$10$" + "a".repeat(53)));
+        assertFalse(HashClaves.esHashBcrypt(null));
+    }
+
+    @Test
+    @DisplayName("Marca para rehash solo los hashes con un costo menor")
+    void testNecesitaRehash() {
+        HashClaves costoMayor = new HashClaves(5, 4, 250, 1, 1, 1, 5000);
+        assertFalse(hashClaves.necesitaRehash(hashClaves.hashear("password123")));
+        assertFalse(hashClaves.necesitaRehash(costoMayor.hashear("password123")));
+        assertTrue(costoMayor.necesitaRehash(hashClaves.hashear("password123")));
+        assertTrue(hashClaves.necesitaRehash("$2a$xx$roto"));
+    }
+
+    @Test
+    @DisplayName("Sin hash.hilos el pool usa la mitad de los núcleos")
+    void testHilosPorDefecto() {
+        assertEquals(1, HashClaves.hilosPorDefecto(1));
+        assertEquals(1, HashClaves.hilosPorDefecto(2));
+        assertEquals(4, HashClaves.hilosPorDefecto(8));
+    }
+
+    @Test
+    @DisplayName("La calibración respeta el costo mínimo y el máximo")
+    void testCalibrar() {
+        assertEquals(4, HashClaves.calibrar(4, 0));
+        assertEquals(16, HashClaves.calibrar(4, Long.MAX_VALUE / 1_000_000));
+    }
+
+    @Test
+    @DisplayName("Rechaza la petición cuando el hash no termina a tiempo")
+    void testTimeout() {
+        // Un hash de costo 10 tarda bastante más que el timeout de 1 ms
+        HashClaves lento = new HashClaves(10, 4, 250, 1, 1, 1, 1);
+        try {
+            LimiteExcedidoException exception = assertThrows(LimiteExcedidoException.class,
+                    () -> lento.hashear("password123"));
+            assertEquals(HashClaves.MENSAJE_OCUPADO, exception.getMessage());
+        } finally {
+            lento.cerrar();
+        }
+    }
+}
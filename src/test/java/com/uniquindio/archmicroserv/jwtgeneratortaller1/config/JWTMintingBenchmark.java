@@ -0,0 +1,67 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Micro-benchmark de la emisión de tokens: builder de jjwt contra la ruta
+ * rápida de EmisorTokenHmac. Reporta tokens por segundo y, con el perfil "gc",
+ * los bytes asignados por token (gc.alloc.rate.norm).
+ *
+ * Se ejecuta igual que JWTParserBenchmark, con el classpath de pruebas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class JWTMintingBenchmark {
+
+    @Param({"false", "true"})
+    private boolean emisionRapida;
+
+    private JWTUtils jwtUtils;
+    private Map<String, Object> claims;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JWTUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", "mySecretKeyForTestingPurposesOnly12345678901234567890");
+        ReflectionTestUtils.setField(jwtUtils, "issuer", "ingesis.uniquindio.edu.co");
+        ReflectionTestUtils.setField(jwtUtils, "accessExpirationSeconds", 3600L);
+        ReflectionTestUtils.setField(jwtUtils, "emisionRapida", emisionRapida);
+        jwtUtils.init();
+        claims = Map.of("usuario", "juan", "correo", "juan@example.com", "rol", "CLIENTE");
+    }
+
+    @Benchmark
+    public String generarToken() {
+        return jwtUtils.generarToken("juan@example.com", claims);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JWTMintingBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
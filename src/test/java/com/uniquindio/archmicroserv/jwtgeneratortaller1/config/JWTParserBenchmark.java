@@ -0,0 +1,78 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Micro-benchmark de la verificación de tokens: parser construido en cada llamada
+ * (comportamiento anterior) contra el parser compartido que construye JWTUtils.init().
+ *
+ * Ejecutar después de "mvn test-compile" con el classpath de pruebas, por ejemplo:
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *   com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTParserBenchmark
+ * El perfil "gc" reporta los bytes asignados por operación (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTParserBenchmark {
+
+    private static final String SECRET = "mySecretKeyForTestingPurposesOnly12345678901234567890";
+
+    private SecretKey key;
+    private JWTUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        jwtUtils = new JWTUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "issuer", "benchmark-issuer");
+        ReflectionTestUtils.setField(jwtUtils, "accessExpirationSeconds", 3600L);
+        jwtUtils.init();
+        token = jwtUtils.generarToken("bench@email.com",
+                Map.of("usuario", "bench", "correo", "bench@email.com", "rol", "CLIENTE"));
+    }
+
+    @Benchmark
+    public Claims parserPorLlamada() {
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public VerifiedToken parserCompartido() {
+        return jwtUtils.verificarToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JWTParserBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
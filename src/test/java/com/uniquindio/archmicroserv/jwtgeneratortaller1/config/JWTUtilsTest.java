@@ -1,5 +1,6 @@
 package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
 
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.TokenRevocadoException;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.Rol;
 import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,6 +8,10 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -14,6 +19,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("Tests unitarios para JWTUtils")
@@ -23,7 +30,7 @@ class JWTUtilsTest {
     private String validToken;
     private final String testSecret = "mySecretKeyForTestingPurposesOnly12345678901234567890";
     private final String testIssuer = "test-issuer";
-    private final int testExpirationHours = 1;
+    private final long testAccessExpirationSeconds = 900L;
 
     @BeforeEach
     void setUp() {
@@ -32,7 +39,7 @@ class JWTUtilsTest {
         // Usar ReflectionTestUtils para setear los valores privados
         ReflectionTestUtils.setField(jwtUtils, "secret", testSecret);
         ReflectionTestUtils.setField(jwtUtils, "issuer", testIssuer);
-        ReflectionTestUtils.setField(jwtUtils, "expirationHours", testExpirationHours);
+        ReflectionTestUtils.setField(jwtUtils, "accessExpirationSeconds", testAccessExpirationSeconds);
         
         // Llamar a @PostConstruct manualmente
         jwtUtils.init();
@@ -301,5 +308,268 @@ class JWTUtilsTest {
         assertEquals("ADMIN", jwtUtils.getRol(token1));
         assertEquals("CLIENTE", jwtUtils.getRol(token2));
     }
-}
 
+    @Test
+    @DisplayName("Verificar token extrae todos los claims en una sola pasada")
+    void testVerificarTokenExitoso() {
+        // Act
+        VerifiedToken verificado = jwtUtils.verificarToken("Bearer " + validToken);
+
+        // Assert
+        assertEquals("test@email.com", verificado.subject());
+        assertEquals(testIssuer, verificado.issuer());
+        assertEquals("CLIENTE", verificado.rol());
+        assertEquals("testuser", verificado.usuario());
+        assertNotNull(verificado.exp());
+        assertTrue(verificado.emitidoPor(testIssuer));
+        assertTrue(verificado.tieneRol(Rol.CLIENTE));
+        assertFalse(verificado.tieneRol(Rol.ADMIN));
+        assertTrue(verificado.perteneceA("testuser"));
+        assertFalse(verificado.isExpired(Instant.now()));
+    }
+
+    @Test
+    @DisplayName("Verificar token - token inválido")
+    void testVerificarTokenInvalido() {
+        // Act & Assert
+        assertThrows(JwtException.class, () -> jwtUtils.verificarToken("token-invalido"));
+    }
+
+    @Test
+    @DisplayName("Cache de tokens verificados evita verificar la firma de nuevo")
+    void testVerificarTokenConCache() {
+        // Arrange
+        ReflectionTestUtils.setField(jwtUtils, "cacheEnabled", true);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", 100L);
+        jwtUtils.init();
+        VerifiedTokenCache cache = (VerifiedTokenCache) ReflectionTestUtils.getField(jwtUtils, "cache");
+
+        // Act
+        VerifiedToken primero = jwtUtils.verificarToken(validToken);
+        VerifiedToken segundo = jwtUtils.verificarToken("Bearer " + validToken);
+
+        // Assert
+        assertSame(primero, segundo);
+        assertNotNull(cache);
+        assertEquals(1, cache.estadisticas().hitCount());
+        assertEquals(1, cache.estadisticas().missCount());
+        assertThrows(JwtException.class, () -> jwtUtils.verificarToken("token-invalido"));
+    }
+
+    @Test
+    @DisplayName("La caché usa el reloj y la tolerancia del parser")
+    void testCacheUsaRelojYTolerancia() {
+        // Arrange: token emitido en el pasado, verificado dentro de la tolerancia
+        Instant emision = Instant.parse("2025-01-10T12:00:00Z");
+        ReflectionTestUtils.setField(jwtUtils, "clock", Clock.fixed(emision, ZoneOffset.UTC));
+        jwtUtils.init();
+        String token = jwtUtils.generarToken("test@email.com", Map.of("usuario", "testuser", "rol", "CLIENTE"));
+        Instant dentroDeTolerancia = emision.plusSeconds(testAccessExpirationSeconds + 10);
+        ReflectionTestUtils.setField(jwtUtils, "clock", Clock.fixed(dentroDeTolerancia, ZoneOffset.UTC));
+        ReflectionTestUtils.setField(jwtUtils, "clockSkewSeconds", 30L);
+        ReflectionTestUtils.setField(jwtUtils, "cacheEnabled", true);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", 100L);
+        jwtUtils.init();
+        VerifiedTokenCache cache = (VerifiedTokenCache) ReflectionTestUtils.getField(jwtUtils, "cache");
+
+        // Act
+        jwtUtils.verificarToken(token);
+        jwtUtils.verificarToken(token);
+
+        // Assert: la segunda verificación sale de la caché
+        assertNotNull(cache);
+        assertEquals(1, cache.estadisticas().hitCount());
+    }
+
+    @Test
+    @DisplayName("Firma asimétrica ES256 publica la clave en el JWKS")
+    void testFirmaAsimetricaES256() {
+        // Arrange
+        ReflectionTestUtils.setField(jwtUtils, "algoritmo", "ES256");
+        ReflectionTestUtils.setField(jwtUtils, "claveEfimera", true);
+        jwtUtils.init();
+        Map<String, Object> claims = Map.of("usuario", "testuser", "rol", "CLIENTE");
+
+        // Act
+        String token = jwtUtils.generarToken("test@email.com", claims);
+        VerifiedToken verificado = jwtUtils.verificarToken(token);
+
+        // Assert
+        assertEquals("testuser", verificado.usuario());
+        assertTrue(jwtUtils.getJwksJson().contains("\"kty\":\"EC\""));
+        assertTrue(jwtUtils.getJwksJson().contains("\"alg\":\"ES256\""));
+        assertFalse(jwtUtils.getJwksJson().contains("\"d\""));
+        assertThrows(JwtException.class, () -> jwtUtils.verificarToken(validToken));
+    }
+
+    @Test
+    @DisplayName("Firma asimétrica sin claves configuradas no arranca salvo en desarrollo")
+    void testFirmaAsimetricaSinClaves() {
+        // Arrange
+        ReflectionTestUtils.setField(jwtUtils, "algoritmo", "ES256");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> jwtUtils.init());
+    }
+
+    @Test
+    @DisplayName("Un kid del llavero con caracteres que requieren escape se rechaza al cargar")
+    void testKidInvalidoEnLlavero() {
+        // Arrange
+        ReflectionTestUtils.setField(jwtUtils, "secretsAdicionales", "k\"2:otraClaveSecretaCompartidaDe32BytesMinimo");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> jwtUtils.init());
+    }
+
+    @Test
+    @DisplayName("Firma asimétrica EdDSA con Ed25519")
+    void testFirmaAsimetricaEdDSA() {
+        // Arrange
+        ReflectionTestUtils.setField(jwtUtils, "algoritmo", "EdDSA");
+        ReflectionTestUtils.setField(jwtUtils, "claveEfimera", true);
+        jwtUtils.init();
+
+        // Act
+        String token = jwtUtils.generarToken("test@email.com", Map.of("usuario", "testuser", "rol", "ADMIN"));
+
+        // Assert
+        assertEquals("ADMIN", jwtUtils.verificarToken(token).rol());
+        assertTrue(jwtUtils.getJwksJson().contains("\"crv\":\"Ed25519\""));
+    }
+
+    @Test
+    @DisplayName("El token de acceso dura jwt.access-expiration-seconds")
+    void testVidaTokenAccesoEnSegundos() {
+        // Act
+        VerifiedToken token = jwtUtils.verificarToken(validToken);
+
+        // Assert
+        assertEquals(testAccessExpirationSeconds, token.exp().getEpochSecond() - token.iat().getEpochSecond());
+    }
+
+    @Test
+    @DisplayName("Modo HMAC publica un JWKS vacío")
+    void testJwksVacioEnModoHmac() {
+        assertEquals("{\"keys\":[]}", jwtUtils.getJwksJson());
+        assertNotNull(jwtUtils.getJwksEtag());
+    }
+
+    @Test
+    @DisplayName("Rotar clave activa una clave del llavero compartido y mantiene los tokens anteriores")
+    void testRotarClaveMantieneTokensAnteriores() {
+        // Arrange
+        String llavero = "k2:otraClaveSecretaCompartidaDe32BytesMinimo";
+        ReflectionTestUtils.setField(jwtUtils, "secretsAdicionales", llavero);
+        jwtUtils.init();
+        String tokenAnterior = jwtUtils.generarToken("test@email.com", Map.of("usuario", "testuser", "rol", "CLIENTE"));
+        JWTUtils otraInstancia = new JWTUtils();
+        ReflectionTestUtils.setField(otraInstancia, "secret", testSecret);
+        ReflectionTestUtils.setField(otraInstancia, "issuer", testIssuer);
+        ReflectionTestUtils.setField(otraInstancia, "accessExpirationSeconds", testAccessExpirationSeconds);
+        ReflectionTestUtils.setField(otraInstancia, "secretsAdicionales", llavero);
+        otraInstancia.init();
+
+        // Act
+        String kidNuevo = jwtUtils.rotarClave("k2");
+        String tokenNuevo = jwtUtils.generarToken("test@email.com", Map.of("usuario", "testuser", "rol", "CLIENTE"));
+
+        // Assert
+        assertEquals("k2", kidNuevo);
+        assertEquals("testuser", jwtUtils.verificarToken(tokenAnterior).usuario());
+        assertEquals("testuser", jwtUtils.verificarToken(tokenNuevo).usuario());
+        assertEquals("testuser", otraInstancia.verificarToken(tokenNuevo).usuario());
+        assertEquals(2, jwtUtils.getKidsVigentes().size());
+        assertTrue(jwtUtils.getKidsVigentes().contains("k2"));
+    }
+
+    @Test
+    @DisplayName("Rotar a un kid fuera del llavero configurado falla")
+    void testRotarClaveDesconocida() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> jwtUtils.rotarClave("no-existe"));
+    }
+
+    @Test
+    @DisplayName("Emisión rápida produce tokens equivalentes a los del builder")
+    void testEmisionRapidaEquivalenteAlBuilder() {
+        // Arrange
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("usuario", "josé \"el\" 😀");
+        claims.put("correo", "test@email.com");
+        claims.put("rol", "CLIENTE");
+        String tokenBuilder = jwtUtils.generarToken("test@email.com", claims);
+        ReflectionTestUtils.setField(jwtUtils, "emisionRapida", true);
+
+        // Act
+        String tokenRapido = jwtUtils.generarToken("test@email.com", claims);
+
+        // Assert
+        VerifiedToken esperado = jwtUtils.verificarToken(tokenBuilder);
+        VerifiedToken obtenido = jwtUtils.verificarToken(tokenRapido);
+        assertNotNull(ReflectionTestUtils.getField(jwtUtils, "emisorRapido"));
+        assertEquals(tokenBuilder.substring(0, tokenBuilder.indexOf('.')).length(),
+                tokenRapido.substring(0, tokenRapido.indexOf('.')).length());
+        assertEquals(esperado.subject(), obtenido.subject());
+        assertEquals(esperado.issuer(), obtenido.issuer());
+        assertEquals("josé \"el\" 😀", obtenido.usuario());
+        assertEquals(esperado.rol(), obtenido.rol());
+        assertEquals(esperado.exp(), obtenido.exp());
+        assertNotNull(obtenido.jti());
+        assertNotEquals(esperado.jti(), obtenido.jti());
+    }
+
+    @Test
+    @DisplayName("Los números no finitos o sin literal JSON seguro van por el builder")
+    void testEmisionRapidaNumerosNoFinitos() {
+        // Arrange
+        ReflectionTestUtils.setField(jwtUtils, "emisionRapida", true);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("usuario", "testuser");
+        claims.put("rol", "CLIENTE");
+        claims.put("puntaje", Double.NaN);
+
+        // Act
+        String token = jwtUtils.generarToken("test@email.com", claims);
+
+        // Assert: el payload sigue siendo JSON válido y el token verifica
+        assertEquals("testuser", jwtUtils.verificarToken(token).usuario());
+        assertFalse(EmisorTokenHmac.soporta(Map.of("x", Double.POSITIVE_INFINITY)));
+        assertFalse(EmisorTokenHmac.soporta(Map.of("x", Float.NaN)));
+        assertFalse(EmisorTokenHmac.soporta(Map.of("x", new BigDecimal("1.5"))));
+        assertTrue(EmisorTokenHmac.soporta(Map.of("x", 42L, "y", 1.5, "z", true)));
+    }
+
+    @Test
+    @DisplayName("Un token revocado deja de verificar, incluso desde la caché")
+    void testRevocarToken() {
+        // Arrange
+        ReflectionTestUtils.setField(jwtUtils, "cacheEnabled", true);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", 100L);
+        jwtUtils.init();
+        String otroToken = jwtUtils.generarToken("test@email.com", Map.of("usuario", "testuser", "rol", "CLIENTE"));
+        VerifiedToken verificado = jwtUtils.verificarToken(validToken);
+
+        // Act
+        jwtUtils.revocarToken(verificado.jti(), jwtUtils.finValidez(verificado));
+
+        // Assert
+        assertThrows(TokenRevocadoException.class, () -> jwtUtils.verificarToken(validToken));
+        assertEquals("testuser", jwtUtils.verificarToken(otroToken).usuario());
+        assertTrue(jwtUtils.isTokenExpired(validToken));
+    }
+
+    @Test
+    @DisplayName("Revocar un usuario invalida los tokens que tenía emitidos")
+    void testRevocarUsuario() {
+        // Arrange
+        String tokenOtroUsuario = jwtUtils.generarToken("otro@email.com", Map.of("usuario", "otro", "rol", "CLIENTE"));
+
+        // Act
+        jwtUtils.revocarUsuario("testuser", Instant.now(), Instant.now().plus(jwtUtils.vidaTokens()));
+
+        // Assert
+        assertThrows(TokenRevocadoException.class, () -> jwtUtils.verificarToken(validToken));
+        assertEquals("otro", jwtUtils.verificarToken(tokenOtroUsuario).usuario());
+    }
+}
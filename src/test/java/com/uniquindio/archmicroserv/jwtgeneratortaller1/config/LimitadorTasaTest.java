@@ -0,0 +1,71 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests unitarios para LimitadorTasa")
+class LimitadorTasaTest {
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final Ticker reloj = nanos::get;
+    private LimitadorTasa limitador;
+
+    @BeforeEach
+    void setUp() {
+        // 5 peticiones por minuto: un token cada 12 segundos
+        limitador = new LimitadorTasa(5, Duration.ofMinutes(1), 1000, reloj);
+    }
+
+    @Test
+    @DisplayName("Permite la ráfaga completa y luego indica cuánto esperar")
+    void testRafagaYEspera() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limitador.intentar("10.0.0.1"));
+        }
+        long espera = limitador.intentar("10.0.0.1");
+        assertEquals(TimeUnit.SECONDS.toNanos(12), espera);
+        assertEquals(0, limitador.intentar("10.0.0.2"));
+    }
+
+    @Test
+    @DisplayName("La cubeta se recarga con el tiempo")
+    void testRecarga() {
+        for (int i = 0; i < 5; i++) {
+            limitador.intentar("usuario");
+        }
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(12));
+        assertEquals(0, limitador.intentar("usuario"));
+        assertTrue(limitador.intentar("usuario") > 0);
+    }
+
+    @Test
+    @DisplayName("Las cubetas inactivas se desalojan cuando ya estarían llenas")
+    void testDesalojoDeCubetasInactivas() {
+        limitador.intentar("a");
+        limitador.intentar("b");
+        assertEquals(2, limitador.llaves());
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(1) + 1);
+
+        assertEquals(0, limitador.llaves());
+    }
+
+    @Test
+    @DisplayName("Interpreta la especificación capacidad/periodo")
+    void testDesdeEspecificacion() {
+        assertEquals(30, LimitadorTasa.desde("30/1m", 10).getCapacidad());
+        assertEquals(3, LimitadorTasa.desde(" 3/15m ", 10).getCapacidad());
+        assertThrows(IllegalArgumentException.class, () -> LimitadorTasa.desde("30", 10));
+        assertThrows(IllegalArgumentException.class, () -> LimitadorTasa.desde("30/1d", 10));
+    }
+}
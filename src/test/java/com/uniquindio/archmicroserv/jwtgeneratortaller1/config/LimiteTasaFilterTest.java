@@ -0,0 +1,76 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para LimiteTasaFilter")
+class LimiteTasaFilterTest {
+
+    @Mock
+    private FilterChain filterChain;
+
+    private LimiteTasaFilter filtro;
+
+    @BeforeEach
+    void setUp() {
+        LimitesTasa limites = new LimitesTasa(true, 1000, "2/1m", "10/1m", "1/1m", "3/15m");
+        filtro = new LimiteTasaFilter(limites);
+    }
+
+    private MockHttpServletResponse enviar(String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, filterChain);
+        return response;
+    }
+
+    @Test
+    @DisplayName("Supera el límite por IP y recibe 429 con Retry-After")
+    void testLimitePorIp() throws Exception {
+        assertEquals(200, enviar("/v1/sesiones").getStatus());
+        assertEquals(200, enviar("/v1/sesiones/").getStatus());
+
+        MockHttpServletResponse response = enviar("//v1/sesiones");
+
+        assertEquals(429, response.getStatus());
+        assertEquals("30", response.getHeader("Retry-After"));
+        assertEquals("{\"error\":true,\"respuesta\":\"Demasiadas solicitudes, intente más tarde\"}",
+                response.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Cada ruta tiene su propio límite y las demás rutas no se limitan")
+    void testLimitePorRuta() throws Exception {
+        assertEquals(200, enviar("/v1/codigos").getStatus());
+        assertEquals(429, enviar("/v1/codigos").getStatus());
+        assertEquals(200, enviar("/v1/sesiones").getStatus());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, enviar("/v1/sesiones/refresco").getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Compara rutas ignorando barras repetidas y la barra final")
+    void testEsRuta() {
+        assertTrue(LimiteTasaFilter.esRuta("/v1/sesiones", "/v1/sesiones"));
+        assertTrue(LimiteTasaFilter.esRuta("/v1//sesiones//", "/v1/sesiones"));
+        assertFalse(LimiteTasaFilter.esRuta("/v1/sesiones/refresco", "/v1/sesiones"));
+        assertFalse(LimiteTasaFilter.esRuta("/v1/sesion", "/v1/sesiones"));
+        assertFalse(LimiteTasaFilter.esRuta(null, "/v1/sesiones"));
+    }
+}
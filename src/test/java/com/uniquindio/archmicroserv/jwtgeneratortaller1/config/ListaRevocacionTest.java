@@ -0,0 +1,126 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests unitarios para ListaRevocacion")
+class ListaRevocacionTest {
+
+    private static final Instant AHORA = Instant.parse("2025-01-10T12:00:00Z");
+
+    private MutableClock clock;
+    private ListaRevocacion lista;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(AHORA);
+        lista = new ListaRevocacion(1000, 0.01, clock);
+    }
+
+    private static VerifiedToken token(String usuario, String jti, Instant iat) {
+        return new VerifiedToken("correo", "issuer", "CLIENTE", usuario, iat.plusSeconds(3600), jti, iat);
+    }
+
+    @Test
+    @DisplayName("Los tokens no revocados pasan aunque el filtro tenga muchas entradas")
+    void testTokensNoRevocados() {
+        // Arrange
+        for (int i = 0; i < 1000; i++) {
+            lista.revocarToken("jti-" + i, AHORA.plusSeconds(60));
+        }
+
+        // Act & Assert
+        assertTrue(lista.estaRevocado(token("a", "jti-10", AHORA)));
+        for (int i = 1000; i < 2000; i++) {
+            assertFalse(lista.estaRevocado(token("a", "jti-" + i, AHORA)));
+        }
+    }
+
+    @Test
+    @DisplayName("La revocación de un usuario aplica solo a tokens emitidos hasta el corte")
+    void testRevocarUsuarioPorCorte() {
+        // Arrange
+        VerifiedToken anterior = token("testuser", "jti-1", AHORA.minusSeconds(10));
+        lista.revocarUsuario("testuser", AHORA, AHORA.plus(Duration.ofHours(1)));
+
+        // Act
+        clock.avanzar(Duration.ofSeconds(5));
+        VerifiedToken posterior = token("testuser", "jti-2", clock.instant());
+
+        // Assert
+        assertTrue(lista.estaRevocado(anterior));
+        assertFalse(lista.estaRevocado(posterior));
+        assertFalse(lista.estaRevocado(token("otro", "jti-3", AHORA.minusSeconds(10))));
+    }
+
+    @Test
+    @DisplayName("Una revocación antigua que llega tarde no adelanta el corte del usuario")
+    void testRevocarUsuarioConservaCortePosterior() {
+        // Arrange
+        lista.revocarUsuario("testuser", AHORA, AHORA.plusSeconds(900));
+
+        // Act: llega de otra instancia una revocación anterior
+        lista.revocarUsuario("testuser", AHORA.minusSeconds(60), AHORA.plusSeconds(840));
+
+        // Assert
+        assertTrue(lista.estaRevocado(token("testuser", "jti-1", AHORA.minusSeconds(30))));
+        assertTrue(lista.estaRevocado(token("testuser", "jti-2", AHORA)));
+        assertEquals(1, lista.tamano());
+    }
+
+    @Test
+    @DisplayName("La purga elimina las revocaciones de tokens ya expirados")
+    void testPurgarEntradasVencidas() {
+        // Arrange
+        lista.revocarToken("corto", AHORA.plusSeconds(60));
+        lista.revocarToken("largo", AHORA.plusSeconds(600));
+        lista.revocarUsuario("testuser", AHORA, AHORA.plusSeconds(120));
+
+        // Act
+        clock.avanzar(Duration.ofSeconds(300));
+        int eliminadas = lista.purgar();
+
+        // Assert
+        assertEquals(2, eliminadas);
+        assertEquals(1, lista.tamano());
+        assertFalse(lista.estaRevocado(token("x", "corto", AHORA)));
+        assertTrue(lista.estaRevocado(token("x", "largo", AHORA)));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instante;
+
+        MutableClock(Instant instante) {
+            this.instante = instante;
+        }
+
+        void avanzar(Duration duracion) {
+            instante = instante.plus(duracion);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instante;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Micro-benchmark de la clasificación de rutas del TokenFilter: regex, split y
+ * normalización por petición (comportamiento anterior) contra la TablaRutas.
+ * La mezcla de URIs imita el tráfico real: mayoría de login y consultas de
+ * usuario, algo de administración, documentación y health.
+ *
+ * Ejecutar igual que JWTParserBenchmark; el perfil "gc" reporta gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TablaRutasBenchmark {
+
+    private static final String[][] PETICIONES = {
+            {"POST", "/v1/sesiones"},
+            {"POST", "/v1/sesiones"},
+            {"POST", "/v1/sesiones"},
+            {"GET", "/v1/usuarios/juan.perez"},
+            {"GET", "/v1/usuarios/maria_gomez"},
+            {"PATCH", "/v1/usuarios/juan.perez"},
+            {"PATCH", "/v1/usuarios/maria_gomez/contrasena"},
+            {"POST", "/v1/usuarios"},
+            {"POST", "/v1/codigos"},
+            {"GET", "/v1/usuarios"},
+            {"DELETE", "/v1/usuarios/inactivo01"},
+            {"GET", "/v1/health"},
+            {"GET", "/swagger-ui/index.html"},
+            {"GET", "/v1//usuarios/juan.perez/"},
+            {"POST", "/v1/sesiones/refresco"},
+            {"DELETE", "/v1/sesiones"},
+    };
+
+    private final TablaRutas rutas = TokenFilter.RUTAS;
+
+    @Benchmark
+    public void anterior(Blackhole bh) {
+        for (String[] peticion : PETICIONES) {
+            String method = peticion[0];
+            String requestURI = peticion[1].replaceAll("/+", "/");
+            if (requestURI.length() > 1 && requestURI.endsWith("/")) {
+                requestURI = requestURI.substring(0, requestURI.length() - 1);
+            }
+            if (requestURI.startsWith("/v3/api-docs") || requestURI.startsWith("/swagger-ui")) {
+                bh.consume(0);
+            } else if (esRutaPublica(requestURI, method)) {
+                bh.consume(1);
+            } else if (esRutaAdmin(requestURI, method)) {
+                bh.consume(2);
+            } else if (esRutaUsuario(requestURI, method)) {
+                bh.consume(extraerUsuarioDelPath(requestURI));
+            } else {
+                bh.consume(0);
+            }
+        }
+    }
+
+    @Benchmark
+    public void tablaRutas(Blackhole bh) {
+        for (String[] peticion : PETICIONES) {
+            TablaRutas.Ruta ruta = rutas.clasificar(peticion[0], peticion[1]);
+            bh.consume(ruta.acceso());
+            bh.consume(ruta.usuario());
+        }
+    }
+
+    // ----- clasificación anterior del TokenFilter -----
+
+    private static boolean esRutaPublica(String requestURI, String method) {
+        return ("POST".equals(method) &&
+                   (requestURI.equals("/v1/usuarios")
+                    || requestURI.equals("/v1/sesiones")
+                    || requestURI.equals("/v1/sesiones/refresco")
+                    || requestURI.equals("/v1/introspect")
+                    || requestURI.equals("/v1/codigos")))
+               ||
+               ("PATCH".equals(method) && requestURI.matches("^/v1/usuarios/[^/]+/contrasena$"));
+    }
+
+    private static boolean esRutaAdmin(String requestURI, String method) {
+        return (requestURI.equals("/v1/usuarios") && "GET".equals(method)) ||
+               (requestURI.equals("/v1/claves") && "POST".equals(method)) ||
+               (requestURI.startsWith("/v1/usuarios/") && "DELETE".equals(method));
+    }
+
+    private static boolean esRutaUsuario(String requestURI, String method) {
+        return (requestURI.startsWith("/v1/usuarios/") && "PATCH".equals(method) &&
+               !requestURI.endsWith("/contrasena")) ||
+               (requestURI.startsWith("/v1/usuarios/") && "GET".equals(method)) ||
+               (requestURI.equals("/v1/sesiones") && "DELETE".equals(method));
+    }
+
+    private static String extraerUsuarioDelPath(String requestURI) {
+        String[] partes = requestURI.split("/");
+        return partes.length >= 4 ? partes[3] : null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TablaRutasBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
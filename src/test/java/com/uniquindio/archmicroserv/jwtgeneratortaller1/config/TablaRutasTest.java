@@ -0,0 +1,76 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.TablaRutas.Acceso;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Tests unitarios para TablaRutas")
+class TablaRutasTest {
+
+    private final TablaRutas rutas = TokenFilter.RUTAS;
+
+    @Test
+    @DisplayName("Clasifica las rutas públicas")
+    void testRutasPublicas() {
+        assertEquals(Acceso.PUBLICA, rutas.clasificar("POST", "/v1/usuarios").acceso());
+        assertEquals(Acceso.PUBLICA, rutas.clasificar("POST", "/v1/sesiones").acceso());
+        assertEquals(Acceso.PUBLICA, rutas.clasificar("POST", "/v1/codigos").acceso());
+        assertEquals(Acceso.PUBLICA, rutas.clasificar("PATCH", "/v1/usuarios/testuser/contrasena").acceso());
+    }
+
+    @Test
+    @DisplayName("Clasifica las rutas de administrador y de usuario con el usuario del path")
+    void testRutasProtegidas() {
+        assertEquals(Acceso.ADMIN, rutas.clasificar("GET", "/v1/usuarios").acceso());
+        assertEquals(Acceso.ADMIN, rutas.clasificar("POST", "/v1/usuarios:bulk").acceso());
+        assertEquals(new TablaRutas.Ruta(Acceso.ADMIN, null), rutas.clasificar("GET", "/v1/usuarios/export"));
+        assertEquals(Acceso.ADMIN, rutas.clasificar("GET", "/actuator/metrics").acceso());
+        assertEquals(Acceso.ADMIN, rutas.clasificar("GET", "/actuator/metrics/usuarios.cache.gets").acceso());
+        assertEquals(Acceso.LIBRE, rutas.clasificar("GET", "/actuator/health").acceso());
+        assertEquals(Acceso.ADMIN, rutas.clasificar("POST", "/v1/introspect").acceso());
+        assertEquals(new TablaRutas.Ruta(Acceso.ADMIN, "testuser"), rutas.clasificar("DELETE", "/v1/usuarios/testuser"));
+        assertEquals(new TablaRutas.Ruta(Acceso.USUARIO, "testuser"), rutas.clasificar("GET", "/v1/usuarios/testuser"));
+        assertEquals(new TablaRutas.Ruta(Acceso.USUARIO, "testuser"), rutas.clasificar("PATCH", "/v1/usuarios/testuser"));
+        assertEquals(new TablaRutas.Ruta(Acceso.USUARIO, null), rutas.clasificar("DELETE", "/v1/sesiones"));
+    }
+
+    @Test
+    @DisplayName("Ignora barras repetidas y la barra final como la normalización anterior")
+    void testNormalizacion() {
+        assertEquals(Acceso.ADMIN, rutas.clasificar("GET", "//v1///usuarios/").acceso());
+        assertEquals(new TablaRutas.Ruta(Acceso.USUARIO, "testuser"), rutas.clasificar("GET", "/v1//usuarios/testuser/"));
+        assertEquals(Acceso.PUBLICA, rutas.clasificar("PATCH", "/v1/usuarios//testuser/contrasena/").acceso());
+    }
+
+    @Test
+    @DisplayName("El literal tiene prioridad y se retrocede al comodín si no coincide completo")
+    void testPrioridadYRetroceso() {
+        assertEquals(new TablaRutas.Ruta(Acceso.USUARIO, "testuser"),
+                rutas.clasificar("PATCH", "/v1/usuarios/testuser/contrasena/otra"));
+    }
+
+    @Test
+    @DisplayName("Las rutas no registradas no requieren autenticación")
+    void testRutasNoRegistradas() {
+        assertSame(TablaRutas.NO_REGISTRADA, rutas.clasificar("GET", "/swagger-ui/index.html"));
+        assertSame(TablaRutas.NO_REGISTRADA, rutas.clasificar("GET", "/v1/health"));
+        assertSame(TablaRutas.NO_REGISTRADA, rutas.clasificar("PUT", "/v1/usuarios/testuser"));
+        assertSame(TablaRutas.NO_REGISTRADA, rutas.clasificar("GET", "/v1/usuariosx"));
+        assertNull(rutas.clasificar("POST", "/v1/sesiones").usuario());
+    }
+
+    @Test
+    @DisplayName("Rechaza patrones duplicados o con comodín intermedio")
+    void testPatronesInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> TablaRutas.builder()
+                .ruta("GET", "/a/**/b", Acceso.ADMIN));
+        assertThrows(IllegalArgumentException.class, () -> TablaRutas.builder()
+                .ruta("GET", "/a", Acceso.ADMIN)
+                .ruta("GET", "/a/", Acceso.PUBLICA));
+    }
+}
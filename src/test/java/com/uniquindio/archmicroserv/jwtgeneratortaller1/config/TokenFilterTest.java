@@ -0,0 +1,163 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.MessageDTO;
+import io.jsonwebtoken.ExpiredJwtException;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para TokenFilter")
+class TokenFilterTest {
+
+    @Mock
+    private JWTUtils jwtUtils;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private TokenFilter tokenFilter;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        tokenFilter = new TokenFilter(jwtUtils);
+        response = new MockHttpServletResponse();
+    }
+
+    private static VerifiedToken token(String usuario, String rol) {
+        return new VerifiedToken("correo@email.com", Constants.ISSUER, rol, usuario,
+                Instant.now().plusSeconds(3600), "jti", Instant.now());
+    }
+
+    @Test
+    @DisplayName("Ruta pública pasa sin token")
+    void testRutaPublica() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/sesiones");
+
+        // Act
+        tokenFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(jwtUtils);
+    }
+
+    @Test
+    @DisplayName("Ruta protegida sin token retorna el error precalculado")
+    void testTokenRequerido() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/usuarios");
+        byte[] esperado = new ObjectMapper().writeValueAsBytes(new MessageDTO<>(true, "Token de autenticación requerido"));
+
+        // Act
+        tokenFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertEquals("application/json;charset=UTF-8", response.getContentType());
+        assertEquals(esperado.length, response.getContentLength());
+        assertArrayEquals(esperado, response.getContentAsByteArray());
+        verify(filterChain, never()).doFilter(request, response);
+    }
+
+    @Test
+    @DisplayName("Introspección sin token de servicio retorna 401")
+    void testIntrospeccionSinToken() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/introspect");
+        request.setParameter("token", "token-de-un-tercero");
+
+        // Act
+        tokenFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        verify(filterChain, never()).doFilter(request, response);
+        verifyNoInteractions(jwtUtils);
+    }
+
+    @Test
+    @DisplayName("Introspección con token de cliente retorna 403")
+    void testIntrospeccionConTokenCliente() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/introspect");
+        request.addHeader("Authorization", "Bearer valido");
+        when(jwtUtils.verificarToken("valido")).thenReturn(token("testuser", "CLIENTE"));
+
+        // Act
+        tokenFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(403, response.getStatus());
+        verify(filterChain, never()).doFilter(request, response);
+    }
+
+    @Test
+    @DisplayName("Token expirado retorna 401")
+    void testTokenExpirado() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/usuarios/testuser");
+        request.addHeader("Authorization", "Bearer expirado");
+        when(jwtUtils.verificarToken("expirado")).thenThrow(mock(ExpiredJwtException.class));
+
+        // Act
+        tokenFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertEquals("{\"error\":true,\"respuesta\":\"El token ha expirado\"}", response.getContentAsString());
+    }
+
+    @Test
+    @DisplayName("Cliente que accede a datos de otro usuario recibe 403")
+    void testUsuarioAjeno() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/usuarios/otro");
+        request.addHeader("Authorization", "Bearer valido");
+        when(jwtUtils.verificarToken("valido")).thenReturn(token("testuser", "CLIENTE"));
+
+        // Act
+        tokenFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(403, response.getStatus());
+        verify(filterChain, never()).doFilter(request, response);
+    }
+
+    @Test
+    @DisplayName("Token válido deja el token verificado en la petición")
+    void testTokenValido() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/usuarios/testuser");
+        request.addHeader("Authorization", "Bearer valido");
+        VerifiedToken verificado = token("testuser", "CLIENTE");
+        when(jwtUtils.verificarToken("valido")).thenReturn(verificado);
+
+        // Act
+        tokenFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+        assertSame(verificado, request.getAttribute(TokenFilter.ATRIBUTO_TOKEN));
+    }
+}
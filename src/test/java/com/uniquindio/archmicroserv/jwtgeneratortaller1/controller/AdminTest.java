@@ -1,7 +1,16 @@
 package com.uniquindio.archmicroserv.jwtgeneratortaller1.controller;
 
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.UsuarioNotFoundException;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.Usuario;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.PaginaUsuariosDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.ResultadoImportacionDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.ResultadoImportacionDTO.FilaRechazada;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.UsuarioResumenDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.ExportacionUsuariosServiceImp;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.ExportacionUsuariosServiceImp.FormatoExportacion;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.ImportacionUsuariosServiceImp;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.ImportacionUsuariosServiceImp.FormatoImportacion;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.UsuarioServiceImp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,10 +23,15 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
@@ -27,6 +41,9 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -39,6 +56,15 @@ class AdminTest {
     @Mock
     private UsuarioServiceImp usuarioService;
 
+    @Mock
+    private JWTUtils jwtUtils;
+
+    @Mock
+    private ImportacionUsuariosServiceImp importacionService;
+
+    @Mock
+    private ExportacionUsuariosServiceImp exportacionService;
+
     @InjectMocks
     private Admin adminController;
 
@@ -122,6 +148,54 @@ class AdminTest {
         verify(usuarioService, times(1)).obtenerUsuarios(0);
     }
 
+    @Test
+    @DisplayName("GET /v1/usuarios - Página por cursor")
+    void testObtenerUsuariosPorCursor() throws Exception {
+        // Arrange
+        PaginaUsuariosDTO pagina = new PaginaUsuariosDTO(List.of(new UsuarioResumenDTO("testuser",
+                "test@email.com", "+573001234567",
+                com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.Rol.CLIENTE)), "dGVzdHVzZXI");
+        when(usuarioService.obtenerPaginaUsuarios("YWJj", 1)).thenReturn(pagina);
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/usuarios")
+                        .param("after", "YWJj")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error").value(false))
+                .andExpect(jsonPath("$.respuesta.usuarios[0].usuario").value("testuser"))
+                .andExpect(jsonPath("$.respuesta.usuarios[0].clave").doesNotExist())
+                .andExpect(jsonPath("$.respuesta.siguiente").value("dGVzdHVzZXI"));
+
+        verify(usuarioService, never()).obtenerUsuarios(anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /v1/usuarios - Límite fuera de rango")
+    void testObtenerUsuariosLimiteInvalido() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/v1/usuarios")
+                        .param("limit", "1000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(true));
+
+        verify(usuarioService, never()).obtenerPaginaUsuarios(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /v1/usuarios - Cursor inválido")
+    void testObtenerUsuariosCursorInvalido() throws Exception {
+        // Arrange
+        when(usuarioService.obtenerPaginaUsuarios("???", 10))
+                .thenThrow(new IllegalArgumentException("Cursor de paginación inválido"));
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/usuarios")
+                        .param("after", "???"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.respuesta").value("Cursor de paginación inválido"));
+    }
+
     @Test
     @DisplayName("DELETE /v1/usuarios/{usuario} - Eliminar usuario exitosamente")
     void testEliminarUsuarioExitoso() throws Exception {
@@ -167,5 +241,138 @@ class AdminTest {
 
         verify(usuarioService, never()).eliminarUsuario(anyString());
     }
-}
 
+    @Test
+    @DisplayName("POST /v1/claves - Rotar clave de firma")
+    void testRotarClave() throws Exception {
+        // Arrange
+        when(jwtUtils.rotarClave("kid-nuevo")).thenReturn("kid-nuevo");
+        when(jwtUtils.getKidsVigentes()).thenReturn(List.of("kid-anterior", "kid-nuevo"));
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/claves").param("kid", "kid-nuevo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error").value(false))
+                .andExpect(jsonPath("$.respuesta.kidActivo").value("kid-nuevo"))
+                .andExpect(jsonPath("$.respuesta.kidsVigentes.length()").value(2));
+
+        verify(jwtUtils, times(1)).rotarClave("kid-nuevo");
+    }
+
+    @Test
+    @DisplayName("POST /v1/claves - kid fuera del llavero configurado")
+    void testRotarClaveDesconocida() throws Exception {
+        // Arrange
+        when(jwtUtils.rotarClave("otro"))
+                .thenThrow(new IllegalArgumentException("La clave otro no está en el llavero configurado"));
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/claves").param("kid", "otro"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(true))
+                .andExpect(jsonPath("$.respuesta").value("La clave otro no está en el llavero configurado"));
+    }
+
+    @Test
+    @DisplayName("POST /v1/usuarios:bulk - Importar NDJSON")
+    void testImportarUsuariosNdjson() throws Exception {
+        // Arrange
+        ResultadoImportacionDTO resultado = new ResultadoImportacionDTO(2, 1, 1, 0, false,
+                List.of(new FilaRechazada(2, "dos", "El usuario ya existe")), false);
+        when(importacionService.importar(any(), eq(FormatoImportacion.NDJSON), eq(false))).thenReturn(resultado);
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/usuarios:bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"usuario\":\"uno\"}\n{\"usuario\":\"dos\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error").value(false))
+                .andExpect(jsonPath("$.respuesta.creados").value(1))
+                .andExpect(jsonPath("$.respuesta.rechazadas[0].motivo").value("El usuario ya existe"));
+    }
+
+    @Test
+    @DisplayName("POST /v1/usuarios:bulk - Claves ya hasheadas declaradas en la petición")
+    void testImportarUsuariosClavesHasheadas() throws Exception {
+        // Arrange
+        when(importacionService.importar(any(), eq(FormatoImportacion.NDJSON), eq(true)))
+                .thenReturn(new ResultadoImportacionDTO(1, 1, 0, 0, false, List.of(), false));
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/usuarios:bulk").param("clavesHasheadas", "true")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"usuario\":\"uno\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.respuesta.creados").value(1));
+    }
+
+    @Test
+    @DisplayName("POST /v1/usuarios:bulk - CSV con encabezado inválido")
+    void testImportarUsuariosCsvInvalido() throws Exception {
+        // Arrange
+        when(importacionService.importar(any(), eq(FormatoImportacion.CSV), eq(false)))
+                .thenThrow(new IllegalArgumentException("El encabezado CSV debe incluir las columnas"));
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/usuarios:bulk")
+                        .contentType("text/csv")
+                        .content("usuario\nuno\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(true));
+    }
+
+    @Test
+    @DisplayName("POST /v1/usuarios:bulk - Tipo de contenido no soportado")
+    void testImportarUsuariosTipoNoSoportado() throws Exception {
+        mockMvc.perform(post("/v1/usuarios:bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verify(importacionService, never()).importar(any(), any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("GET /v1/usuarios/export - Exportar CSV")
+    void testExportarUsuariosCsv() throws Exception {
+        // Arrange
+        when(exportacionService.exportar(any(OutputStream.class), eq(FormatoExportacion.CSV))).thenAnswer(invocacion -> {
+            invocacion.<OutputStream>getArgument(0).write("usuario,correo,numeroTelefono,rol\n"
+                    .getBytes(StandardCharsets.UTF_8));
+            return 0L;
+        });
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/usuarios/export")
+                        .param("formato", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"usuarios.csv\""))
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("usuario,correo,numeroTelefono,rol\n"));
+    }
+
+    @Test
+    @DisplayName("GET /v1/usuarios/export - Formato no soportado")
+    void testExportarUsuariosFormatoInvalido() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/v1/usuarios/export")
+                        .param("formato", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(true));
+
+        verify(exportacionService, never()).exportar(any(), any());
+    }
+
+    @Test
+    @DisplayName("GET /v1/usuarios/export - Error antes de enviar filas")
+    void testExportarUsuariosError() throws Exception {
+        // Arrange
+        when(exportacionService.exportar(any(OutputStream.class), eq(FormatoExportacion.NDJSON)))
+                .thenThrow(new org.springframework.dao.DataAccessResourceFailureException("sin conexión"));
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/usuarios/export"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value(true));
+    }
+}
@@ -0,0 +1,117 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.VerifiedToken;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.IntrospeccionLoteRequest;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.TokenRevocadoException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para IntrospeccionController")
+class IntrospeccionControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private JWTUtils jwtUtils;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final VerifiedToken verificado = new VerifiedToken("test@email.com", "test-issuer", "CLIENTE",
+            "testuser", Instant.ofEpochSecond(1736514000), "jti-1", Instant.ofEpochSecond(1736510400));
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new IntrospeccionController(jwtUtils, 2)).build();
+    }
+
+    @Test
+    @DisplayName("POST /v1/introspect - Token activo retorna sus claims")
+    void testIntrospectarTokenActivo() throws Exception {
+        // Arrange
+        when(jwtUtils.verificarToken("valido")).thenReturn(verificado);
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/introspect")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("token", "valido"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(jsonPath("$.active").value(true))
+                .andExpect(jsonPath("$.username").value("testuser"))
+                .andExpect(jsonPath("$.sub").value("test@email.com"))
+                .andExpect(jsonPath("$.exp").value(1736514000))
+                .andExpect(jsonPath("$.token_type").value("Bearer"));
+    }
+
+    @Test
+    @DisplayName("POST /v1/introspect - Token revocado retorna solo active=false")
+    void testIntrospectarTokenRevocado() throws Exception {
+        // Arrange
+        when(jwtUtils.verificarToken("revocado")).thenThrow(new TokenRevocadoException("El token ha sido revocado"));
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/introspect")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("token", "revocado"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.active").value(false))
+                .andExpect(jsonPath("$.sub").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("POST /v1/introspect - Lote conserva el orden de los tokens")
+    void testIntrospectarLote() throws Exception {
+        // Arrange
+        when(jwtUtils.verificarToken("valido")).thenReturn(verificado);
+        when(jwtUtils.verificarToken("malo")).thenThrow(new JwtException("firma inválida"));
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new IntrospeccionLoteRequest(List.of("malo", "valido")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resultados.length()").value(2))
+                .andExpect(jsonPath("$.resultados[0].active").value(false))
+                .andExpect(jsonPath("$.resultados[1].active").value(true))
+                .andExpect(jsonPath("$.resultados[1].username").value("testuser"));
+    }
+
+    @Test
+    @DisplayName("POST /v1/introspect - Lote que supera el máximo")
+    void testIntrospectarLoteDemasiadoGrande() throws Exception {
+        // Arrange
+        IntrospeccionLoteRequest request = new IntrospeccionLoteRequest(Collections.nCopies(3, "token"));
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(true));
+        verify(jwtUtils, never()).verificarToken(anyString());
+    }
+}
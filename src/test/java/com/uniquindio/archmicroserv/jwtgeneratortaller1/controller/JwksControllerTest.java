@@ -0,0 +1,58 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.controller;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para JwksController")
+class JwksControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private JWTUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new JwksController(jwtUtils, 600)).build();
+        when(jwtUtils.getJwksEtag()).thenReturn("\"abc\"");
+    }
+
+    @Test
+    @DisplayName("GET /.well-known/jwks.json - Retorna claves con cabeceras de caché")
+    void testJwksConCabecerasDeCache() throws Exception {
+        // Arrange
+        when(jwtUtils.getJwksJson()).thenReturn("{\"keys\":[]}");
+
+        // Act & Assert
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=600, public"))
+                .andExpect(header().string("ETag", "\"abc\""))
+                .andExpect(content().string("{\"keys\":[]}"));
+    }
+
+    @Test
+    @DisplayName("GET /.well-known/jwks.json - Retorna 304 si el ETag no cambió")
+    void testJwksNoModificado() throws Exception {
+        // Arrange
+        when(jwtUtils.getJwksJson()).thenReturn("{\"keys\":[]}");
+
+        // Act & Assert
+        mockMvc.perform(get("/.well-known/jwks.json").header("If-None-Match", "\"abc\""))
+                .andExpect(status().isNotModified());
+    }
+}
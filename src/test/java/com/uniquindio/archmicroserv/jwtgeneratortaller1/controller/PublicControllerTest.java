@@ -1,9 +1,14 @@
 package com.uniquindio.archmicroserv.jwtgeneratortaller1.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.TokenFilter;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.VerifiedToken;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.*;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.LimiteExcedidoException;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.SesionInvalidaException;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.UsuarioNotFoundException;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.RevocacionServiceImp;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.SesionServiceImp;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.UsuarioServiceImp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -32,7 +37,10 @@ class PublicControllerTest {
     private UsuarioServiceImp usuarioService;
 
     @Mock
-    private JWTUtils jwtUtils;
+    private RevocacionServiceImp revocacionService;
+
+    @Mock
+    private SesionServiceImp sesionService;
 
     @InjectMocks
     private PublicController publicController;
@@ -146,6 +154,22 @@ class PublicControllerTest {
         verify(usuarioService, times(1)).login(any(LoginRequest.class));
     }
 
+    @Test
+    @DisplayName("POST /v1/sesiones - Límite de tasa excedido")
+    void testLoginLimiteExcedido() throws Exception {
+        // Arrange
+        when(usuarioService.login(any(LoginRequest.class)))
+                .thenThrow(new LimiteExcedidoException("Demasiadas solicitudes, intente más tarde", 12));
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/sesiones")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "12"))
+                .andExpect(jsonPath("$.error").value(true));
+    }
+
     @Test
     @DisplayName("POST /v1/sesiones - Contraseña inválida")
     void testLoginContrasenaInvalida() throws Exception {
@@ -291,5 +315,59 @@ class PublicControllerTest {
 
         verify(usuarioService, times(1)).cambiarClave(any(CambioClaveDTO.class));
     }
-}
 
+    @Test
+    @DisplayName("POST /v1/sesiones/refresco - Refresco exitoso")
+    void testRefrescarSesionExitoso() throws Exception {
+        // Arrange
+        when(sesionService.refrescar("refresh-1")).thenReturn(new TokenDTO("nuevo-jwt", "refresh-2"));
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/sesiones/refresco")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefrescoTokenRequest("refresh-1"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error").value(false))
+                .andExpect(jsonPath("$.respuesta.token").value("nuevo-jwt"))
+                .andExpect(jsonPath("$.respuesta.refreshToken").value("refresh-2"));
+
+        verify(sesionService, times(1)).refrescar("refresh-1");
+        verifyNoInteractions(usuarioService);
+    }
+
+    @Test
+    @DisplayName("POST /v1/sesiones/refresco - Sesión inválida")
+    void testRefrescarSesionInvalida() throws Exception {
+        // Arrange
+        when(sesionService.refrescar("usado"))
+                .thenThrow(new SesionInvalidaException("La sesión no existe o ya fue cerrada"));
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/sesiones/refresco")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefrescoTokenRequest("usado"))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").value(true))
+                .andExpect(jsonPath("$.respuesta").value("La sesión no existe o ya fue cerrada"));
+    }
+
+    @Test
+    @DisplayName("DELETE /v1/sesiones - Cierra la sesión y revoca el token")
+    void testCerrarSesion() throws Exception {
+        // Arrange
+        VerifiedToken token = new VerifiedToken("test@email.com", "test-issuer", "CLIENTE", "testuser",
+                java.time.Instant.now().plusSeconds(3600), "jti-1", java.time.Instant.now());
+
+        // Act & Assert
+        mockMvc.perform(delete("/v1/sesiones")
+                        .requestAttr(TokenFilter.ATRIBUTO_TOKEN, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefrescoTokenRequest("refresh-1"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error").value(false))
+                .andExpect(jsonPath("$.respuesta").value("Sesión cerrada exitosamente"));
+
+        verify(revocacionService, times(1)).revocarToken(token);
+        verify(sesionService, times(1)).cerrarSesion("refresh-1");
+    }
+}
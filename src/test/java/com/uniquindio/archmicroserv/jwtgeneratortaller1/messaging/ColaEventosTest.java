@@ -0,0 +1,169 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.EventoDominio;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging.ColaEventos.PoliticaDesborde;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.TipoAccion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests unitarios para ColaEventos")
+class ColaEventosTest {
+
+    private final List<EventoDominio> enviados = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> hilosEnvio = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private ColaEventos cola;
+
+    @AfterEach
+    void tearDown() {
+        liberar.countDown();
+        if (cola != null) {
+            cola.cerrar(Duration.ofSeconds(5));
+        }
+    }
+
+    private static EventoDominio evento(String usuario) {
+        return EventoDominio.of(TipoAccion.AUTENTICACION, Map.of("usuario", usuario));
+    }
+
+    private static Object usuario(EventoDominio evento) {
+        return ((Map<?, ?>) evento.payload()).get("usuario");
+    }
+
+    /**
+     * Envío que registra los eventos; si bloquear es true espera a que la prueba lo libere
+     */
+    private Consumer<List<EventoDominio>> envio(boolean bloquear, CountDownLatch enEnvio) {
+        return lote -> {
+            hilosEnvio.add(Thread.currentThread().getName());
+            enEnvio.countDown();
+            if (bloquear) {
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            enviados.addAll(lote);
+        };
+    }
+
+    @Test
+    @DisplayName("Los eventos se envían en orden desde el hilo de drenado")
+    void testEnvioEnOrden() {
+        // Arrange
+        cola = new ColaEventos(envio(false, new CountDownLatch(1)), 100, 1, 10, PoliticaDesborde.LLAMADOR, 0);
+        List<EventoDominio> eventos = List.of(evento("a"), evento("b"), evento("c"));
+
+        // Act
+        eventos.forEach(cola::encolar);
+        cola.cerrar(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(eventos, enviados);
+        assertTrue(hilosEnvio.stream().allMatch(nombre -> nombre.startsWith("eventos-")));
+        assertEquals(3, cola.publicados.get());
+    }
+
+    @Test
+    @DisplayName("Con la cola llena y política DESCARTAR se descarta el evento nuevo")
+    void testDesbordeDescartar() throws Exception {
+        // Arrange: el hilo de drenado queda bloqueado con el primer evento
+        CountDownLatch enEnvio = new CountDownLatch(1);
+        cola = new ColaEventos(envio(true, enEnvio), 1, 1, 1, PoliticaDesborde.DESCARTAR, 0);
+        cola.encolar(evento("enviando"));
+        assertTrue(enEnvio.await(5, TimeUnit.SECONDS));
+
+        // Act
+        cola.encolar(evento("en-cola"));
+        cola.encolar(evento("descartado"));
+        liberar.countDown();
+        cola.cerrar(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(List.of("enviando", "en-cola"),
+                enviados.stream().map(ColaEventosTest::usuario).toList());
+        assertEquals(1, cola.descartados.get());
+    }
+
+    @Test
+    @DisplayName("Con la cola llena y política DESCARTAR_ANTIGUO se conserva el evento nuevo")
+    void testDesbordeDescartarAntiguo() throws Exception {
+        // Arrange
+        CountDownLatch enEnvio = new CountDownLatch(1);
+        cola = new ColaEventos(envio(true, enEnvio), 1, 1, 1, PoliticaDesborde.DESCARTAR_ANTIGUO, 0);
+        cola.encolar(evento("enviando"));
+        assertTrue(enEnvio.await(5, TimeUnit.SECONDS));
+
+        // Act
+        cola.encolar(evento("antiguo"));
+        cola.encolar(evento("nuevo"));
+        liberar.countDown();
+        cola.cerrar(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(List.of("enviando", "nuevo"),
+                enviados.stream().map(ColaEventosTest::usuario).toList());
+        assertEquals(1, cola.descartados.get());
+    }
+
+    @Test
+    @DisplayName("Con la cola llena y política LLAMADOR se envía en el hilo que publica")
+    void testDesbordeLlamador() throws Exception {
+        // Arrange
+        CountDownLatch enEnvio = new CountDownLatch(1);
+        List<EventoDominio> enLlamador = new ArrayList<>();
+        Consumer<List<EventoDominio>> bloqueante = envio(true, enEnvio);
+        cola = new ColaEventos(lote -> {
+            if (Thread.currentThread().getName().startsWith("eventos-")) {
+                bloqueante.accept(lote);
+            } else {
+                enLlamador.addAll(lote);
+            }
+        }, 1, 1, 1, PoliticaDesborde.LLAMADOR, 0);
+        cola.encolar(evento("enviando"));
+        assertTrue(enEnvio.await(5, TimeUnit.SECONDS));
+
+        // Act
+        cola.encolar(evento("en-cola"));
+        cola.encolar(evento("llamador"));
+
+        // Assert
+        assertEquals("llamador", usuario(enLlamador.get(0)));
+        assertEquals(0, cola.descartados.get());
+    }
+
+    @Test
+    @DisplayName("Un error del broker se cuenta como fallido y el drenado continúa")
+    void testEnvioFallido() {
+        // Arrange
+        cola = new ColaEventos(lote -> {
+            if ("falla".equals(usuario(lote.get(0)))) {
+                throw new IllegalStateException("broker caído");
+            }
+            enviados.addAll(lote);
+        }, 10, 1, 1, PoliticaDesborde.LLAMADOR, 0);
+
+        // Act
+        cola.encolar(evento("falla"));
+        cola.encolar(evento("ok"));
+        cola.cerrar(Duration.ofSeconds(5));
+
+        // Assert
+        assertEquals(1, cola.fallidos.get());
+        assertEquals(1, enviados.size());
+    }
+}
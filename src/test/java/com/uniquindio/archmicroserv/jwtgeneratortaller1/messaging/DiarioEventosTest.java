@@ -0,0 +1,162 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests unitarios para DiarioEventos")
+class DiarioEventosTest {
+
+    @TempDir
+    Path directorio;
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> textos(List<byte[]> registros) {
+        return registros.stream().map(r -> new String(r, StandardCharsets.UTF_8)).toList();
+    }
+
+    @Test
+    @DisplayName("Lee los registros en orden y solo los consume al confirmar")
+    void testAgregarLeerConsumir() throws Exception {
+        // Arrange
+        try (DiarioEventos diario = new DiarioEventos(directorio.resolve("spool.dat"), 4096, false)) {
+            diario.agregar(bytes("uno"));
+            diario.agregar(bytes("dos"));
+            diario.agregar(bytes("tres"));
+
+            // Act
+            List<byte[]> lote = diario.leer(2);
+            diario.consumir(lote.size());
+
+            // Assert
+            assertEquals(List.of("uno", "dos"), textos(lote));
+            assertEquals(1, diario.registros());
+            assertEquals(List.of("tres"), textos(diario.leer(10)));
+        }
+    }
+
+    @Test
+    @DisplayName("Al reabrir recupera los registros pendientes desde la posición de lectura")
+    void testRecuperarAlReabrir() throws Exception {
+        // Arrange
+        Path archivo = directorio.resolve("spool.dat");
+        try (DiarioEventos diario = new DiarioEventos(archivo, 4096, true)) {
+            diario.agregar(bytes("uno"));
+            diario.agregar(bytes("dos"));
+            diario.agregar(bytes("tres"));
+            diario.consumir(1);
+        }
+
+        // Act
+        try (DiarioEventos reabierto = new DiarioEventos(archivo, 4096, false)) {
+            // Assert
+            assertEquals(List.of("dos", "tres"), textos(reabierto.leer(10)));
+        }
+    }
+
+    @Test
+    @DisplayName("No se puede abrir un diario que ya está abierto; al cerrarlo queda libre")
+    void testBloqueoExclusivo() throws Exception {
+        // Arrange
+        Path archivo = directorio.resolve("spool.dat");
+        try (DiarioEventos diario = new DiarioEventos(archivo, 4096, false)) {
+            diario.agregar(bytes("uno"));
+
+            // Act & Assert
+            assertThrows(IOException.class, () -> new DiarioEventos(archivo, 4096, false));
+        }
+        try (DiarioEventos reabierto = new DiarioEventos(archivo, 4096, false)) {
+            assertEquals(List.of("uno"), textos(reabierto.leer(10)));
+        }
+    }
+
+    @Test
+    @DisplayName("Un registro corrupto termina el diario al recuperar")
+    void testRegistroCorrupto() throws Exception {
+        // Arrange
+        Path archivo = directorio.resolve("spool.dat");
+        try (DiarioEventos diario = new DiarioEventos(archivo, 4096, false)) {
+            diario.agregar(bytes("uno"));
+            diario.agregar(bytes("dos"));
+        }
+        int segundo = DiarioEventos.CABECERA + DiarioEventos.ENCABEZADO_REGISTRO + 3;
+        try (RandomAccessFile raw = new RandomAccessFile(archivo.toFile(), "rw")) {
+            raw.seek(segundo + DiarioEventos.ENCABEZADO_REGISTRO);
+            raw.write('X');
+        }
+
+        // Act
+        try (DiarioEventos reabierto = new DiarioEventos(archivo, 4096, false)) {
+            // Assert
+            assertEquals(List.of("uno"), textos(reabierto.leer(10)));
+        }
+    }
+
+    @Test
+    @DisplayName("Rechaza registros cuando está lleno y vuelve al inicio al vaciarse")
+    void testLlenoYReinicio() throws Exception {
+        // Arrange
+        Path archivo = directorio.resolve("spool.dat");
+        byte[] registro = new byte[40];
+        try (DiarioEventos diario = new DiarioEventos(archivo, 128, false)) {
+            assertTrue(diario.agregar(registro));
+            assertTrue(diario.agregar(registro));
+
+            // Act & Assert
+            assertFalse(diario.agregar(registro));
+            diario.consumir(2);
+            assertEquals(0, diario.bytesUsados());
+            assertTrue(diario.agregar(bytes("nuevo")));
+        }
+
+        // Los registros de la vuelta anterior no reaparecen al reabrir
+        try (DiarioEventos reabierto = new DiarioEventos(archivo, 128, false)) {
+            assertEquals(List.of("nuevo"), textos(reabierto.leer(10)));
+        }
+    }
+
+    @Test
+    @DisplayName("Compacta al pasar la mitad y recupera el espacio sin vaciarse")
+    void testCompactarSinVaciar() throws Exception {
+        // Arrange
+        Path archivo = directorio.resolve("spool.dat");
+        byte[] registro = new byte[40];
+        try (DiarioEventos diario = new DiarioEventos(archivo, 184, false)) {
+            assertTrue(diario.agregar(registro));
+            assertTrue(diario.agregar(registro));
+            assertTrue(diario.agregar(bytes("pendiente")));
+            assertFalse(diario.agregar(registro));
+
+            // Act
+            diario.consumir(2);
+
+            // Assert
+            assertEquals(1, diario.registros());
+            assertEquals(DiarioEventos.ENCABEZADO_REGISTRO + 9, diario.bytesUsados());
+            assertTrue(diario.agregar(registro));
+            assertTrue(diario.agregar(registro));
+            assertEquals(3, diario.registros());
+        }
+
+        // Al reabrir se leen los registros compactados y los nuevos, no los consumidos
+        try (DiarioEventos reabierto = new DiarioEventos(archivo, 184, false)) {
+            List<byte[]> registros = reabierto.leer(10);
+            assertEquals(3, registros.size());
+            assertEquals("pendiente", new String(registros.get(0), StandardCharsets.UTF_8));
+        }
+    }
+}
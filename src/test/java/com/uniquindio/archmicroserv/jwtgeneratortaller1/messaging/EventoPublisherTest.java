@@ -1,21 +1,41 @@
 package com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging;
 
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.EventoDominio;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging.ColaEventos.PoliticaDesborde;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.TipoAccion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Tests unitarios para EventoPublisher")
@@ -24,12 +44,12 @@ class EventoPublisherTest {
     @Mock
     private RabbitTemplate rabbitTemplate;
 
-    @InjectMocks
     private EventoPublisher eventoPublisher;
 
     @BeforeEach
     void setUp() {
-        // Setup común si es necesario
+        // Publicación síncrona: el envío ocurre dentro de publicar
+        eventoPublisher = new EventoPublisher(rabbitTemplate);
     }
 
     @Test
@@ -148,5 +168,207 @@ class EventoPublisherTest {
                 evento2
         );
     }
-}
 
+    @Test
+    @DisplayName("Publicar un lote de eventos en un solo canal")
+    @SuppressWarnings("unchecked")
+    void testPublicarLote() {
+        // Arrange
+        EventoDominio primero = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "uno"));
+        EventoDominio segundo = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "dos"));
+        RabbitOperations operaciones = mock(RabbitOperations.class);
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(invocacion ->
+                invocacion.<RabbitOperations.OperationsCallback<Object>>getArgument(0).doInRabbit(operaciones));
+
+        // Act
+        eventoPublisher.publicarLote(List.of(primero, segundo));
+
+        // Assert
+        verify(rabbitTemplate, times(1)).invoke(any(RabbitOperations.OperationsCallback.class));
+        verify(operaciones).convertAndSend("dominio.events", "auth.registered", primero);
+        verify(operaciones).convertAndSend("dominio.events", "auth.registered", segundo);
+    }
+
+    @Test
+    @DisplayName("Con confirmaciones simples el lote espera la confirmación del broker")
+    @SuppressWarnings("unchecked")
+    void testPublicarLoteEsperaConfirmaciones() {
+        // Arrange
+        EventoDominio evento = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "uno"));
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.isSimplePublisherConfirms()).thenReturn(true);
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        eventoPublisher = new EventoPublisher(rabbitTemplate);
+        RabbitOperations operaciones = mock(RabbitOperations.class);
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(invocacion ->
+                invocacion.<RabbitOperations.OperationsCallback<Object>>getArgument(0).doInRabbit(operaciones));
+
+        // Act
+        eventoPublisher.publicarLote(List.of(evento));
+
+        // Assert
+        verify(operaciones).convertAndSend("dominio.events", "auth.registered", evento);
+        verify(operaciones).waitForConfirmsOrDie(anyLong());
+    }
+
+    /**
+     * Publisher con confirmaciones correlacionadas cuyo broker simulado
+     * confirma cada mensaje con el ack y el motivo indicados
+     */
+    private EventoPublisher publisherCorrelacionado(RabbitOperations operaciones, boolean ack) {
+        return publisherCorrelacionado(operaciones, ack, null, null);
+    }
+
+    /**
+     * Igual, pero devuelve (sin ruta) el evento con el id indicado antes de confirmarlo
+     */
+    @SuppressWarnings("unchecked")
+    private EventoPublisher publisherCorrelacionado(RabbitOperations operaciones, boolean ack, String motivo,
+                                                    String idDevuelto) {
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(invocacion ->
+                invocacion.<RabbitOperations.OperationsCallback<Object>>getArgument(0).doInRabbit(operaciones));
+        doAnswer(invocacion -> {
+            CorrelationData correlacion = invocacion.getArgument(3);
+            if (correlacion.getId().equals(idDevuelto)) {
+                correlacion.setReturned(new ReturnedMessage(new Message(new byte[0]), 312, "NO_ROUTE",
+                        "dominio.events", invocacion.getArgument(1)));
+            }
+            correlacion.getFuture().complete(new CorrelationData.Confirm(ack, motivo));
+            return null;
+        }).when(operaciones).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+        return new EventoPublisher(rabbitTemplate);
+    }
+
+    @Test
+    @DisplayName("Con confirmaciones correlacionadas el lote espera el futuro de cada mensaje")
+    void testPublicarLoteCorrelacionado() {
+        // Arrange
+        RabbitOperations operaciones = mock(RabbitOperations.class);
+        EventoPublisher correlacionado = publisherCorrelacionado(operaciones, true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        correlacionado.bindTo(registry);
+        EventoDominio primero = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "uno"));
+        EventoDominio segundo = EventoDominio.of(TipoAccion.AUTENTICACION, Map.of("usuario", "dos"));
+        ArgumentCaptor<CorrelationData> correlaciones = ArgumentCaptor.forClass(CorrelationData.class);
+
+        // Act
+        correlacionado.publicarLote(List.of(primero, segundo));
+
+        // Assert
+        verify(operaciones, times(2)).convertAndSend(anyString(), anyString(), any(Object.class),
+                correlaciones.capture());
+        assertEquals(List.of(primero.id(), segundo.id()),
+                correlaciones.getAllValues().stream().map(CorrelationData::getId).toList());
+        verify(operaciones, never()).waitForConfirmsOrDie(anyLong());
+        assertEquals(0, registry.get("eventos.confirmacion.en-vuelo").gauge().value());
+        assertEquals(2, registry.get("eventos.confirmacion.latencia").timer().count());
+    }
+
+    @Test
+    @DisplayName("Un nack del broker se cuenta y se descarta sin hacer fallar el lote")
+    void testPublicarLoteCorrelacionadoRechazado() {
+        // Arrange
+        RabbitOperations operaciones = mock(RabbitOperations.class);
+        EventoPublisher correlacionado = publisherCorrelacionado(operaciones, false);
+        EventoDominio evento = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "uno"));
+
+        // Act
+        correlacionado.publicarLote(List.of(evento));
+
+        // Assert
+        assertEquals(1, correlacionado.rechazados.get());
+    }
+
+    @Test
+    @DisplayName("Un evento devuelto por el broker no bloquea los eventos que le siguen")
+    void testPublicarLoteCorrelacionadoDevuelto() {
+        // Arrange
+        EventoDominio primero = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "uno"));
+        EventoDominio devuelto = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "dos"));
+        EventoDominio tercero = EventoDominio.of(TipoAccion.AUTENTICACION, Map.of("usuario", "tres"));
+        EventoDominio siguiente = EventoDominio.of(TipoAccion.AUTENTICACION, Map.of("usuario", "cuatro"));
+        RabbitOperations operaciones = mock(RabbitOperations.class);
+        EventoPublisher correlacionado = publisherCorrelacionado(operaciones, true, null, devuelto.id());
+
+        // Act
+        correlacionado.publicarLote(List.of(primero, devuelto, tercero));
+        correlacionado.publicarLote(List.of(siguiente));
+
+        // Assert
+        verify(operaciones, times(4)).convertAndSend(anyString(), anyString(), any(Object.class),
+                any(CorrelationData.class));
+        assertEquals(1, correlacionado.rechazados.get());
+    }
+
+    @Test
+    @DisplayName("Un nack por cierre del canal hace fallar el lote para reintentarlo")
+    void testPublicarLoteCorrelacionadoCanalCerrado() {
+        // Arrange
+        RabbitOperations operaciones = mock(RabbitOperations.class);
+        EventoPublisher correlacionado = publisherCorrelacionado(operaciones, false,
+                "Channel closed by application", null);
+        EventoDominio evento = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "uno"));
+
+        // Act & Assert
+        AmqpException error = assertThrows(AmqpException.class,
+                () -> correlacionado.publicarLote(List.of(evento)));
+        assertEquals("El broker no confirmó 1 de 1 eventos", error.getMessage());
+        assertEquals(0, correlacionado.rechazados.get());
+    }
+
+    @Test
+    @DisplayName("Sin confirmación dentro del plazo publicarLote falla por timeout")
+    @SuppressWarnings("unchecked")
+    void testPublicarLoteCorrelacionadoSinConfirmacion() {
+        // Arrange
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        RabbitOperations operaciones = mock(RabbitOperations.class);
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(invocacion ->
+                invocacion.<RabbitOperations.OperationsCallback<Object>>getArgument(0).doInRabbit(operaciones));
+        EventoPublisher correlacionado = new EventoPublisher(rabbitTemplate, null, false, 1, 1, 1,
+                PoliticaDesborde.LLAMADOR, 0, 0, 50);
+        EventoDominio evento = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "uno"));
+
+        // Act & Assert
+        assertThrows(AmqpTimeoutException.class, () -> correlacionado.publicarLote(List.of(evento)));
+    }
+
+    @Test
+    @DisplayName("Un lote vacío no abre canal")
+    @SuppressWarnings("unchecked")
+    void testPublicarLoteVacio() {
+        eventoPublisher.publicarLote(List.of());
+
+        verify(rabbitTemplate, never()).invoke(any(RabbitOperations.OperationsCallback.class));
+    }
+
+    @Test
+    @DisplayName("En modo asíncrono publicar no envía en el hilo que llama y el cierre drena la cola")
+    @SuppressWarnings("unchecked")
+    void testPublicarAsincrono() {
+        // Arrange
+        RabbitOperations operaciones = mock(RabbitOperations.class);
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(invocacion ->
+                invocacion.<RabbitOperations.OperationsCallback<Object>>getArgument(0).doInRabbit(operaciones));
+        EventoPublisher asincrono = new EventoPublisher(rabbitTemplate, null, true, 10, 1, 10,
+                PoliticaDesborde.LLAMADOR, 0, 5000, 5000);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        asincrono.bindTo(registry);
+        EventoDominio evento = EventoDominio.of(TipoAccion.AUTENTICACION, Map.of("usuario", "testuser"));
+
+        // Act
+        asincrono.publicar(evento);
+        asincrono.cerrar();
+
+        // Assert: incluso un solo evento sale por el lote con confirmaciones
+        verify(rabbitTemplate, times(1)).invoke(any(RabbitOperations.OperationsCallback.class));
+        verify(operaciones).convertAndSend("dominio.events", TipoAccion.AUTENTICACION.routingKey(), evento);
+        assertEquals(1, registry.get("eventos.cola.publicados").functionCounter().count());
+        assertEquals(0, registry.get("eventos.cola.tamano").gauge().value());
+    }
+}
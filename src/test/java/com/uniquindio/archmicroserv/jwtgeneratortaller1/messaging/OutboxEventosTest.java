@@ -0,0 +1,232 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.EventoDominio;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.EventoOutbox;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.TipoAccion;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories.EventoOutboxRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para OutboxEventos")
+class OutboxEventosTest {
+
+    @Mock
+    private EventoOutboxRepo outboxRepo;
+
+    @Mock
+    private EventoPublisher eventoPublisher;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private OutboxEventos outbox;
+
+    @BeforeEach
+    void setUp() {
+        outbox = new OutboxEventos(outboxRepo, eventoPublisher, objectMapper,
+                TransactionOperations.withoutTransaction(), true, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    /**
+     * Simula una transacción en curso con sincronización, como la de TransactionTemplate
+     */
+    private void iniciarTransaccion() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private void confirmarTransaccion() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private EventoOutbox guardado(EventoDominio evento) throws Exception {
+        return EventoOutbox.builder()
+                .id(evento.id())
+                .routingKey(evento.tipoAccion().routingKey())
+                .evento(objectMapper.writeValueAsString(evento))
+                .creado(evento.timestamp())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Con outbox el evento se guarda en la tabla y no se publica")
+    void testPublicarGuardaEnOutbox() {
+        // Arrange
+        EventoDominio evento = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "testuser"));
+        ArgumentCaptor<EventoOutbox> guardado = ArgumentCaptor.forClass(EventoOutbox.class);
+        iniciarTransaccion();
+
+        // Act
+        outbox.publicar(evento);
+
+        // Assert
+        verify(outboxRepo).save(guardado.capture());
+        assertEquals(evento.id(), guardado.getValue().getId());
+        assertEquals("auth.registered", guardado.getValue().getRoutingKey());
+        assertEquals(evento.timestamp(), guardado.getValue().getCreado());
+        verifyNoInteractions(eventoPublisher);
+    }
+
+    @Test
+    @DisplayName("Sin outbox el evento se publica directamente")
+    void testPublicarSinOutbox() {
+        // Arrange
+        OutboxEventos deshabilitado = new OutboxEventos(outboxRepo, eventoPublisher, objectMapper,
+                TransactionOperations.withoutTransaction(), false, 2);
+        EventoDominio evento = EventoDominio.of(TipoAccion.AUTENTICACION, Map.of("usuario", "testuser"));
+
+        // Act
+        deshabilitado.publicar(evento);
+        deshabilitado.relevar();
+
+        // Assert
+        verify(eventoPublisher).publicar(evento);
+        verifyNoInteractions(outboxRepo);
+    }
+
+    @Test
+    @DisplayName("Con outbox y sin transacción (login) el evento se publica sin escribir en la tabla")
+    void testPublicarSinTransaccion() {
+        // Arrange
+        EventoDominio evento = EventoDominio.of(TipoAccion.AUTENTICACION, Map.of("usuario", "testuser"));
+
+        // Act
+        outbox.publicar(evento);
+
+        // Assert
+        verify(eventoPublisher).publicar(evento);
+        verifyNoInteractions(outboxRepo);
+    }
+
+    @Test
+    @DisplayName("Sin outbox y dentro de una transacción el evento se publica solo después del commit")
+    void testPublicarSinOutboxDespuesDelCommit() {
+        // Arrange
+        OutboxEventos deshabilitado = new OutboxEventos(outboxRepo, eventoPublisher, objectMapper,
+                TransactionOperations.withoutTransaction(), false, 2);
+        EventoDominio evento = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "testuser"));
+        iniciarTransaccion();
+
+        // Act
+        deshabilitado.publicar(evento);
+        deshabilitado.publicarLote(List.of(evento));
+
+        // Assert: nada sale antes del commit
+        verifyNoInteractions(eventoPublisher);
+        confirmarTransaccion();
+        verify(eventoPublisher).publicar(evento);
+        verify(eventoPublisher).publicarLote(List.of(evento));
+    }
+
+    @Test
+    @DisplayName("Un fallo del broker después del commit no llega al llamador")
+    void testPublicarDespuesDelCommitFalla() {
+        // Arrange
+        OutboxEventos deshabilitado = new OutboxEventos(outboxRepo, eventoPublisher, objectMapper,
+                TransactionOperations.withoutTransaction(), false, 2);
+        EventoDominio evento = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "testuser"));
+        doThrow(new AmqpException("broker caído")).when(eventoPublisher).publicar(evento);
+        iniciarTransaccion();
+        deshabilitado.publicar(evento);
+
+        // Act & Assert: no lanza
+        confirmarTransaccion();
+        verify(eventoPublisher).publicar(evento);
+    }
+
+    @Test
+    @DisplayName("El relay publica el lote y lo elimina con un solo DELETE")
+    @SuppressWarnings("unchecked")
+    void testRelevarPublicaYElimina() throws Exception {
+        // Arrange
+        EventoDominio primero = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "uno"));
+        EventoDominio segundo = EventoDominio.of(TipoAccion.AUTENTICACION, Map.of("usuario", "dos"));
+        EventoDominio tercero = EventoDominio.of(TipoAccion.AUTENTICACION, Map.of("usuario", "tres"));
+        when(outboxRepo.tomarPendientes(2))
+                .thenReturn(List.of(guardado(primero), guardado(segundo)))
+                .thenReturn(List.of(guardado(tercero)));
+        ArgumentCaptor<List<EventoDominio>> publicados = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        outbox.relevar();
+
+        // Assert: el primer lote vino completo, así que se tomó otro
+        verify(eventoPublisher, times(2)).publicarLote(publicados.capture());
+        assertEquals(List.of(primero, segundo), publicados.getAllValues().get(0));
+        assertEquals(List.of(tercero), publicados.getAllValues().get(1));
+        verify(outboxRepo).eliminar(List.of(primero.id(), segundo.id()));
+        verify(outboxRepo).eliminar(List.of(tercero.id()));
+        assertEquals(3, outbox.relevados.get());
+    }
+
+    @Test
+    @DisplayName("Si el broker falla el lote no se elimina y se reintenta después")
+    void testRelevarFalloNoElimina() throws Exception {
+        // Arrange
+        EventoDominio evento = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "uno"));
+        when(outboxRepo.tomarPendientes(2)).thenReturn(List.of(guardado(evento)));
+        doThrow(new AmqpException("broker caído")).when(eventoPublisher).publicarLote(anyList());
+
+        // Act
+        outbox.relevar();
+
+        // Assert
+        verify(outboxRepo, never()).eliminar(anyCollection());
+        assertEquals(1, outbox.fallidos.get());
+        assertEquals(0, outbox.relevados.get());
+    }
+
+    @Test
+    @DisplayName("Un evento ilegible se descarta sin bloquear el resto del lote")
+    @SuppressWarnings("unchecked")
+    void testRelevarEventoIlegible() throws Exception {
+        // Arrange
+        EventoDominio evento = EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", "uno"));
+        EventoOutbox ilegible = EventoOutbox.builder().id("roto").routingKey("auth.registered")
+                .evento("{no es json").creado(evento.timestamp()).build();
+        when(outboxRepo.tomarPendientes(2)).thenReturn(List.of(ilegible, guardado(evento)), List.of());
+        ArgumentCaptor<List<EventoDominio>> publicados = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        outbox.relevar();
+
+        // Assert
+        verify(eventoPublisher).publicarLote(publicados.capture());
+        assertEquals(List.of(evento), publicados.getValue());
+        verify(outboxRepo).eliminar(List.of("roto", evento.id()));
+        verify(outboxRepo, never()).save(any());
+    }
+}
@@ -0,0 +1,144 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.EventoDominio;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging.SpoolEventos.PoliticaFsync;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.TipoAccion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.net.ConnectException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Tests unitarios para SpoolEventos")
+class SpoolEventosTest {
+
+    @TempDir
+    Path directorio;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final List<SpoolEventos> abiertos = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        abiertos.forEach(SpoolEventos::cerrar);
+    }
+
+    /**
+     * Spool con un reintento largo: el hilo de reenvío no interfiere y los
+     * tests llaman a reenviarLote directamente
+     */
+    private SpoolEventos spool(int capacidadMb) {
+        SpoolEventos spool = new SpoolEventos(objectMapper, true, directorio.resolve("spool.dat"),
+                capacidadMb, PoliticaFsync.NUNCA, 1000, 60_000, 2);
+        abiertos.add(spool);
+        return spool;
+    }
+
+    private static EventoDominio evento(String usuario) {
+        return EventoDominio.of(TipoAccion.REGISTRO_USUARIO, Map.of("usuario", usuario));
+    }
+
+    @Test
+    @DisplayName("Reenvía los eventos en orden y solo los consume si el envío tiene éxito")
+    void testReenviarEnOrden() {
+        // Arrange
+        SpoolEventos spool = spool(1);
+        List<EventoDominio> enviados = new ArrayList<>();
+        spool.iniciar(lote -> { });
+        EventoDominio primero = evento("uno");
+        EventoDominio segundo = evento("dos");
+        EventoDominio tercero = evento("tres");
+        assertTrue(spool.agregar(List.of(primero, segundo, tercero)));
+
+        // Act & Assert: con el broker caído el lote queda en el spool
+        assertThrows(AmqpConnectException.class, () -> spool.reenviarLote(lote -> {
+            throw new AmqpConnectException(new ConnectException("broker caído"));
+        }));
+        assertTrue(spool.tienePendientes());
+
+        assertTrue(spool.reenviarLote(enviados::addAll));
+        assertTrue(spool.reenviarLote(enviados::addAll));
+        assertFalse(spool.reenviarLote(enviados::addAll));
+
+        assertEquals(List.of(primero, segundo, tercero), enviados);
+        assertFalse(spool.tienePendientes());
+        assertEquals(3, spool.reenviados.get());
+    }
+
+    @Test
+    @DisplayName("Los eventos pendientes sobreviven al reinicio")
+    void testPendientesTrasReinicio() {
+        // Arrange
+        SpoolEventos anterior = spool(1);
+        anterior.iniciar(lote -> {
+            throw new AmqpConnectException(new ConnectException("broker caído"));
+        });
+        EventoDominio evento = evento("uno");
+        anterior.agregar(List.of(evento));
+        anterior.cerrar();
+        List<EventoDominio> enviados = new ArrayList<>();
+
+        // Act
+        SpoolEventos nuevo = spool(1);
+        nuevo.iniciar(lote -> { });
+        nuevo.reenviarLote(enviados::addAll);
+
+        // Assert
+        assertEquals(List.of(evento), enviados);
+    }
+
+    @Test
+    @DisplayName("Sin spool el publisher propaga el error; con spool lo guarda y no falla")
+    void testPublisherGuardaEnSpool() {
+        // Arrange
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        doThrow(new AmqpConnectException(new ConnectException("broker caído")))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+        SpoolEventos spool = spool(1);
+        EventoPublisher sinSpool = new EventoPublisher(rabbitTemplate);
+        EventoPublisher conSpool = new EventoPublisher(rabbitTemplate, spool, false, 1, 1, 1,
+                ColaEventos.PoliticaDesborde.LLAMADOR, 0, 0, 5000);
+        EventoDominio evento = evento("uno");
+
+        // Act & Assert
+        assertThrows(AmqpConnectException.class, () -> sinSpool.publicar(evento));
+        conSpool.publicar(evento);
+        assertTrue(spool.tienePendientes());
+        assertEquals(1, spool.almacenados.get());
+    }
+
+    @Test
+    @DisplayName("Con el spool lleno el error del envío se propaga")
+    void testSpoolLleno() {
+        // Arrange
+        SpoolEventos spool = new SpoolEventos(objectMapper, true, directorio.resolve("lleno.dat"),
+                0, PoliticaFsync.NUNCA, 1000, 60_000, 2);
+        abiertos.add(spool);
+        spool.iniciar(lote -> { });
+
+        // Act
+        boolean guardado = spool.agregar(List.of(evento("uno")));
+
+        // Assert
+        assertFalse(guardado);
+        assertEquals(1, spool.rechazados.get());
+    }
+}
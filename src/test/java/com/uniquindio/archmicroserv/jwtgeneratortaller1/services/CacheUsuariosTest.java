@@ -0,0 +1,101 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.services;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.UsuarioCredenciales;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.Rol;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories.UsuarioRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para CacheUsuarios")
+class CacheUsuariosTest {
+
+    @Mock
+    private UsuarioRepo usuarioRepo;
+
+    private UsuarioCredenciales usuario;
+
+    @BeforeEach
+    void setUp() {
+        usuario = new UsuarioCredenciales("testuser", "test@email.com", "$2a$10$hash", "+573001234567", Rol.CLIENTE);
+    }
+
+    @Test
+    @DisplayName("La segunda lectura se sirve desde la caché y se mide la tasa de aciertos")
+    void testLecturaDesdeCache() {
+        // Arrange
+        CacheUsuarios cache = new CacheUsuarios(usuarioRepo, true, 100, 60);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        when(usuarioRepo.buscarCredenciales("testuser")).thenReturn(Optional.of(usuario));
+
+        // Act
+        Optional<UsuarioCredenciales> primera = cache.buscar("testuser");
+        Optional<UsuarioCredenciales> segunda = cache.buscar("testuser");
+
+        // Assert
+        assertSame(primera.orElseThrow(), segunda.orElseThrow());
+        verify(usuarioRepo, times(1)).buscarCredenciales("testuser");
+        assertEquals(1, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Los usuarios inexistentes no se guardan en caché")
+    void testUsuarioInexistenteNoSeGuarda() {
+        // Arrange
+        CacheUsuarios cache = new CacheUsuarios(usuarioRepo, true, 100, 60);
+        when(usuarioRepo.buscarCredenciales("nuevo")).thenReturn(Optional.empty()).thenReturn(Optional.of(usuario));
+
+        // Act & Assert
+        assertTrue(cache.buscar("nuevo").isEmpty());
+        assertTrue(cache.buscar("nuevo").isPresent());
+        assertEquals(1, cache.tamano());
+    }
+
+    @Test
+    @DisplayName("Invalidar obliga a leer de nuevo del repositorio")
+    void testInvalidar() {
+        // Arrange
+        CacheUsuarios cache = new CacheUsuarios(usuarioRepo, true, 100, 60);
+        when(usuarioRepo.buscarCredenciales("testuser")).thenReturn(Optional.of(usuario));
+        cache.buscar("testuser");
+
+        // Act
+        cache.invalidar("testuser");
+        cache.buscar("testuser");
+
+        // Assert
+        verify(usuarioRepo, times(2)).buscarCredenciales("testuser");
+    }
+
+    @Test
+    @DisplayName("Deshabilitada, cada lectura consulta el repositorio")
+    void testDeshabilitada() {
+        // Arrange
+        CacheUsuarios cache = new CacheUsuarios(usuarioRepo, false, 100, 60);
+        when(usuarioRepo.buscarCredenciales("testuser")).thenReturn(Optional.of(usuario));
+
+        // Act
+        cache.buscar("testuser");
+        cache.buscar("testuser");
+
+        // Assert
+        verify(usuarioRepo, times(2)).buscarCredenciales("testuser");
+        assertEquals(0, cache.tamano());
+    }
+}
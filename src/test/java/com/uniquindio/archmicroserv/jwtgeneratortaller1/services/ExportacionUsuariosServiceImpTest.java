@@ -0,0 +1,115 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.ExportacionUsuariosServiceImp.FormatoExportacion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Tests unitarios para ExportacionUsuariosServiceImp")
+class ExportacionUsuariosServiceImpTest {
+
+    private ExportacionUsuariosServiceImp exportacionService;
+
+    @BeforeEach
+    void setUp() {
+        // Base de datos H2 en memoria propia de cada prueba
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE usuarios (usuario VARCHAR(255) PRIMARY KEY, correo VARCHAR(255), " +
+                "clave VARCHAR(255), numero_telefono VARCHAR(255), rol INTEGER NOT NULL)");
+        jdbcTemplate.update("INSERT INTO usuarios VALUES ('beto', 'beto@test.com', 'secreta', '+572', 0)");
+        jdbcTemplate.update("INSERT INTO usuarios VALUES ('ana', 'ana,\"a\"@test.com', 'secreta', '+571', 1)");
+        jdbcTemplate.update("INSERT INTO usuarios VALUES ('carla', 'carla@test.com', 'secreta', '+573', 0)");
+        exportacionService = new ExportacionUsuariosServiceImp(jdbcTemplate, new ObjectMapper(), 2);
+    }
+
+    @Test
+    @DisplayName("Exporta NDJSON ordenado por usuario y sin clave")
+    void testExportarNdjson() throws Exception {
+        // Arrange
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // Act
+        long filas = exportacionService.exportar(salida, FormatoExportacion.NDJSON);
+
+        // Assert
+        assertEquals(3, filas);
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lineas.length);
+        assertEquals("{\"usuario\":\"ana\",\"correo\":\"ana,\\\"a\\\"@test.com\",\"numeroTelefono\":\"+571\"," +
+                "\"rol\":\"CLIENTE\"}", lineas[0]);
+        assertTrue(lineas[2].startsWith("{\"usuario\":\"carla\""));
+        assertFalse(salida.toString(StandardCharsets.UTF_8).contains("secreta"));
+    }
+
+    @Test
+    @DisplayName("Exporta CSV con encabezado y escapa los campos")
+    void testExportarCsv() throws Exception {
+        // Arrange
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // Act
+        exportacionService.exportar(salida, FormatoExportacion.CSV);
+
+        // Assert
+        assertEquals("usuario,correo,numeroTelefono,rol\n" +
+                "ana,\"ana,\"\"a\"\"@test.com\",+571,CLIENTE\n" +
+                "beto,beto@test.com,+572,ADMIN\n" +
+                "carla,carla@test.com,+573,ADMIN\n", salida.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Vacía la salida tras la primera fila y cada fetch size filas")
+    void testExportarVaciaPorBloques() throws Exception {
+        // Arrange
+        int[] vaciados = {0};
+        OutputStream salida = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void flush() {
+                vaciados[0]++;
+            }
+        };
+
+        // Act
+        exportacionService.exportar(salida, FormatoExportacion.CSV);
+
+        // Assert: fila 1, fila 2 (fetch size) y el cierre
+        assertEquals(3, vaciados[0]);
+    }
+
+    @Test
+    @DisplayName("Propaga el error de escritura cuando el cliente se desconecta")
+    void testExportarClienteDesconectado() {
+        // Arrange
+        OutputStream salida = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // Act & Assert
+        IOException exception = assertThrows(IOException.class,
+                () -> exportacionService.exportar(salida, FormatoExportacion.NDJSON));
+        assertEquals("Broken pipe", exception.getMessage());
+    }
+}
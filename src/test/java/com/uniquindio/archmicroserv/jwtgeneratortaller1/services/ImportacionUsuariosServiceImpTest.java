@@ -0,0 +1,247 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.HashClaves;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.EventoDominio;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.ResultadoImportacionDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.ResultadoImportacionDTO.FilaRechazada;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging.EventoPublisher;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging.OutboxEventos;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.services.ImportacionUsuariosServiceImp.FormatoImportacion;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.StringReader;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para ImportacionUsuariosServiceImp")
+class ImportacionUsuariosServiceImpTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private HashClaves hashClaves;
+
+    @Mock
+    private EventoPublisher eventoPublisher;
+
+    private ImportacionUsuariosServiceImp importacionService;
+
+    @BeforeEach
+    void setUp() {
+        importacionService = new ImportacionUsuariosServiceImp(jdbcTemplate, hashClaves, sinOutbox(),
+                TransactionOperations.withoutTransaction(), new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(), 2, 100, 100);
+    }
+
+    /**
+     * Sin outbox los eventos van directo al publisher simulado
+     */
+    private OutboxEventos sinOutbox() {
+        return new OutboxEventos(null, eventoPublisher, new ObjectMapper(),
+                TransactionOperations.withoutTransaction(), false, 100);
+    }
+
+    private void simularHash() {
+        when(hashClaves.hashearLote(anyList())).thenAnswer(invocacion ->
+                invocacion.<List<String>>getArgument(0).stream().map(clave -> "$2a$10$" + clave).toList());
+    }
+
+    @Test
+    @DisplayName("Importa NDJSON en lotes y reporta conflictos y filas inválidas")
+    @SuppressWarnings("unchecked")
+    void testImportarNdjson() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"usuario":"uno","correo":"uno@test.com","clave":"c1","numeroTelefono":"+571"}
+                {"usuario":"dos","correo":"dos@test.com","clave":"c2","numeroTelefono":"+572"}
+
+                {"usuario":"tres","clave":"c3","numeroTelefono":"+573"}
+                no es json
+                {"usuario":"cuatro","correo":"cuatro@test.com","clave":"c4","numeroTelefono":"+574"}
+                """;
+        simularHash();
+        when(jdbcTemplate.batchUpdate(eq(ImportacionUsuariosServiceImp.SQL_INSERTAR), anyList()))
+                .thenReturn(new int[]{1, 0}, new int[]{1});
+
+        // Act
+        ResultadoImportacionDTO resultado = importacionService.importar(new StringReader(ndjson),
+                FormatoImportacion.NDJSON, false);
+
+        // Assert
+        assertEquals(5, resultado.procesadas());
+        assertEquals(2, resultado.creados());
+        assertEquals(1, resultado.conflictos());
+        assertEquals(2, resultado.invalidas());
+        assertFalse(resultado.truncado());
+        // El primer lote se inserta antes de leer las filas inválidas
+        assertEquals(List.of(
+                new FilaRechazada(2, "dos", "El usuario ya existe"),
+                new FilaRechazada(4, "tres", "correo es obligatorio"),
+                new FilaRechazada(5, null, "JSON inválido")), resultado.rechazadas());
+
+        ArgumentCaptor<List<Object[]>> argumentos = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(ImportacionUsuariosServiceImp.SQL_INSERTAR), argumentos.capture());
+        assertArrayEquals(new Object[]{"uno", "uno@test.com", "$2a$10$c1", "+571", 1},
+                argumentos.getAllValues().get(0).get(0));
+
+        ArgumentCaptor<List<EventoDominio>> eventos = ArgumentCaptor.forClass(List.class);
+        verify(eventoPublisher, times(2)).publicarLote(eventos.capture());
+        assertEquals(Map.of("usuario", "uno", "correo", "uno@test.com", "numeroTelefono", "+571"),
+                eventos.getAllValues().get(0).get(0).payload());
+        assertEquals(1, eventos.getAllValues().get(0).size());
+        assertEquals(1, eventos.getAllValues().get(1).size());
+    }
+
+    @Test
+    @DisplayName("Importa CSV con encabezado en cualquier orden y comillas")
+    void testImportarCsv() throws Exception {
+        // Arrange
+        String csv = """
+                correo,usuario,numeroTelefono,clave
+                uno@test.com,uno,+571,"c,1"
+                """;
+        simularHash();
+        when(jdbcTemplate.batchUpdate(eq(ImportacionUsuariosServiceImp.SQL_INSERTAR), anyList()))
+                .thenReturn(new int[]{1});
+
+        // Act
+        ResultadoImportacionDTO resultado = importacionService.importar(new StringReader(csv), FormatoImportacion.CSV, false);
+
+        // Assert
+        assertEquals(1, resultado.procesadas());
+        assertEquals(1, resultado.creados());
+        assertTrue(resultado.rechazadas().isEmpty());
+        verify(hashClaves).hashearLote(List.of("c,1"));
+    }
+
+    @Test
+    @DisplayName("Con clavesHasheadas guarda los hashes BCrypt tal cual y rechaza los demás valores")
+    @SuppressWarnings("unchecked")
+    void testImportarClavesHasheadas() throws Exception {
+        // Arrange
+        String hash = "$2a$10$" + "a".repeat(53);
+        String ndjson = """
+                {"usuario":"uno","correo":"uno@test.com","clave":"%s","numeroTelefono":"+571"}
+                {"usuario":"dos","correo":"dos@test.com","clave":"$2clave-en-claro","numeroTelefono":"+572"}
+                """.formatted(hash);
+        when(jdbcTemplate.batchUpdate(eq(ImportacionUsuariosServiceImp.SQL_INSERTAR), anyList()))
+                .thenReturn(new int[]{1});
+
+        // Act
+        ResultadoImportacionDTO resultado = importacionService.importar(new StringReader(ndjson),
+                FormatoImportacion.NDJSON, true);
+
+        // Assert
+        assertEquals(1, resultado.creados());
+        assertEquals(List.of(new FilaRechazada(2, "dos", ImportacionUsuariosServiceImp.MSG_HASH_INVALIDO)),
+                resultado.rechazadas());
+        ArgumentCaptor<List<Object[]>> argumentos = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(ImportacionUsuariosServiceImp.SQL_INSERTAR), argumentos.capture());
+        assertEquals(hash, argumentos.getValue().get(0)[2]);
+        verify(hashClaves, never()).hashearLote(anyList());
+    }
+
+    @Test
+    @DisplayName("Rechaza un CSV sin las columnas requeridas")
+    void testEncabezadoCsvInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> importacionService.importar(
+                new StringReader("usuario,correo\nuno,uno@test.com\n"), FormatoImportacion.CSV, false));
+        verify(jdbcTemplate, never()).batchUpdate(eq(ImportacionUsuariosServiceImp.SQL_INSERTAR), anyList());
+    }
+
+    @Test
+    @DisplayName("Deja de leer al superar el máximo de filas")
+    void testMaximoDeFilas() throws Exception {
+        // Arrange
+        importacionService = new ImportacionUsuariosServiceImp(jdbcTemplate, hashClaves, sinOutbox(),
+                TransactionOperations.withoutTransaction(), new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(), 10, 1, 100);
+        String ndjson = """
+                {"usuario":"uno","correo":"uno@test.com","clave":"c1","numeroTelefono":"+571"}
+                {"usuario":"dos","correo":"dos@test.com","clave":"c2","numeroTelefono":"+572"}
+                """;
+        simularHash();
+        when(jdbcTemplate.batchUpdate(eq(ImportacionUsuariosServiceImp.SQL_INSERTAR), anyList()))
+                .thenReturn(new int[]{1});
+
+        // Act
+        ResultadoImportacionDTO resultado = importacionService.importar(new StringReader(ndjson),
+                FormatoImportacion.NDJSON, false);
+
+        // Assert
+        assertEquals(1, resultado.procesadas());
+        assertTrue(resultado.truncado());
+    }
+
+    @Test
+    @DisplayName("Limita el detalle de filas rechazadas y marca el truncado")
+    void testMaximoDeRechazadas() throws Exception {
+        // Arrange
+        importacionService = new ImportacionUsuariosServiceImp(jdbcTemplate, hashClaves, sinOutbox(),
+                TransactionOperations.withoutTransaction(), new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(), 10, 100, 1);
+        String ndjson = """
+                no es json
+                {"usuario":"uno","correo":"uno@test.com","clave":"c1","numeroTelefono":"+571"}
+                """;
+        simularHash();
+        when(jdbcTemplate.batchUpdate(eq(ImportacionUsuariosServiceImp.SQL_INSERTAR), anyList()))
+                .thenReturn(new int[]{0});
+
+        // Act
+        ResultadoImportacionDTO resultado = importacionService.importar(new StringReader(ndjson),
+                FormatoImportacion.NDJSON, false);
+
+        // Assert
+        assertEquals(1, resultado.invalidas());
+        assertEquals(1, resultado.conflictos());
+        assertEquals(List.of(new FilaRechazada(1, null, "JSON inválido")), resultado.rechazadas());
+        assertTrue(resultado.rechazadasTruncadas());
+    }
+
+    @Test
+    @DisplayName("Falla si el driver no informa el resultado por fila y no publica eventos")
+    void testBatchSinResultadoPorFila() {
+        // Arrange
+        String ndjson = """
+                {"usuario":"uno","correo":"uno@test.com","clave":"c1","numeroTelefono":"+571"}
+                """;
+        simularHash();
+        when(jdbcTemplate.batchUpdate(eq(ImportacionUsuariosServiceImp.SQL_INSERTAR), anyList()))
+                .thenReturn(new int[]{Statement.SUCCESS_NO_INFO});
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> importacionService.importar(new StringReader(ndjson),
+                FormatoImportacion.NDJSON, false));
+        verify(eventoPublisher, never()).publicarLote(anyList());
+    }
+
+    @Test
+    @DisplayName("Divide líneas CSV respetando comillas escapadas")
+    void testDividirCsv() {
+        assertEquals(List.of("a", "b \"c\"", ""), ImportacionUsuariosServiceImp.dividirCsv("a,\"b \"\"c\"\"\","));
+        assertThrows(IllegalArgumentException.class, () -> ImportacionUsuariosServiceImp.dividirCsv("\"a,b"));
+    }
+}
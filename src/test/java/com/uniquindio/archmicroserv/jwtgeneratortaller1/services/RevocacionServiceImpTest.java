@@ -0,0 +1,152 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.services;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.VerifiedToken;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.Revocacion;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories.RevocacionRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para RevocacionServiceImp")
+class RevocacionServiceImpTest {
+
+    private static final Instant AHORA = Instant.parse("2025-01-10T12:00:00Z");
+
+    @Mock
+    private RevocacionRepo revocacionRepo;
+
+    @Mock
+    private JWTUtils jwtUtils;
+
+    private RevocacionServiceImp revocacionService;
+
+    @BeforeEach
+    void setUp() {
+        revocacionService = new RevocacionServiceImp(revocacionRepo, jwtUtils);
+        revocacionService.clock = Clock.fixed(AHORA, ZoneOffset.UTC);
+    }
+
+    @Test
+    @DisplayName("Revocar un usuario guarda la revocación compartida y la aplica localmente")
+    void testRevocarUsuario() {
+        // Arrange
+        when(jwtUtils.vidaTokens()).thenReturn(Duration.ofSeconds(930));
+
+        // Act
+        revocacionService.revocarUsuario("testuser");
+
+        // Assert
+        ArgumentCaptor<Revocacion> captor = ArgumentCaptor.forClass(Revocacion.class);
+        verify(revocacionRepo).save(captor.capture());
+        Revocacion revocacion = captor.getValue();
+        assertEquals("testuser", revocacion.getUsuario());
+        assertNull(revocacion.getJti());
+        assertEquals(AHORA, revocacion.getCorte());
+        assertEquals(AHORA.plusSeconds(930), revocacion.getVence());
+        verify(jwtUtils).revocarUsuario("testuser", AHORA, AHORA.plusSeconds(930));
+    }
+
+    @Test
+    @DisplayName("Revocar un token guarda su jti hasta el fin de su validez")
+    void testRevocarToken() {
+        // Arrange
+        VerifiedToken token = new VerifiedToken("test@email.com", "issuer", "CLIENTE", "testuser",
+                AHORA.plusSeconds(900), "jti-1", AHORA);
+        when(jwtUtils.finValidez(token)).thenReturn(AHORA.plusSeconds(930));
+
+        // Act
+        revocacionService.revocarToken(token);
+
+        // Assert
+        ArgumentCaptor<Revocacion> captor = ArgumentCaptor.forClass(Revocacion.class);
+        verify(revocacionRepo).save(captor.capture());
+        assertEquals("jti-1", captor.getValue().getJti());
+        assertEquals(AHORA.plusSeconds(930), captor.getValue().getVence());
+        verify(jwtUtils).revocarToken("jti-1", AHORA.plusSeconds(930));
+    }
+
+    @Test
+    @DisplayName("Los tokens sin jti no generan revocaciones por token")
+    void testRevocarTokenSinJti() {
+        // Arrange
+        VerifiedToken token = new VerifiedToken("test@email.com", "issuer", "CLIENTE", "testuser",
+                AHORA.plusSeconds(900), null, AHORA);
+        when(jwtUtils.finValidez(token)).thenReturn(AHORA.plusSeconds(930));
+
+        // Act
+        revocacionService.revocarToken(token);
+
+        // Assert
+        verify(revocacionRepo, never()).save(any(Revocacion.class));
+    }
+
+    @Test
+    @DisplayName("La carga inicial aplica todas las revocaciones vigentes registradas por cualquier instancia")
+    void testCargarRevocacionesVigentes() {
+        // Arrange
+        Revocacion porToken = Revocacion.builder().id("r1").jti("jti-1")
+                .vence(AHORA.plusSeconds(300)).creado(AHORA.minusSeconds(600)).build();
+        Revocacion porUsuario = Revocacion.builder().id("r2").usuario("testuser").corte(AHORA.minusSeconds(100))
+                .vence(AHORA.plusSeconds(800)).creado(AHORA.minusSeconds(100)).build();
+        when(revocacionRepo.buscarVigentes(AHORA)).thenReturn(List.of(porToken, porUsuario));
+
+        // Act
+        revocacionService.cargar();
+
+        // Assert
+        verify(jwtUtils).revocarToken("jti-1", AHORA.plusSeconds(300));
+        verify(jwtUtils).revocarUsuario("testuser", AHORA.minusSeconds(100), AHORA.plusSeconds(800));
+    }
+
+    @Test
+    @DisplayName("Las sincronizaciones siguientes solo consultan las revocaciones recientes")
+    void testSincronizarIncremental() {
+        // Arrange
+        when(revocacionRepo.buscarVigentes(AHORA)).thenReturn(List.of());
+        revocacionService.cargar();
+        Revocacion remota = Revocacion.builder().id("r3").usuario("otro").corte(AHORA)
+                .vence(AHORA.plusSeconds(900)).creado(AHORA).build();
+        when(revocacionRepo.buscarCreadasDesde(AHORA.minusSeconds(60), AHORA)).thenReturn(List.of(remota));
+
+        // Act
+        revocacionService.sincronizar();
+
+        // Assert
+        verify(jwtUtils).revocarUsuario("otro", AHORA, AHORA.plusSeconds(900));
+    }
+
+    @Test
+    @DisplayName("Si la base de datos no responde al iniciar, la siguiente sincronización repite la carga completa")
+    void testCargarSinBaseDeDatos() {
+        // Arrange
+        when(revocacionRepo.buscarVigentes(AHORA))
+                .thenThrow(new IllegalStateException("sin conexión"))
+                .thenReturn(List.of());
+
+        // Act
+        revocacionService.cargar();
+        revocacionService.sincronizar();
+
+        // Assert
+        verify(revocacionRepo, never()).buscarCreadasDesde(any(), any());
+    }
+}
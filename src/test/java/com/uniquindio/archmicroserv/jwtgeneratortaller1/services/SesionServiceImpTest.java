@@ -0,0 +1,220 @@
+package com.uniquindio.archmicroserv.jwtgeneratortaller1.services;
+
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.TokenDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.SesionInvalidaException;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.SesionRefresco;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.UsuarioCredenciales;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.Rol;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories.SesionRefrescoRepo;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories.UsuarioRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tests unitarios para SesionServiceImp")
+class SesionServiceImpTest {
+
+    private static final Instant AHORA = Instant.parse("2025-01-10T12:00:00Z");
+
+    @Mock
+    private SesionRefrescoRepo sesionRefrescoRepo;
+
+    @Mock
+    private UsuarioRepo usuarioRepo;
+
+    @Mock
+    private JWTUtils jwtUtils;
+
+    @Mock
+    private RevocacionServiceImp revocacionService;
+
+    private SesionServiceImp sesionService;
+
+    @BeforeEach
+    void setUp() {
+        sesionService = new SesionServiceImp(sesionRefrescoRepo, usuarioRepo, jwtUtils, revocacionService);
+        sesionService.clock = Clock.fixed(AHORA, ZoneOffset.UTC);
+        ReflectionTestUtils.setField(sesionService, "expiracionSegundos", 3600L);
+        ReflectionTestUtils.setField(sesionService, "duracionMaximaSegundos", 7200L);
+    }
+
+    @Test
+    @DisplayName("Crear sesión guarda solo el hash del token de refresco")
+    void testCrearSesion() {
+        // Act
+        String refreshToken = sesionService.crearSesion("testuser");
+
+        // Assert
+        ArgumentCaptor<SesionRefresco> captor = ArgumentCaptor.forClass(SesionRefresco.class);
+        verify(sesionRefrescoRepo).save(captor.capture());
+        SesionRefresco sesion = captor.getValue();
+        assertNotEquals(refreshToken, sesion.getId());
+        assertEquals(64, sesion.getId().length());
+        assertEquals("testuser", sesion.getUsuario());
+        assertEquals(LocalDateTime.of(2025, 1, 10, 13, 0), sesion.getExpira());
+    }
+
+    @Test
+    @DisplayName("Refrescar rota el token y emite un token de acceso con los datos actuales del usuario")
+    void testRefrescarExitoso() {
+        // Arrange
+        String refreshToken = sesionService.crearSesion("testuser");
+        ArgumentCaptor<SesionRefresco> captor = ArgumentCaptor.forClass(SesionRefresco.class);
+        verify(sesionRefrescoRepo).save(captor.capture());
+        SesionRefresco sesion = captor.getValue();
+        when(sesionRefrescoRepo.findById(sesion.getId())).thenReturn(Optional.of(sesion));
+        when(sesionRefrescoRepo.eliminarPorId(sesion.getId())).thenReturn(1);
+        when(usuarioRepo.buscarCredenciales("testuser")).thenReturn(Optional.of(credenciales(Rol.CLIENTE)));
+        when(jwtUtils.generarToken("test@email.com",
+                Map.of("usuario", "testuser", "correo", "test@email.com", "rol", "CLIENTE")))
+                .thenReturn("nuevo-jwt");
+
+        // Act
+        TokenDTO resultado = sesionService.refrescar(refreshToken);
+
+        // Assert
+        assertEquals("nuevo-jwt", resultado.token());
+        assertNotEquals(refreshToken, resultado.refreshToken());
+        verify(sesionRefrescoRepo, times(2)).save(any(SesionRefresco.class));
+    }
+
+    @Test
+    @DisplayName("La ventana deslizante no supera la duración máxima de la sesión")
+    void testRefrescarRespetaDuracionMaxima() {
+        // Arrange: sesión iniciada hace 90 minutos, el máximo es de 2 horas
+        SesionRefresco sesion = SesionRefresco.builder()
+                .id("id").usuario("testuser")
+                .inicioSesion(LocalDateTime.of(2025, 1, 10, 10, 30))
+                .expira(LocalDateTime.of(2025, 1, 10, 12, 30))
+                .build();
+        when(sesionRefrescoRepo.findById(anyString())).thenReturn(Optional.of(sesion));
+        when(sesionRefrescoRepo.eliminarPorId(anyString())).thenReturn(1);
+        when(usuarioRepo.buscarCredenciales("testuser")).thenReturn(Optional.of(credenciales(Rol.CLIENTE)));
+
+        // Act
+        sesionService.refrescar("token");
+
+        // Assert
+        ArgumentCaptor<SesionRefresco> captor = ArgumentCaptor.forClass(SesionRefresco.class);
+        verify(sesionRefrescoRepo).save(captor.capture());
+        assertEquals(LocalDateTime.of(2025, 1, 10, 12, 30), captor.getValue().getExpira());
+    }
+
+    @Test
+    @DisplayName("Refrescar emite el rol actual del usuario, no el que tenía al hacer login")
+    void testRefrescarUsaRolActual() {
+        // Arrange: el usuario pasó a ADMIN después del login
+        SesionRefresco sesion = SesionRefresco.builder()
+                .id("id").usuario("testuser")
+                .inicioSesion(LocalDateTime.of(2025, 1, 10, 11, 0))
+                .expira(LocalDateTime.of(2025, 1, 10, 12, 30))
+                .build();
+        when(sesionRefrescoRepo.findById(anyString())).thenReturn(Optional.of(sesion));
+        when(sesionRefrescoRepo.eliminarPorId(anyString())).thenReturn(1);
+        when(usuarioRepo.buscarCredenciales("testuser")).thenReturn(Optional.of(credenciales(Rol.ADMIN)));
+
+        // Act
+        sesionService.refrescar("token");
+
+        // Assert
+        verify(jwtUtils).generarToken("test@email.com",
+                Map.of("usuario", "testuser", "correo", "test@email.com", "rol", "ADMIN"));
+        verify(sesionRefrescoRepo).save(any(SesionRefresco.class));
+    }
+
+    @Test
+    @DisplayName("Refrescar falla si el usuario de la sesión ya no existe")
+    void testRefrescarUsuarioEliminado() {
+        // Arrange
+        SesionRefresco sesion = SesionRefresco.builder()
+                .id("id").usuario("testuser")
+                .inicioSesion(LocalDateTime.of(2025, 1, 10, 11, 0))
+                .expira(LocalDateTime.of(2025, 1, 10, 12, 30))
+                .build();
+        when(sesionRefrescoRepo.findById(anyString())).thenReturn(Optional.of(sesion));
+        when(sesionRefrescoRepo.eliminarPorId(anyString())).thenReturn(1);
+        when(usuarioRepo.buscarCredenciales("testuser")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(SesionInvalidaException.class, () -> sesionService.refrescar("token"));
+        verify(sesionRefrescoRepo, never()).save(any(SesionRefresco.class));
+        verify(jwtUtils, never()).generarToken(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Refrescar con una sesión expirada la elimina y falla")
+    void testRefrescarSesionExpirada() {
+        // Arrange
+        SesionRefresco sesion = SesionRefresco.builder()
+                .id("id").usuario("testuser")
+                .inicioSesion(LocalDateTime.of(2025, 1, 10, 9, 0))
+                .expira(LocalDateTime.of(2025, 1, 10, 11, 0))
+                .build();
+        when(sesionRefrescoRepo.findById(anyString())).thenReturn(Optional.of(sesion));
+        when(sesionRefrescoRepo.eliminarPorId(anyString())).thenReturn(1);
+
+        // Act & Assert
+        SesionInvalidaException e = assertThrows(SesionInvalidaException.class,
+                () -> sesionService.refrescar("token"));
+        assertEquals("La sesión ha expirado", e.getMessage());
+        verify(sesionRefrescoRepo, never()).save(any(SesionRefresco.class));
+    }
+
+    @Test
+    @DisplayName("Un token de refresco ya usado no puede volver a usarse")
+    void testRefrescarTokenYaUsado() {
+        // Arrange: otra petición consumió el token entre la lectura y el borrado
+        SesionRefresco sesion = SesionRefresco.builder()
+                .id("id").usuario("testuser")
+                .inicioSesion(LocalDateTime.of(2025, 1, 10, 11, 0))
+                .expira(LocalDateTime.of(2025, 1, 10, 13, 0))
+                .build();
+        when(sesionRefrescoRepo.findById(anyString())).thenReturn(Optional.of(sesion));
+        when(sesionRefrescoRepo.eliminarPorId(anyString())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(SesionInvalidaException.class, () -> sesionService.refrescar("token"));
+        verify(jwtUtils, never()).generarToken(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Revocar sesiones elimina las sesiones y revoca los tokens en todas las instancias")
+    void testRevocarSesiones() {
+        // Arrange
+        when(sesionRefrescoRepo.eliminarPorUsuario("testuser")).thenReturn(2);
+
+        // Act
+        sesionService.revocarSesiones("testuser");
+
+        // Assert
+        verify(revocacionService, times(1)).revocarUsuario("testuser");
+    }
+
+    private static UsuarioCredenciales credenciales(Rol rol) {
+        return new UsuarioCredenciales("testuser", "test@email.com", "hash", "3001234567", rol);
+    }
+}
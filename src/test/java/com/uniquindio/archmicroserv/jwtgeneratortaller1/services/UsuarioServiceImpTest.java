@@ -1,26 +1,39 @@
 package com.uniquindio.archmicroserv.jwtgeneratortaller1.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.JWTUtils;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.BloqueoCuentas;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.HashClaves;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.config.LimitesTasa;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.CambioClaveDTO;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.DatosUsuario;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.EventoDominio;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.LoginRequest;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.PaginaUsuariosDTO;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.TokenDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.dto.UsuarioResumenDTO;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.CuentaBloqueadaException;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.LimiteExcedidoException;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.exceptions.UsuarioNotFoundException;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging.EventoPublisher;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.messaging.OutboxEventos;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.CodigoValidacion;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.Usuario;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.UsuarioCredenciales;
+import com.uniquindio.archmicroserv.jwtgeneratortaller1.model.enums.Rol;
 import com.uniquindio.archmicroserv.jwtgeneratortaller1.repositories.UsuarioRepo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -31,12 +44,14 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -55,7 +70,18 @@ class UsuarioServiceImpTest {
     @Mock
     private EventoPublisher eventoPublisher;
 
-    @InjectMocks
+    @Mock
+    private SesionServiceImp sesionService;
+
+    @Mock
+    private LimitesTasa limitesTasa;
+
+    @Mock
+    private BloqueoCuentas bloqueoCuentas;
+
+    @Mock
+    private HashClaves hashClaves;
+
     private UsuarioServiceImp usuarioService;
 
     private DatosUsuario datosUsuario;
@@ -63,6 +89,14 @@ class UsuarioServiceImpTest {
 
     @BeforeEach
     void setUp() {
+        // La caché de usuarios es real y lee del repositorio simulado
+        // Sin outbox los eventos van directo al publisher simulado
+        OutboxEventos eventos = new OutboxEventos(null, eventoPublisher, new ObjectMapper(),
+                TransactionOperations.withoutTransaction(), false, 100);
+        usuarioService = new UsuarioServiceImp(usuarioRepo, jwtUtils, eventos, sesionService,
+                limitesTasa, bloqueoCuentas, hashClaves, new CacheUsuarios(usuarioRepo, true, 100, 60),
+                TransactionOperations.withoutTransaction());
+
         datosUsuario = new DatosUsuario();
         datosUsuario.setUsuario("testuser");
         datosUsuario.setCorreo("test@email.com");
@@ -85,16 +119,19 @@ class UsuarioServiceImpTest {
     @DisplayName("Registrar usuario exitosamente")
     void testRegistrarUsuarioExitoso() throws Exception {
         // Arrange
-        when(usuarioRepo.findById(datosUsuario.getUsuario())).thenReturn(Optional.empty());
-        when(usuarioRepo.save(any(Usuario.class))).thenReturn(usuario);
+        when(hashClaves.hashear("password123")).thenReturn("$2a$10$hash");
+        when(usuarioRepo.crearSiNoExiste(any(Usuario.class))).thenReturn(true);
         doNothing().when(eventoPublisher).publicar(any(EventoDominio.class));
 
         // Act
         usuarioService.registrarUsuario(datosUsuario);
 
         // Assert
-        verify(usuarioRepo, times(1)).findById(datosUsuario.getUsuario());
-        verify(usuarioRepo, times(1)).save(any(Usuario.class));
+        ArgumentCaptor<Usuario> captor = ArgumentCaptor.forClass(Usuario.class);
+        verify(usuarioRepo, times(1)).crearSiNoExiste(captor.capture());
+        assertEquals("$2a$10$hash", captor.getValue().getClave());
+        verify(usuarioRepo, never()).findById(anyString());
+        verify(usuarioRepo, never()).save(any(Usuario.class));
         verify(eventoPublisher, times(1)).publicar(any(EventoDominio.class));
     }
 
@@ -102,7 +139,7 @@ class UsuarioServiceImpTest {
     @DisplayName("Registrar usuario - usuario ya existe")
     void testRegistrarUsuarioYaExiste() {
         // Arrange
-        when(usuarioRepo.findById(datosUsuario.getUsuario())).thenReturn(Optional.of(usuario));
+        when(usuarioRepo.crearSiNoExiste(any(Usuario.class))).thenReturn(false);
 
         // Act & Assert
         Exception exception = assertThrows(Exception.class, () -> {
@@ -110,7 +147,7 @@ class UsuarioServiceImpTest {
         });
 
         assertEquals("El usuario ya existe", exception.getMessage());
-        verify(usuarioRepo, times(1)).findById(datosUsuario.getUsuario());
+        verify(usuarioRepo, times(1)).crearSiNoExiste(any(Usuario.class));
         verify(usuarioRepo, never()).save(any(Usuario.class));
         verify(eventoPublisher, never()).publicar(any(EventoDominio.class));
     }
@@ -122,8 +159,10 @@ class UsuarioServiceImpTest {
         LoginRequest loginRequest = new LoginRequest();
         loginRequest.setUsuario("testuser");
         loginRequest.setClave("password123");
-        when(usuarioRepo.findById(loginRequest.getUsuario())).thenReturn(Optional.of(usuario));
+        when(usuarioRepo.buscarCredenciales(loginRequest.getUsuario())).thenReturn(Optional.of(credenciales()));
+        when(hashClaves.verificar("password123", "password123")).thenReturn(true);
         when(jwtUtils.generarToken(anyString(), anyMap())).thenReturn("fake-jwt-token");
+        when(sesionService.crearSesion("testuser")).thenReturn("fake-refresh-token");
         doNothing().when(eventoPublisher).publicar(any(EventoDominio.class));
 
         // Act
@@ -132,9 +171,35 @@ class UsuarioServiceImpTest {
         // Assert
         assertNotNull(result);
         assertEquals("fake-jwt-token", result.token());
-        verify(usuarioRepo, times(1)).findById(loginRequest.getUsuario());
+        assertEquals("fake-refresh-token", result.refreshToken());
+        verify(usuarioRepo, times(1)).buscarCredenciales(loginRequest.getUsuario());
         verify(jwtUtils, times(1)).generarToken(anyString(), anyMap());
         verify(eventoPublisher, times(1)).publicar(any(EventoDominio.class));
+        // El login no carga la entidad ni la guarda
+        verify(usuarioRepo, never()).findById(anyString());
+        verify(usuarioRepo, never()).save(any(Usuario.class));
+        verify(usuarioRepo, never()).actualizarClave(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Login exitoso - actualiza el hash con parámetros antiguos")
+    void testLoginActualizaHash() throws Exception {
+        // Arrange
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsuario("testuser");
+        loginRequest.setClave("password123");
+        when(usuarioRepo.buscarCredenciales(loginRequest.getUsuario())).thenReturn(Optional.of(credenciales()));
+        when(hashClaves.verificar("password123", "password123")).thenReturn(true);
+        when(hashClaves.necesitaRehash("password123")).thenReturn(true);
+        when(hashClaves.hashear("password123")).thenReturn("$2a$12$nuevo-hash");
+        when(jwtUtils.generarToken(anyString(), anyMap())).thenReturn("fake-jwt-token");
+
+        // Act
+        usuarioService.login(loginRequest);
+
+        // Assert
+        verify(usuarioRepo, times(1)).actualizarClave("testuser", "$2a$12$nuevo-hash");
+        verify(usuarioRepo, never()).save(any(Usuario.class));
     }
 
     @Test
@@ -144,7 +209,7 @@ class UsuarioServiceImpTest {
         LoginRequest loginRequest = new LoginRequest();
         loginRequest.setUsuario("noexiste");
         loginRequest.setClave("password123");
-        when(usuarioRepo.findById(loginRequest.getUsuario())).thenReturn(Optional.empty());
+        when(usuarioRepo.buscarCredenciales(loginRequest.getUsuario())).thenReturn(Optional.empty());
 
         // Act & Assert
         Exception exception = assertThrows(Exception.class, () -> {
@@ -152,10 +217,44 @@ class UsuarioServiceImpTest {
         });
 
         assertEquals("Usuario no encontrado", exception.getMessage());
-        verify(usuarioRepo, times(1)).findById(loginRequest.getUsuario());
+        verify(usuarioRepo, times(1)).buscarCredenciales(loginRequest.getUsuario());
         verify(jwtUtils, never()).generarToken(anyString(), anyMap());
     }
 
+    @Test
+    @DisplayName("Login - límite de tasa por usuario excedido no consulta la base de datos")
+    void testLoginLimiteExcedido() {
+        // Arrange
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsuario("testuser");
+        loginRequest.setClave("password123");
+        doThrow(new LimiteExcedidoException(LimitesTasa.MENSAJE, 30))
+                .when(limitesTasa).verificarUsuario(LimitesTasa.RutaLimitada.SESIONES, "testuser");
+
+        // Act & Assert
+        LimiteExcedidoException exception = assertThrows(LimiteExcedidoException.class, () -> {
+            usuarioService.login(loginRequest);
+        });
+
+        assertEquals(30, exception.getSegundosEspera());
+        verify(usuarioRepo, never()).buscarCredenciales(anyString());
+    }
+
+    @Test
+    @DisplayName("Login - cuenta bloqueada no consulta la base de datos")
+    void testLoginCuentaBloqueada() {
+        // Arrange
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsuario("testuser");
+        loginRequest.setClave("password123");
+        doThrow(new CuentaBloqueadaException(BloqueoCuentas.MENSAJE, 600))
+                .when(bloqueoCuentas).verificar("testuser");
+
+        // Act & Assert
+        assertThrows(CuentaBloqueadaException.class, () -> usuarioService.login(loginRequest));
+        verify(usuarioRepo, never()).buscarCredenciales(anyString());
+    }
+
     @Test
     @DisplayName("Login - contraseña inválida")
     void testLoginContrasenaInvalida() {
@@ -163,7 +262,7 @@ class UsuarioServiceImpTest {
         LoginRequest loginRequest = new LoginRequest();
         loginRequest.setUsuario("testuser");
         loginRequest.setClave("wrongpassword");
-        when(usuarioRepo.findById(loginRequest.getUsuario())).thenReturn(Optional.of(usuario));
+        when(usuarioRepo.buscarCredenciales(loginRequest.getUsuario())).thenReturn(Optional.of(credenciales()));
 
         // Act & Assert
         Exception exception = assertThrows(Exception.class, () -> {
@@ -171,8 +270,10 @@ class UsuarioServiceImpTest {
         });
 
         assertEquals("Contrasena invalida", exception.getMessage());
-        verify(usuarioRepo, times(1)).findById(loginRequest.getUsuario());
+        verify(usuarioRepo, times(1)).buscarCredenciales(loginRequest.getUsuario());
         verify(jwtUtils, never()).generarToken(anyString(), anyMap());
+        verify(bloqueoCuentas).registrarFallo(loginRequest.getUsuario());
+        verify(bloqueoCuentas, never()).registrarExito(anyString());
     }
 
     @Test
@@ -220,6 +321,7 @@ class UsuarioServiceImpTest {
 
         CambioClaveDTO cambioClaveDTO = new CambioClaveDTO("testuser", "newpassword", "ABC123");
         when(usuarioRepo.findById("testuser")).thenReturn(Optional.of(usuario));
+        when(hashClaves.hashear("newpassword")).thenReturn("$2a$10$hash-newpassword");
         when(usuarioRepo.save(any(Usuario.class))).thenReturn(usuario);
         doNothing().when(eventoPublisher).publicar(any(EventoDominio.class));
 
@@ -227,10 +329,11 @@ class UsuarioServiceImpTest {
         usuarioService.cambiarClave(cambioClaveDTO);
 
         // Assert
-        assertEquals("newpassword", usuario.getClave());
+        assertEquals("$2a$10$hash-newpassword", usuario.getClave());
         verify(usuarioRepo, times(1)).findById("testuser");
         verify(usuarioRepo, times(1)).save(any(Usuario.class));
         verify(eventoPublisher, times(1)).publicar(any(EventoDominio.class));
+        verify(sesionService, times(1)).revocarSesiones("testuser");
     }
 
     @Test
@@ -356,6 +459,29 @@ class UsuarioServiceImpTest {
         verify(usuarioRepo, never()).save(any(Usuario.class));
     }
 
+    @Test
+    @DisplayName("Actualizar datos invalida el usuario en caché")
+    void testActualizarDatosInvalidaCache() throws Exception {
+        // Arrange
+        DatosUsuario nuevosDatos = new DatosUsuario();
+        nuevosDatos.setUsuario("testuser");
+        nuevosDatos.setNumeroTelefono("+0987654321");
+        when(usuarioRepo.findById("testuser")).thenReturn(Optional.of(usuario));
+        when(usuarioRepo.buscarCredenciales("testuser")).thenAnswer(invocacion -> Optional.of(credenciales()));
+        usuarioService.obtenerUsuario("testuser");
+        usuarioService.obtenerUsuario("testuser");
+
+        // Act
+        usuarioService.actualizarDatos(nuevosDatos);
+        UsuarioResumenDTO result = usuarioService.obtenerUsuario("testuser");
+
+        // Assert
+        assertEquals("+0987654321", result.numeroTelefono());
+        // obtener (fallo), obtener (acierto), obtener tras invalidar; actualizar lee la entidad
+        verify(usuarioRepo, times(2)).buscarCredenciales("testuser");
+        verify(usuarioRepo, times(1)).findById("testuser");
+    }
+
     @Test
     @DisplayName("Obtener usuarios - página válida")
     void testObtenerUsuariosExitoso() throws Exception {
@@ -389,32 +515,74 @@ class UsuarioServiceImpTest {
         verify(usuarioRepo, times(1)).findAll(any(Pageable.class));
     }
 
+    @Test
+    @DisplayName("Página por cursor - hay página siguiente")
+    void testObtenerPaginaUsuariosConSiguiente() {
+        // Arrange: se piden 2 y el repositorio retorna 3 (una fila de más)
+        when(usuarioRepo.buscarPagina("", Limit.of(3))).thenReturn(List.of(
+                resumen("ana"), resumen("beto"), resumen("carla")));
+
+        // Act
+        PaginaUsuariosDTO pagina = usuarioService.obtenerPaginaUsuarios(null, 2);
+
+        // Assert
+        assertEquals(2, pagina.usuarios().size());
+        assertEquals("beto", pagina.usuarios().get(1).usuario());
+        assertNotNull(pagina.siguiente());
+
+        // El cursor retornado continúa después del último usuario de la página
+        when(usuarioRepo.buscarPagina("beto", Limit.of(3))).thenReturn(List.of(resumen("carla")));
+        PaginaUsuariosDTO siguiente = usuarioService.obtenerPaginaUsuarios(pagina.siguiente(), 2);
+        assertEquals(1, siguiente.usuarios().size());
+        assertNull(siguiente.siguiente());
+    }
+
+    @Test
+    @DisplayName("Página por cursor - cursor inválido")
+    void testObtenerPaginaUsuariosCursorInvalido() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> usuarioService.obtenerPaginaUsuarios("no*es*base64", 10));
+        assertEquals("Cursor de paginación inválido", exception.getMessage());
+        verify(usuarioRepo, never()).buscarPagina(anyString(), any(Limit.class));
+    }
+
+    private UsuarioCredenciales credenciales() {
+        return new UsuarioCredenciales(usuario.getUsuario(), usuario.getCorreo(), usuario.getClave(),
+                usuario.getNumeroTelefono(), Rol.getRolByName(usuario.getRol()));
+    }
+
+    private static UsuarioResumenDTO resumen(String usuario) {
+        return new UsuarioResumenDTO(usuario, usuario + "@email.com", "+573001234567", Rol.CLIENTE);
+    }
+
     @Test
     @DisplayName("Existe usuario - usuario válido")
     void testExisteUsuarioValido() {
         // Arrange
-        when(usuarioRepo.findById(datosUsuario.getUsuario())).thenReturn(Optional.of(usuario));
+        when(usuarioRepo.buscarCredenciales(datosUsuario.getUsuario())).thenReturn(Optional.of(credenciales()));
+        when(hashClaves.verificar("password123", "password123")).thenReturn(true);
 
         // Act
         boolean result = usuarioService.existeUsuario(datosUsuario);
 
         // Assert
         assertTrue(result);
-        verify(usuarioRepo, times(1)).findById(datosUsuario.getUsuario());
+        verify(usuarioRepo, times(1)).buscarCredenciales(datosUsuario.getUsuario());
     }
 
     @Test
     @DisplayName("Existe usuario - usuario no existe")
     void testExisteUsuarioNoExiste() {
         // Arrange
-        when(usuarioRepo.findById(datosUsuario.getUsuario())).thenReturn(Optional.empty());
+        when(usuarioRepo.buscarCredenciales(datosUsuario.getUsuario())).thenReturn(Optional.empty());
 
         // Act
         boolean result = usuarioService.existeUsuario(datosUsuario);
 
         // Assert
         assertFalse(result);
-        verify(usuarioRepo, times(1)).findById(datosUsuario.getUsuario());
+        verify(usuarioRepo, times(1)).buscarCredenciales(datosUsuario.getUsuario());
     }
 
     @Test
@@ -430,6 +598,7 @@ class UsuarioServiceImpTest {
         // Assert
         verify(usuarioRepo, times(1)).findById("testuser");
         verify(usuarioRepo, times(1)).delete(any(Usuario.class));
+        verify(sesionService, times(1)).revocarSesiones("testuser");
     }
 
     @Test